@@ -0,0 +1,87 @@
+import benchmark.KnapsackInstance;
+import benchmark.OptRunner;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import model.PhaseMetrics;
+
+import java.util.List;
+
+/**
+ * @author kun.hu
+ * 多背包问题的AbstractCpOpt实现, 供基准测试按类名加载(AbstractCpOpt位于默认包)
+ */
+public class KnapsackCpOpt extends AbstractCpOpt<long[][]> implements OptRunner {
+
+    private KnapsackInstance data;
+
+    private double maxTimeInSeconds;
+
+    private IntVar[][] x;
+
+    @Override
+    public List<PhaseMetrics> run(KnapsackInstance instance, double maxTimeInSeconds) {
+        this.data = instance;
+        this.maxTimeInSeconds = maxTimeInSeconds;
+        execute();
+        return getPhaseMetrics();
+    }
+
+    @Override
+    protected void init() {}
+
+    @Override
+    protected void doCreateVars() {
+        this.x = new IntVar[this.data.numItems][this.data.numBins];
+        for(int i=0; i<this.data.numItems; i++){
+            for(int j=0; j<this.data.numBins; j++){
+                this.x[i][j] = this.model.newBoolVar("");
+            }
+        }
+    }
+
+    @Override
+    protected void doComputeInterVar() {}
+
+    @Override
+    protected void doAddConstraints() {
+        // 一个品至多只能放一个包
+        for(int i=0; i<this.data.numItems; i++){
+            this.model.addLessOrEqual(LinearExpr.sum(this.x[i]), 1);
+        }
+        // 一个包重量不超
+        for(int j=0; j<this.data.numBins; j++){
+            IntVar[] t = new IntVar[this.data.numItems];
+            for(int i=0; i<this.data.numItems; i++){
+                t[i] = this.x[i][j];
+            }
+            this.model.addLessOrEqual(LinearExpr.scalProd(t, this.data.weights), this.data.binCapacities[j]);
+        }
+    }
+
+    @Override
+    protected void doSetObjective() {
+        // 收益最大
+        for(int i=0; i<this.data.numItems; i++){
+            for(int j=0; j<this.data.numBins; j++){
+                refreshObjVarWeight("value", this.x[i][j], this.data.values[i]);
+            }
+        }
+        maximizeObj();
+    }
+
+    @Override
+    protected void doSetSolverParam() {
+        this.solver.getParameters().setMaxTimeInSeconds(this.maxTimeInSeconds);
+        this.solver.getParameters().setLogSearchProgress(false);
+    }
+
+    @Override
+    protected long[][] parseResult() {
+        return values(this.x);
+    }
+
+    @Override
+    protected long[][] getDefaultResult() {
+        return new long[0][];
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import model.PhaseMetrics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * AbstractCpOpt端到端求解随机多背包实例, 并按阶段统计耗时
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class AbstractCpOptBenchmark {
+
+    static {
+        NativeLib.load();
+    }
+
+    /**
+     * 默认包中的实现类名
+     */
+    private static final String RUNNER_CLASS = "KnapsackCpOpt";
+
+    @Param({"20", "50", "200"})
+    public int numItems;
+
+    @Param({"5"})
+    public int numBins;
+
+    @Param({"10"})
+    public double maxTimeInSeconds;
+
+    private KnapsackInstance instance;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        this.instance = new KnapsackInstance(this.numItems, this.numBins, 42);
+    }
+
+    /**
+     * 各阶段耗时(毫秒), 随结果一并输出
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PhaseCounters {
+        public long buildMillis;
+        public long solveMillis;
+        public long parseMillis;
+    }
+
+    @Benchmark
+    public List<PhaseMetrics> execute(PhaseCounters counters) throws ReflectiveOperationException {
+        OptRunner runner = (OptRunner) Class.forName(RUNNER_CLASS).getDeclaredConstructor().newInstance();
+        List<PhaseMetrics> phases = runner.run(this.instance, this.maxTimeInSeconds);
+        for(PhaseMetrics phase : phases){
+            switch (phase.getPhase()){
+                case "trySolve":
+                    counters.solveMillis += phase.getWallMillis();
+                    break;
+                case "parseResult":
+                    counters.parseMillis += phase.getWallMillis();
+                    break;
+                default:
+                    counters.buildMillis += phase.getWallMillis();
+            }
+        }
+        return phases;
+    }
+}
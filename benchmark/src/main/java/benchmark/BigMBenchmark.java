@@ -0,0 +1,100 @@
+package benchmark;
+
+import com.google.ortools.linearsolver.MPObjective;
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPVariable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.LinearSolverUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * min线性化固定大M(M_VALUE) vs 由变量界推导大M的CBC求解耗时与B&B节点数(辅助计数器nodes)
+ * 实例: 最小化 sum(c_i*x_i) - 10*min(x), x_i∈[0,60], 相邻两项之和需覆盖需求
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BigMBenchmark {
+
+    static {
+        NativeLib.load();
+    }
+
+    /**
+     * 变量个数
+     */
+    @Param({"12", "24", "48"})
+    public int size;
+
+    private MPSolver solver;
+
+    private LinearSolverUtil solverUtil;
+
+    private MPVariable[] x;
+
+    /**
+     * 每次调用的B&B节点数, 以JMH辅助计数器输出
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp(){
+        this.solver = new MPSolver("bigM", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        this.solverUtil = new LinearSolverUtil(this.solver);
+        this.x = this.solver.makeIntVarArray(this.size, 0, 60);
+        for(int i=0; i<this.size-1; i++){
+            this.solverUtil.addGreaterOrEqual(new MPVariable[]{this.x[i], this.x[i+1]}, new double[]{1, 1}, 30 + (i * 7) % 20, "");
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown(){
+        this.solver.delete();
+    }
+
+    @Benchmark
+    public double fixedBigM(Nodes counter){
+        return solve(this.solverUtil.min(this.x, LinearSolverUtil.M_VALUE, "min"), counter);
+    }
+
+    @Benchmark
+    public double derivedBigM(Nodes counter){
+        return solve(this.solverUtil.min(this.x, "min"), counter);
+    }
+
+    private double solve(MPVariable minV, Nodes counter){
+        MPObjective objective = this.solver.objective();
+        for(int i=0; i<this.size; i++){
+            objective.setCoefficient(this.x[i], 1 + (i * 5) % 7);
+        }
+        objective.setCoefficient(minV, -10);
+        objective.setMinimization();
+        if(this.solver.solve() != MPSolver.ResultStatus.OPTIMAL){
+            throw new IllegalStateException("未求得最优解");
+        }
+        counter.nodes += this.solver.nodes();
+        return objective.value();
+    }
+}
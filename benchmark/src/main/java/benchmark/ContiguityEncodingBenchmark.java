@@ -0,0 +1,127 @@
+package benchmark;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.ContiguityEncoding;
+import utils.CpModelUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * 相邻约束各编码方式的求解耗时(含建模, 以求解为主)
+ * optionalNeighbor*: 货架陈列, 3个商品各占一组连续货位(位置间断模拟隔板), 最大化陈列收益
+ * neighbor*: slots/2个商品占据连续且互不相同的位置, 最大化位置加权和
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContiguityEncodingBenchmark {
+
+    static {
+        NativeLib.load();
+    }
+
+    /**
+     * 货位数
+     */
+    @Param({"8", "16", "32"})
+    public int slots;
+
+    @Benchmark
+    public double optionalNeighborMaxMin(){
+        return solve(shelf(ContiguityEncoding.MAX_MIN));
+    }
+
+    @Benchmark
+    public double optionalNeighborStartLiterals(){
+        return solve(shelf(ContiguityEncoding.START_LITERALS));
+    }
+
+    @Benchmark
+    public double optionalNeighborAutomaton(){
+        return solve(shelf(ContiguityEncoding.AUTOMATON));
+    }
+
+    @Benchmark
+    public double neighborMaxMin(){
+        return solve(neighbor(ContiguityEncoding.MAX_MIN));
+    }
+
+    @Benchmark
+    public double neighborNoOverlap(){
+        return solve(neighbor(ContiguityEncoding.NO_OVERLAP));
+    }
+
+    private CpModel neighbor(ContiguityEncoding encoding){
+        CpModel model = new CpModel();
+        int items = this.slots / 2;
+        IntVar[] positionVars = new IntVar[items];
+        int[] weights = new int[items];
+        for(int i=0; i<items; i++){
+            positionVars[i] = model.newIntVar(0, this.slots - 1, "p" + i);
+            weights[i] = (i * 7) % 5 + 1;
+        }
+        model.addAllDifferent(positionVars);
+        CpModelUtil.addNeighborConstraints(model, positionVars, encoding);
+        model.maximize(LinearExpr.scalProd(positionVars, weights));
+        return model;
+    }
+
+    private CpModel shelf(ContiguityEncoding encoding){
+        CpModel model = new CpModel();
+        int items = 3;
+        // 每4个货位后有一块隔板, 位置编号跳过1
+        int[] positions = new int[this.slots];
+        for(int s=0; s<this.slots; s++){
+            positions[s] = s + s / 4;
+        }
+        IntVar[] all = new IntVar[items * this.slots];
+        int[] gains = new int[items * this.slots];
+        for(int i=0; i<items; i++){
+            IntVar[] row = new IntVar[this.slots];
+            for(int s=0; s<this.slots; s++){
+                row[s] = model.newBoolVar("x" + i + "_" + s);
+                all[i * this.slots + s] = row[s];
+                gains[i * this.slots + s] = (i * 13 + s * 7) % 11 + 1;
+            }
+            CpModelUtil.addOptionalNeighborConstraints(model, positions, row, encoding);
+            model.addLessOrEqual(LinearExpr.sum(row), 4);
+        }
+        for(int s=0; s<this.slots; s++){
+            IntVar[] column = new IntVar[items];
+            for(int i=0; i<items; i++){
+                column[i] = all[i * this.slots + s];
+            }
+            model.addLessOrEqual(LinearExpr.sum(column), 1);
+        }
+        model.maximize(LinearExpr.scalProd(all, gains));
+        return model;
+    }
+
+    private static double solve(CpModel model){
+        CpSolver solver = new CpSolver();
+        solver.getParameters().setMaxTimeInSeconds(30);
+        solver.getParameters().setNumSearchWorkers(8);
+        if(solver.solve(model) != CpSolverStatus.OPTIMAL){
+            throw new IllegalStateException("未求得最优解");
+        }
+        return solver.objectiveValue();
+    }
+}
@@ -0,0 +1,129 @@
+package benchmark;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.IntVar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.ContiguityEncoding;
+import utils.CpExpr;
+import utils.CpModelUtil;
+import utils.OptionalEncoding;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * CpModelUtil各辅助方法的建模耗时, 每次调用在新模型上进行, 变量准备不计入耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CpModelUtilBenchmark {
+
+    static {
+        NativeLib.load();
+    }
+
+    /**
+     * 数组规模
+     */
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private CpModel model;
+
+    private IntVar[] valueVars;
+
+    private IntVar[] optionalVars;
+
+    private int[] positions;
+
+    @Setup(Level.Invocation)
+    public void setUp(){
+        this.model = new CpModel();
+        this.valueVars = new IntVar[this.size];
+        this.optionalVars = new IntVar[this.size];
+        this.positions = new int[this.size];
+        for(int i=0; i<this.size; i++){
+            this.valueVars[i] = this.model.newIntVar(0, 1000, "");
+            this.optionalVars[i] = this.model.newBoolVar("");
+            this.positions[i] = i;
+        }
+    }
+
+    @Benchmark
+    public IntVar sum(){
+        return CpModelUtil.sum(this.model, this.valueVars);
+    }
+
+    @Benchmark
+    public IntVar max(){
+        return CpModelUtil.max(this.model, this.valueVars);
+    }
+
+    @Benchmark
+    public IntVar min(){
+        return CpModelUtil.min(this.model, this.valueVars);
+    }
+
+    @Benchmark
+    public IntVar optionalMaxBigM(){
+        return CpModelUtil.optionalMax(this.model, this.valueVars, this.optionalVars, OptionalEncoding.BIG_M);
+    }
+
+    @Benchmark
+    public IntVar optionalMaxEnforcement(){
+        return CpModelUtil.optionalMax(this.model, this.valueVars, this.optionalVars, OptionalEncoding.ENFORCEMENT);
+    }
+
+    @Benchmark
+    public IntVar optionalMaxElement(){
+        return CpModelUtil.optionalMax(this.model, this.valueVars, this.optionalVars, OptionalEncoding.ELEMENT);
+    }
+
+    @Benchmark
+    public IntVar optionalMinBigM(){
+        return CpModelUtil.optionalMin(this.model, this.valueVars, this.optionalVars, OptionalEncoding.BIG_M);
+    }
+
+    @Benchmark
+    public IntVar optionalMaxValues(){
+        return CpModelUtil.optionalMax(this.model, this.positions, this.optionalVars);
+    }
+
+    @Benchmark
+    public CpModel optionalNeighborMaxMin(){
+        CpModelUtil.addOptionalNeighborConstraints(this.model, this.positions, this.optionalVars, ContiguityEncoding.MAX_MIN);
+        return this.model;
+    }
+
+    @Benchmark
+    public CpModel optionalNeighborStartLiterals(){
+        CpModelUtil.addOptionalNeighborConstraints(this.model, this.positions, this.optionalVars, ContiguityEncoding.START_LITERALS);
+        return this.model;
+    }
+
+    @Benchmark
+    public CpModel optionalNeighborAutomaton(){
+        CpModelUtil.addOptionalNeighborConstraints(this.model, this.positions, this.optionalVars, ContiguityEncoding.AUTOMATON);
+        return this.model;
+    }
+
+    @Benchmark
+    public IntVar lazyExpression(){
+        return CpExpr.sum(CpExpr.scalProd(this.valueVars, this.positions), CpExpr.sum(this.optionalVars)).toIntVar(this.model);
+    }
+}
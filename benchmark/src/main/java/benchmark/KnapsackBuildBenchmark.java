@@ -0,0 +1,100 @@
+package benchmark;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CpBulkBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * 多背包模型建模耗时: 逐行LinearExpr建模 vs CpBulkBuilder批量建模
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KnapsackBuildBenchmark {
+
+    static {
+        NativeLib.load();
+    }
+
+    @Param({"100", "1000", "10000"})
+    public int numItems;
+
+    @Param({"10", "100"})
+    public int numBins;
+
+    private KnapsackInstance instance;
+
+    @Setup
+    public void setUp(){
+        this.instance = new KnapsackInstance(this.numItems, this.numBins, 42);
+    }
+
+    @Benchmark
+    public CpModel linearExpr(){
+        KnapsackInstance data = this.instance;
+        CpModel model = new CpModel();
+        IntVar[][] x = new IntVar[data.numItems][data.numBins];
+        for(int i=0; i<data.numItems; i++){
+            for(int j=0; j<data.numBins; j++){
+                x[i][j] = model.newBoolVar("");
+            }
+            model.addLessOrEqual(LinearExpr.sum(x[i]), 1);
+        }
+        for(int j=0; j<data.numBins; j++){
+            IntVar[] t = new IntVar[data.numItems];
+            for(int i=0; i<data.numItems; i++){
+                t[i] = x[i][j];
+            }
+            model.addLessOrEqual(LinearExpr.scalProd(t, data.weights), data.binCapacities[j]);
+        }
+        IntVar[] o = new IntVar[data.numItems * data.numBins];
+        int[] ow = new int[data.numItems * data.numBins];
+        for(int i=0; i<data.numItems; i++){
+            for(int j=0; j<data.numBins; j++){
+                o[i * data.numBins + j] = x[i][j];
+                ow[i * data.numBins + j] = data.values[i];
+            }
+        }
+        model.maximize(LinearExpr.scalProd(o, ow));
+        return model;
+    }
+
+    @Benchmark
+    public CpModel bulkBuilder(){
+        KnapsackInstance data = this.instance;
+        CpModel model = new CpModel();
+        CpBulkBuilder bulk = new CpBulkBuilder(model);
+        CpBulkBuilder.VarBlock x = bulk.newBoolVarBlock(data.numItems, data.numBins);
+        bulk.addRowSums(x, 0, 1);
+        long[] binMax = new long[data.numBins];
+        for(int j=0; j<data.numBins; j++){
+            binMax[j] = data.binCapacities[j];
+        }
+        bulk.addColumnWeightedSums(x, data.weights, new long[data.numBins], binMax);
+        int[][] ow = new int[data.numItems][data.numBins];
+        for(int i=0; i<data.numItems; i++){
+            Arrays.fill(ow[i], data.values[i]);
+        }
+        bulk.setObjective(x, ow, false);
+        return model;
+    }
+}
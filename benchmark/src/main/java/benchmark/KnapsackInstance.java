@@ -0,0 +1,39 @@
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * @author kun.hu
+ * 随机生成的多背包实例, 相同参数生成相同实例
+ */
+public class KnapsackInstance {
+
+    public final int numItems;
+
+    public final int numBins;
+
+    public final int[] weights;
+
+    public final int[] values;
+
+    public final int[] binCapacities;
+
+    public KnapsackInstance(int numItems, int numBins, long seed){
+        Random random = new Random(seed);
+        this.numItems = numItems;
+        this.numBins = numBins;
+        this.weights = new int[numItems];
+        this.values = new int[numItems];
+        long totalWeight = 0;
+        for(int i=0; i<numItems; i++){
+            this.weights[i] = 10 + random.nextInt(50);
+            this.values[i] = 10 + random.nextInt(50);
+            totalWeight += this.weights[i];
+        }
+        // 总容量约为总重量的一半
+        this.binCapacities = new int[numBins];
+        for(int j=0; j<numBins; j++){
+            this.binCapacities[j] = (int) Math.max(60, totalWeight / (2L * numBins));
+        }
+    }
+}
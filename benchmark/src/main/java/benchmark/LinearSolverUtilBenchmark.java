@@ -0,0 +1,188 @@
+package benchmark;
+
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPVariable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.LinearSolverUtil;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * LinearSolverUtil约束加载耗时: 多背包模型的行/列约束 + min线性化
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LinearSolverUtilBenchmark {
+
+    static {
+        NativeLib.load();
+    }
+
+    @Param({"100", "1000"})
+    public int numItems;
+
+    @Param({"10"})
+    public int numBins;
+
+    private KnapsackInstance instance;
+
+    private MPSolver solver;
+
+    private MPVariable[][] x;
+
+    @Setup(Level.Trial)
+    public void setUpInstance(){
+        this.instance = new KnapsackInstance(this.numItems, this.numBins, 42);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp(){
+        this.solver = new MPSolver("benchmark", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        this.x = new MPVariable[this.numItems][];
+        for(int i=0; i<this.numItems; i++){
+            this.x[i] = this.solver.makeBoolVarArray(this.numBins);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown(){
+        this.solver.delete();
+    }
+
+    @Benchmark
+    public MPSolver knapsackConstraints(){
+        KnapsackInstance data = this.instance;
+        LinearSolverUtil solverUtil = new LinearSolverUtil(this.solver);
+        double[] ones = new double[data.numBins];
+        Arrays.fill(ones, 1.0);
+        for(int i=0; i<data.numItems; i++){
+            solverUtil.addLessOrEqual(this.x[i], ones, 1, "");
+        }
+        MPVariable[] column = new MPVariable[data.numItems];
+        double[] weights = new double[data.numItems];
+        for(int j=0; j<data.numBins; j++){
+            for(int i=0; i<data.numItems; i++){
+                column[i] = this.x[i][j];
+                weights[i] = data.weights[i];
+            }
+            solverUtil.addLessOrEqual(column, weights, data.binCapacities[j], "");
+        }
+        return this.solver;
+    }
+
+    @Benchmark
+    public MPVariable min(){
+        LinearSolverUtil solverUtil = new LinearSolverUtil(this.solver);
+        MPVariable[] column = new MPVariable[this.numItems];
+        for(int i=0; i<this.numItems; i++){
+            column[i] = this.x[i][0];
+        }
+        return solverUtil.min(column, "");
+    }
+
+    /**
+     * 空求解器, 用于完整建模(变量+约束+目标)的对比
+     */
+    @State(Scope.Thread)
+    public static class EmptySolver {
+        private MPSolver solver;
+
+        @Setup(Level.Invocation)
+        public void setUp(){
+            this.solver = new MPSolver("benchmark", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown(){
+            this.solver.delete();
+        }
+    }
+
+    /**
+     * 逐变量创建, 逐系数setCoefficient
+     */
+    @Benchmark
+    public MPSolver perCoefficientModel(EmptySolver empty){
+        KnapsackInstance data = this.instance;
+        MPSolver solver = empty.solver;
+        LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+        MPVariable[][] vars = new MPVariable[data.numItems][];
+        double[] ones = new double[data.numBins];
+        Arrays.fill(ones, 1.0);
+        for(int i=0; i<data.numItems; i++){
+            vars[i] = solver.makeBoolVarArray(data.numBins);
+            solverUtil.addLessOrEqual(vars[i], ones, 1, "");
+        }
+        MPVariable[] column = new MPVariable[data.numItems];
+        double[] weights = new double[data.numItems];
+        for(int j=0; j<data.numBins; j++){
+            for(int i=0; i<data.numItems; i++){
+                column[i] = vars[i][j];
+                weights[i] = data.weights[i];
+            }
+            solverUtil.addLessOrEqual(column, weights, data.binCapacities[j], "");
+        }
+        for(int i=0; i<data.numItems; i++){
+            for(int j=0; j<data.numBins; j++){
+                solver.objective().setCoefficient(vars[i][j], data.values[i]);
+            }
+        }
+        solver.objective().setMaximization();
+        return solver;
+    }
+
+    /**
+     * 批量变量 + CSR缓冲 + loadModelFromProto
+     */
+    @Benchmark
+    public MPSolver bulkModel(EmptySolver empty){
+        KnapsackInstance data = this.instance;
+        LinearSolverUtil solverUtil = new LinearSolverUtil(empty.solver);
+        int n = data.numItems * data.numBins;
+        double[] ubs = new double[n];
+        Arrays.fill(ubs, 1.0);
+        // x[i][j]的下标为 i * numBins + j
+        int[] x = solverUtil.addVariablesBulk(new double[n], ubs, true);
+        double[] ones = new double[data.numBins];
+        Arrays.fill(ones, 1.0);
+        int[] row = new int[data.numBins];
+        for(int i=0; i<data.numItems; i++){
+            System.arraycopy(x, i * data.numBins, row, 0, data.numBins);
+            solverUtil.addLessOrEqualBulk(row, ones, 1);
+        }
+        int[] column = new int[data.numItems];
+        double[] weights = new double[data.numItems];
+        for(int j=0; j<data.numBins; j++){
+            for(int i=0; i<data.numItems; i++){
+                column[i] = x[i * data.numBins + j];
+                weights[i] = data.weights[i];
+            }
+            solverUtil.addLessOrEqualBulk(column, weights, data.binCapacities[j]);
+        }
+        double[] objCoefs = new double[n];
+        for(int k=0; k<n; k++){
+            objCoefs[k] = data.values[k / data.numBins];
+        }
+        solverUtil.setObjectiveBulk(x, objCoefs, true);
+        solverUtil.loadBulk();
+        return empty.solver;
+    }
+}
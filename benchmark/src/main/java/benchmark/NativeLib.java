@@ -0,0 +1,16 @@
+package benchmark;
+
+import utils.ORToolsLoader;
+
+/**
+ * @author kun.hu
+ * 基准测试加载or-tools本地库: -Dortools.lib=库文件路径, 未指定时按库名从java.library.path加载
+ */
+final class NativeLib {
+
+    private NativeLib(){}
+
+    static void load(){
+        ORToolsLoader.load(System.getProperty("ortools.lib", ""));
+    }
+}
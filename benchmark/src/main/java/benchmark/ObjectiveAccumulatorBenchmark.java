@@ -0,0 +1,83 @@
+package benchmark;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.ObjectiveAccumulator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * 目标项累加: 装箱Map(原实现) vs ObjectiveAccumulator, 每个变量重复累加4次后转为LinearExpr
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ObjectiveAccumulatorBenchmark {
+
+    static {
+        NativeLib.load();
+    }
+
+    /**
+     * 累加次数
+     */
+    @Param({"100000", "1000000"})
+    public int terms;
+
+    private IntVar[] vars;
+
+    @Setup
+    public void setUp(){
+        CpModel model = new CpModel();
+        this.vars = new IntVar[this.terms / 4];
+        for(int i=0; i<this.vars.length; i++){
+            this.vars[i] = model.newBoolVar("");
+        }
+    }
+
+    @Benchmark
+    public LinearExpr boxedMap(){
+        Map<String, Map<IntVar, Integer>> objVarWeightMap = new HashMap<>();
+        for(int i=0; i<this.terms; i++){
+            IntVar var = this.vars[i % this.vars.length];
+            Map<IntVar, Integer> varWeight = objVarWeightMap.computeIfAbsent("obj", k -> new HashMap<>(16));
+            varWeight.put(var, varWeight.getOrDefault(var, 0) + i % 7 + 1);
+        }
+        List<IntVar> objVarList = new ArrayList<>();
+        List<Integer> objWeightList = new ArrayList<>();
+        objVarWeightMap.values().forEach(varWeight -> varWeight.forEach((var, weight) -> {
+            objVarList.add(var);
+            objWeightList.add(weight);
+        }));
+        return LinearExpr.scalProd(objVarList.toArray(new IntVar[0]), objWeightList.stream().mapToInt(i -> i).toArray());
+    }
+
+    @Benchmark
+    public LinearExpr accumulator(){
+        ObjectiveAccumulator acc = new ObjectiveAccumulator();
+        for(int i=0; i<this.terms; i++){
+            acc.add("obj", this.vars[i % this.vars.length], i % 7 + 1);
+        }
+        return acc.toLinearExpr();
+    }
+}
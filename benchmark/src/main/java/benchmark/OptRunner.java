@@ -0,0 +1,20 @@
+package benchmark;
+
+import model.PhaseMetrics;
+
+import java.util.List;
+
+/**
+ * @author kun.hu
+ * AbstractCpOpt位于默认包, 命名包无法直接引用; 其基准子类实现该接口后按类名加载
+ */
+public interface OptRunner {
+
+    /**
+     * 执行一次完整流程
+     * @param instance 多背包实例
+     * @param maxTimeInSeconds 求解时长上限
+     * @return 各阶段耗时
+     */
+    List<PhaseMetrics> run(KnapsackInstance instance, double maxTimeInSeconds);
+}
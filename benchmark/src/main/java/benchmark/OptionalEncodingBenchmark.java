@@ -0,0 +1,79 @@
+package benchmark;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.CpModelUtil;
+import utils.OptionalEncoding;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * optionalMax/optionalMin各编码方式的求解耗时: 选出至少一半元素, 最小化(被选中值的最大值 - 被选中值的最小值)
+ * 建模不计入耗时; 用于比较ENFORCEMENT/ELEMENT随规模的求解耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OptionalEncodingBenchmark {
+
+    static {
+        NativeLib.load();
+    }
+
+    /**
+     * 数组规模
+     */
+    @Param({"4", "16", "64", "256"})
+    public int size;
+
+    @Param({"BIG_M", "ENFORCEMENT", "ELEMENT"})
+    public OptionalEncoding encoding;
+
+    private CpModel model;
+
+    @Setup(Level.Invocation)
+    public void setUp(){
+        this.model = new CpModel();
+        IntVar[] valueVars = new IntVar[this.size];
+        IntVar[] optionalVars = new IntVar[this.size];
+        for(int i=0; i<this.size; i++){
+            int base = (i * 37) % 100;
+            valueVars[i] = this.model.newIntVar(base, base + 20, "v" + i);
+            optionalVars[i] = this.model.newBoolVar("o" + i);
+        }
+        this.model.addGreaterOrEqual(LinearExpr.sum(optionalVars), (this.size + 1) / 2);
+        IntVar maxVar = CpModelUtil.optionalMax(this.model, valueVars, optionalVars, 0, 120, "max", this.encoding);
+        IntVar minVar = CpModelUtil.optionalMin(this.model, valueVars, optionalVars, 0, 120, "min", this.encoding);
+        this.model.minimize(LinearExpr.scalProd(new IntVar[]{maxVar, minVar}, new int[]{1, -1}));
+    }
+
+    @Benchmark
+    public double solve(){
+        CpSolver solver = new CpSolver();
+        solver.getParameters().setMaxTimeInSeconds(30);
+        solver.getParameters().setNumSearchWorkers(8);
+        if(solver.solve(this.model) != CpSolverStatus.OPTIMAL){
+            throw new IllegalStateException("未求得最优解, encoding: " + this.encoding);
+        }
+        return solver.objectiveValue();
+    }
+}
@@ -1,17 +1,59 @@
+import callback.EarlyStopRule;
+import callback.MetricsListener;
+import callback.SolutionListener;
+import callback.StreamingSolutionCallback;
 import com.google.ortools.sat.*;
 import lombok.extern.slf4j.Slf4j;
 import model.AlgorithmResultEnum;
+import model.FallbackStep;
+import model.LintWarning;
+import model.PhaseMetrics;
+import model.RetryPolicy;
+import model.SolveAttempt;
+import model.SolveMetrics;
 import model.StatusResult;
+import model.WarmStartReport;
+import utils.CpModelCache;
+import utils.CpModelLinter;
+import utils.CpModelUtil;
+import utils.CpSolutionUtil;
+import utils.DomainIndex;
+import utils.ModelLintException;
+import utils.ObjectiveAccumulator;
+import utils.SnapshotRecorder;
+import utils.SolverLease;
+import utils.SolverScheduler;
+import utils.WarmStartStore;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
 public abstract class AbstractCpOpt<R> {
 
+    /**
+     * 异步求解默认线程池(守护线程)
+     */
+    private static final ExecutorService ASYNC_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "cp-opt-async");
+        t.setDaemon(true);
+        return t;
+    });
+
     /**
      * 模型
      */
@@ -33,10 +75,564 @@ public abstract class AbstractCpOpt<R> {
     protected IntVar constZero;
 
     /**
-     * 目标权重Map
-     * key=目标名, value={key=变量, value=权重}
+     * 目标项累加器
+     * 按目标名分组, 组内{变量, 权重}
+     */
+    protected ObjectiveAccumulator objAccumulator;
+
+    /**
+     * 提前终止规则
+     */
+    private final List<EarlyStopRule> earlyStopRules = new ArrayList<>();
+
+    /**
+     * 改进解监听器
+     */
+    private final List<SolutionListener> solutionListeners = new ArrayList<>();
+
+    /**
+     * 共享求解调度器, 为空则不受全局核数预算约束
+     */
+    private SolverScheduler scheduler;
+
+    /**
+     * 调度优先级, 越大越优先
+     */
+    private int schedulePriority;
+
+    /**
+     * 截止时刻(毫秒时间戳), 排队和求解均不超过该时刻
+     */
+    protected long deadlineMillis = Long.MAX_VALUE;
+
+    /**
+     * 最近一次求解的资源租约
+     */
+    private SolverLease solverLease;
+
+    /**
+     * 是否已请求停止
+     */
+    private volatile boolean stopRequested;
+
+    /**
+     * 本次执行的求解尝试记录
+     */
+    private List<SolveAttempt> solveAttempts = new ArrayList<>();
+
+    /**
+     * 正在求解的回调
+     */
+    private volatile StreamingSolutionCallback runningCallBack;
+
+    /**
+     * 模型缓存, 为空则每次重新建模
+     */
+    private CpModelCache modelCache;
+
+    /**
+     * 变量key->变量下标, 缓存命中时建模方法不执行, 需按key读取解
+     */
+    private Map<String, Integer> varIndexMap = new HashMap<>();
+
+    /**
+     * 最近一次求解的解数组(按变量下标), 懒加载
+     */
+    private long[] solution;
+
+    /**
+     * 本次模型是否来自缓存
+     */
+    private boolean modelFromCache;
+
+    /**
+     * 使用模型缓存, 需同时重写getModelFingerprint
+     * @param modelCache 模型缓存
+     * @return this
+     */
+    public AbstractCpOpt<R> withModelCache(CpModelCache modelCache){
+        this.modelCache = modelCache;
+        return this;
+    }
+
+    /**
+     * 输入指纹, 相同指纹必须建出相同模型; 返回null则不使用缓存
+     * 缓存命中时跳过doCreateVars/doComputeInterVar/doAddConstraints/doSetObjective,
+     * 变量字段不会被赋值, parseResult等需通过registerVar登记的key读取解
+     * @return 输入指纹, 可用CpModelCache.fingerprint计算
+     */
+    protected String getModelFingerprint(){
+        return null;
+    }
+
+    /**
+     * 登记变量key, 用于缓存命中后读取解
+     * @param varKey 稳定的变量key
+     * @param var 变量
+     * @return var
+     */
+    protected IntVar registerVar(String varKey, IntVar var){
+        this.varIndexMap.put(varKey, var.getIndex());
+        return var;
+    }
+
+    /**
+     * @param varKey 变量key
+     * @return 变量下标, 未登记返回-1
+     */
+    protected int getVarIndex(String varKey){
+        return this.varIndexMap.getOrDefault(varKey, -1);
+    }
+
+    /**
+     * 按变量key读取解
+     * @param varKey 变量key
+     * @return 变量取值
+     */
+    protected long value(String varKey){
+        int index = getVarIndex(varKey);
+        if(index < 0){
+            throw new IllegalArgumentException("unregistered var key: " + varKey);
+        }
+        return getSolution()[index];
+    }
+
+    /**
+     * 最近一次求解的解数组, 首次访问时从求解结果一次性取出
+     * @return 解数组, 下标=变量下标; 无解时为空数组
+     */
+    protected long[] getSolution(){
+        if(this.solution == null){
+            this.solution = CpSolutionUtil.toArray(this.solver.response());
+        }
+        return this.solution;
+    }
+
+    protected long value(IntVar var){
+        return getSolution()[var.getIndex()];
+    }
+
+    protected long[] values(IntVar[] vars){
+        return CpSolutionUtil.values(getSolution(), vars);
+    }
+
+    protected long[][] values(IntVar[][] vars){
+        return CpSolutionUtil.values(getSolution(), vars);
+    }
+
+    protected boolean[] booleanValues(IntVar[] vars){
+        return CpSolutionUtil.booleanValues(getSolution(), vars);
+    }
+
+    protected boolean[][] booleanValues(IntVar[][] vars){
+        return CpSolutionUtil.booleanValues(getSolution(), vars);
+    }
+
+    /**
+     * 计算目标值
+     * @param objName 目标名
+     * @return 目标值
+     */
+    protected long objValue(String objName){
+        long[] values = getSolution();
+        return this.objAccumulator.evaluate(objName, i -> values[i]);
+    }
+
+    /**
+     * @return 本次模型是否来自缓存
+     */
+    protected boolean isModelFromCache(){
+        return this.modelFromCache;
+    }
+
+    /**
+     * 从缓存加载模型
+     * @param cacheKey 缓存key
+     * @return 是否命中
+     */
+    private boolean loadCachedModel(String cacheKey){
+        CpModelCache.CachedModel cached = this.modelCache.get(cacheKey);
+        if(cached == null){
+            return false;
+        }
+        this.model = new CpModel();
+        this.model.getBuilder().mergeFrom(cached.getProto());
+        this.varIndexMap = new HashMap<>(cached.getVarIndexMap());
+        // 目标分组按变量下标恢复, 字典序求解和目标明细照常可用
+        this.objAccumulator = cached.getObjAccumulator();
+        logModelInfo("模型缓存命中");
+        return true;
+    }
+
+    /**
+     * 热启动解存储, 为空则不热启动
+     */
+    private WarmStartStore warmStartStore;
+
+    /**
+     * 本次热启动情况
+     */
+    private WarmStartReport warmStartReport;
+
+    /**
+     * 使用热启动: 求解前以上一次的解作为初始解, 求解后保存本次的解
+     * 变量按registerVar登记的key匹配, 未登记任何key时按变量名(唯一且非空)匹配
+     * @param warmStartStore 热启动解存储
+     * @return this
+     */
+    public AbstractCpOpt<R> withWarmStart(WarmStartStore warmStartStore){
+        this.warmStartStore = warmStartStore;
+        return this;
+    }
+
+    /**
+     * 热启动任务key, 相同key的执行之间共享初始解
+     * @return 热启动任务key
+     */
+    protected String getWarmStartKey(){
+        return getClass().getName();
+    }
+
+    /**
+     * @return 本次热启动情况, 未使用热启动时为null
+     */
+    public WarmStartReport getWarmStartReport(){
+        return this.warmStartReport;
+    }
+
+    /**
+     * 求解前模型检查, 为空则不检查
+     */
+    private CpModelLinter linter;
+
+    /**
+     * 本次模型检查问题
+     */
+    private List<LintWarning> lintWarnings = Collections.emptyList();
+
+    /**
+     * 求解前检查模型(哨兵定义域/溢出/未使用及重复变量), 问题打印告警; 严格模式下有问题时execute抛出ModelLintException
+     * @param linter 模型检查
+     * @return this
+     */
+    public AbstractCpOpt<R> withLinter(CpModelLinter linter){
+        this.linter = linter;
+        return this;
+    }
+
+    /**
+     * @return 本次模型检查问题, 未检查时为空
+     */
+    public List<LintWarning> getLintWarnings(){
+        return this.lintWarnings;
+    }
+
+    /**
+     * 求解快照记录, 为空则不记录
+     */
+    private SnapshotRecorder snapshotRecorder;
+
+    /**
+     * 每次execute求解后记录模型、参数和求解结果, 供离线回放
+     * @param snapshotRecorder 快照记录
+     * @return this
+     */
+    public AbstractCpOpt<R> withSnapshotRecorder(SnapshotRecorder snapshotRecorder){
+        this.snapshotRecorder = snapshotRecorder;
+        return this;
+    }
+
+    /**
+     * 模型检查
+     */
+    private void lintModel(){
+        this.lintWarnings = this.linter.lint(this.model.getBuilder());
+        for(LintWarning warning : this.lintWarnings){
+            log.warn("模型检查[{}]: {}", warning.getType().getDesc(), warning.getMessage());
+        }
+        if(this.linter.isStrict() && !this.lintWarnings.isEmpty()){
+            throw new ModelLintException(this.lintWarnings);
+        }
+    }
+
+    /**
+     * 获得热启动变量key->变量下标
+     * @return 登记的key, 未登记时为唯一且非空的变量名
+     */
+    private Map<String, Integer> getWarmStartVarKeys(){
+        if(!this.varIndexMap.isEmpty()){
+            return this.varIndexMap;
+        }
+        Map<String, Integer> nameIndexMap = new HashMap<>();
+        Set<String> duplicateNames = new HashSet<>();
+        CpModelProto.Builder builder = this.model.getBuilder();
+        for(int i=0; i<builder.getVariablesCount(); i++){
+            String name = builder.getVariables(i).getName();
+            if(name.isEmpty() || duplicateNames.contains(name)){
+                continue;
+            }
+            if(nameIndexMap.put(name, i) != null){
+                nameIndexMap.remove(name);
+                duplicateNames.add(name);
+            }
+        }
+        return nameIndexMap;
+    }
+
+    /**
+     * 以上一次的解设置初始解, 跳过setInitialSolution已设置的变量
+     */
+    private void applyWarmStart(){
+        Map<String, Long> lastAssignment = this.warmStartStore.get(getWarmStartKey());
+        Map<String, Integer> varKeys = getWarmStartVarKeys();
+        PartialVariableAssignment.Builder hint = this.model.getBuilder().getSolutionHintBuilder();
+        Set<Integer> hintedVars = new HashSet<>(hint.getVarsList());
+        int hintedCount = 0;
+        for(Map.Entry<String, Integer> entry : varKeys.entrySet()){
+            Long value = lastAssignment.get(entry.getKey());
+            if(value != null && hintedVars.add(entry.getValue())){
+                hint.addVars(entry.getValue()).addValues(value);
+                hintedCount++;
+            }
+        }
+        double hitRate = varKeys.isEmpty() ? 0 : (double) hintedCount / varKeys.size();
+        this.warmStartReport = new WarmStartReport(lastAssignment.size(), varKeys.size(), hintedCount, hitRate, null);
+        if(hintedCount > 0 && this.warmStartStore.getFeasibilityCheckSeconds() > 0){
+            this.warmStartReport.setFeasible(checkHintFeasible(this.warmStartStore.getFeasibilityCheckSeconds()));
+        }
+        log.info("热启动: {}", this.warmStartReport);
+    }
+
+    /**
+     * 检查初始解是否可行: 固定有初始解的变量后, 在限定时长内求可行解
+     * @param seconds 检查时长(秒)
+     * @return 是否可行, 超时为null
+     */
+    private Boolean checkHintFeasible(double seconds){
+        CpModel checkModel = new CpModel();
+        CpModelProto.Builder builder = checkModel.getBuilder();
+        builder.mergeFrom(this.model.getBuilder().build());
+        builder.clearObjective();
+        PartialVariableAssignment hint = builder.getSolutionHint();
+        DomainIndex domains = CpModelUtil.domainIndex(checkModel);
+        for(int i=0; i<hint.getVarsCount(); i++){
+            long value = hint.getValues(i);
+            // 初始解取值不在定义域内, 不可行
+            if(!domains.tighten(hint.getVars(i), value, value)){
+                return false;
+            }
+        }
+        builder.clearSolutionHint();
+        CpSolver checkSolver = new CpSolver();
+        checkSolver.getParameters().setMaxTimeInSeconds(seconds);
+        checkSolver.getParameters().setNumSearchWorkers(1);
+        CpSolverStatus status = checkSolver.solve(checkModel);
+        if(status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE){
+            return true;
+        }
+        return status == CpSolverStatus.INFEASIBLE || status == CpSolverStatus.MODEL_INVALID ? false : null;
+    }
+
+    /**
+     * 保存本次的解供下次热启动
+     */
+    private void saveWarmStart(){
+        long[] values = getSolution();
+        Map<String, Integer> varKeys = getWarmStartVarKeys();
+        Map<String, Long> assignment = new HashMap<>(varKeys.size() * 2);
+        varKeys.forEach((varKey, index) -> assignment.put(varKey, values[index]));
+        this.warmStartStore.put(getWarmStartKey(), assignment);
+    }
+
+    /**
+     * 流程指标监听器
+     */
+    private final List<MetricsListener> metricsListeners = new ArrayList<>();
+
+    /**
+     * 本次执行各阶段指标
+     */
+    private List<PhaseMetrics> phaseMetrics = new ArrayList<>();
+
+    /**
+     * 本次执行的求解统计
+     */
+    private SolveMetrics solveMetrics;
+
+    /**
+     * 增加流程指标监听器
+     * @param listener 流程指标监听器
+     * @return this
+     */
+    public AbstractCpOpt<R> addMetricsListener(MetricsListener listener){
+        this.metricsListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * @return 本次执行各阶段指标
+     */
+    public List<PhaseMetrics> getPhaseMetrics(){
+        return this.phaseMetrics;
+    }
+
+    /**
+     * @return 本次执行的求解统计
      */
-    protected Map<String, Map<IntVar, Integer>> objVarWeightMap;
+    public SolveMetrics getSolveMetrics(){
+        return this.solveMetrics;
+    }
+
+    /**
+     * @return 当前线程累计堆内存分配量(字节), JVM不支持时为-1
+     */
+    private static long currentThreadAllocatedBytes(){
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * 执行并记录一个阶段
+     * @param phase 阶段名
+     * @param action 阶段逻辑
+     */
+    private void runPhase(String phase, Runnable action){
+        callPhase(phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 执行并记录一个有返回值的阶段: 耗时, 堆内存分配, 新增变量/约束(按类型)
+     * @param phase 阶段名
+     * @param action 阶段逻辑
+     * @return 阶段返回值
+     */
+    private <T> T callPhase(String phase, Supplier<T> action){
+        CpModel phaseModel = this.model;
+        int variablesBefore = phaseModel == null ? 0 : phaseModel.getBuilder().getVariablesCount();
+        int constraintsBefore = phaseModel == null ? 0 : phaseModel.getBuilder().getConstraintsCount();
+        long allocatedBefore = currentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
+
+        T value = action.get();
+
+        long wallMillis = (System.nanoTime() - startNanos) / 1000000;
+        long allocatedAfter = currentThreadAllocatedBytes();
+        // 阶段内可能替换模型(如重试降级), 只统计同一模型上的增量
+        int variablesAdded = 0;
+        Map<String, Integer> constraintsByType = new HashMap<>();
+        if(phaseModel != null && phaseModel == this.model){
+            CpModelProto.Builder builder = phaseModel.getBuilder();
+            variablesAdded = builder.getVariablesCount() - variablesBefore;
+            for(int i=constraintsBefore; i<builder.getConstraintsCount(); i++){
+                constraintsByType.merge(builder.getConstraints(i).getConstraintCase().name(), 1, Integer::sum);
+            }
+        }
+        int constraintsAdded = constraintsByType.values().stream().mapToInt(i -> i).sum();
+        PhaseMetrics metrics = new PhaseMetrics(phase, wallMillis,
+                allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore, variablesAdded, constraintsAdded, constraintsByType);
+        this.phaseMetrics.add(metrics);
+        log.debug("阶段指标: {}", metrics);
+        for(MetricsListener listener : this.metricsListeners){
+            try{
+                listener.onPhase(getClass().getSimpleName(), metrics);
+            }catch (Exception e){
+                log.error("指标监听器异常", e);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 记录求解统计
+     * @param status 求解状态
+     */
+    private void recordSolveMetrics(CpSolverStatus status){
+        CpSolverResponse response = this.solver.response();
+        if(response == null){
+            // 未实际求解(调度拒绝/时长耗尽/退避被中断), 无求解结果
+            this.solveMetrics = new SolveMetrics(status.name(), Double.NaN, Double.NaN, Double.NaN, 0, 0, 0, 0, 0);
+            notifySolveMetrics();
+            return;
+        }
+        boolean hasSolution = status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE;
+        double objectiveValue = hasSolution ? response.getObjectiveValue() : Double.NaN;
+        double relativeGap = hasSolution
+                ? Math.abs(objectiveValue - response.getBestObjectiveBound()) / Math.max(1.0, Math.abs(objectiveValue))
+                : Double.NaN;
+        this.solveMetrics = new SolveMetrics(status.name(), objectiveValue, response.getBestObjectiveBound(), relativeGap,
+                response.getNumConflicts(), response.getNumBranches(), response.getNumBooleans(),
+                response.getWallTime(), response.getUserTime());
+        notifySolveMetrics();
+    }
+
+    /**
+     * 打印并通知求解统计
+     */
+    private void notifySolveMetrics(){
+        log.info("求解统计: {}", this.solveMetrics);
+        for(MetricsListener listener : this.metricsListeners){
+            try{
+                listener.onSolve(getClass().getSimpleName(), this.solveMetrics);
+            }catch (Exception e){
+                log.error("指标监听器异常", e);
+            }
+        }
+    }
+
+    /**
+     * 通过共享调度器申请搜索线程
+     * @param scheduler 求解调度器
+     * @param priority 调度优先级, 越大越优先
+     * @return this
+     */
+    public AbstractCpOpt<R> withScheduler(SolverScheduler scheduler, int priority){
+        this.scheduler = scheduler;
+        this.schedulePriority = priority;
+        return this;
+    }
+
+    /**
+     * 设置截止时刻
+     * @param deadlineMillis 截止时刻(毫秒时间戳)
+     * @return this
+     */
+    public AbstractCpOpt<R> withDeadline(long deadlineMillis){
+        this.deadlineMillis = deadlineMillis;
+        return this;
+    }
+
+    /**
+     * @return 最近一次求解的资源租约(含排队/求解耗时), 未使用调度器时为null
+     */
+    public SolverLease getSolverLease(){
+        return this.solverLease;
+    }
+
+    /**
+     * 增加提前终止规则, 任一规则满足即停止搜索
+     * @param rule 提前终止规则
+     * @return this
+     */
+    public AbstractCpOpt<R> addEarlyStopRule(EarlyStopRule rule){
+        this.earlyStopRules.add(rule);
+        return this;
+    }
+
+    /**
+     * 增加改进解监听器, 每找到一个改进解回调一次
+     * @param listener 改进解监听器
+     * @return this
+     */
+    public AbstractCpOpt<R> addSolutionListener(SolutionListener listener){
+        this.solutionListeners.add(listener);
+        return this;
+    }
 
     /**
      * 初始化
@@ -71,8 +667,8 @@ public abstract class AbstractCpOpt<R> {
         log.info("正在进行变量创建...");
 
         // 常量赋值
-        this.constOne = this.model.newConstant(1);
-        this.constZero = this.model.newConstant(0);
+        this.constOne = CpModelUtil.constant(this.model, 1);
+        this.constZero = CpModelUtil.constant(this.model, 0);
 
         // 变量创建
         doCreateVars();
@@ -117,14 +713,9 @@ public abstract class AbstractCpOpt<R> {
     /**
      * 刷新目标变量-权重
      */
-    void refreshObjVarWeight(String objName, IntVar var, int weight){
-        // 权重为0, 直接返回
-        if(weight == 0){
-            return;
-        }
-        this.objVarWeightMap.putIfAbsent(objName, new HashMap<>(16));
-        Map<IntVar, Integer> varWeight = this.objVarWeightMap.get(objName);
-        varWeight.put(var, varWeight.getOrDefault(var, 0) + weight);
+    void refreshObjVarWeight(String objName, IntVar var, long weight){
+        // 权重为0时累加器直接忽略
+        this.objAccumulator.add(objName, var, weight);
     }
 
     /**
@@ -137,14 +728,7 @@ public abstract class AbstractCpOpt<R> {
      * @return 目标的线性表达式
      */
     LinearExpr getObjExpr(){
-        // 保序
-        List<IntVar> objVarList = new ArrayList<>();
-        List<Integer> objWeightList = new ArrayList<>();
-        this.objVarWeightMap.values().forEach(varWeight -> varWeight.forEach((var, weight) -> {
-            objVarList.add(var);
-            objWeightList.add(weight);
-        }));
-        return LinearExpr.scalProd(objVarList.toArray(new IntVar[0]), objWeightList.stream().mapToInt(i->i).toArray());
+        return this.objAccumulator.toLinearExpr();
     }
 
     /**
@@ -152,14 +736,30 @@ public abstract class AbstractCpOpt<R> {
      * @return 目标的线性表达式
      */
     LinearExpr getObjExpr(String objName){
-        // 保序
-        List<IntVar> objVarList = new ArrayList<>();
-        List<Integer> objWeightList = new ArrayList<>();
-        this.objVarWeightMap.get(objName).forEach((var, weight) -> {
-            objVarList.add(var);
-            objWeightList.add(weight);
-        });
-        return LinearExpr.scalProd(objVarList.toArray(new IntVar[0]), objWeightList.stream().mapToInt(i->i).toArray());
+        return this.objAccumulator.toLinearExpr(Collections.singletonList(objName));
+    }
+
+    /**
+     * 获得多个目标合并后的线性表达式
+     * @param objNames 目标名
+     * @return 目标的线性表达式
+     */
+    LinearExpr getObjExpr(List<String> objNames){
+        return this.objAccumulator.toLinearExpr(objNames);
+    }
+
+    /**
+     * 直接将全部目标写入模型(最小化), 不经过LinearExpr
+     */
+    void minimizeObj(){
+        this.objAccumulator.writeObjective(this.model.getBuilder(), this.objAccumulator.getObjNames(), true);
+    }
+
+    /**
+     * 直接将全部目标写入模型(最大化), 不经过LinearExpr
+     */
+    void maximizeObj(){
+        this.objAccumulator.writeObjective(this.model.getBuilder(), this.objAccumulator.getObjNames(), false);
     }
 
     /**
@@ -168,8 +768,8 @@ public abstract class AbstractCpOpt<R> {
     private void setObjective(){
         log.info("正在设置目标...");
 
-        // 初始化权重Map
-        this.objVarWeightMap = new HashMap<>();
+        // 初始化目标项累加器
+        this.objAccumulator = new ObjectiveAccumulator();
 
         //增加约束
         doSetObjective();
@@ -195,56 +795,309 @@ public abstract class AbstractCpOpt<R> {
 
         // 个性化配置
         doSetSolverParam();
+
+        // 运行时长不超过截止时刻
+        if(this.deadlineMillis != Long.MAX_VALUE){
+            double remainSeconds = Math.max(0, this.deadlineMillis - System.currentTimeMillis()) / 1000.0;
+            this.solver.getParameters().setMaxTimeInSeconds(
+                    Math.min(this.solver.getParameters().getMaxTimeInSeconds(), remainSeconds));
+        }
+    }
+
+    /**
+     * 调度时可接受的最少搜索线程数
+     * @return 最少搜索线程数
+     */
+    protected int getMinSearchWorkers(){
+        return 1;
+    }
+
+    /**
+     * 向调度器申请搜索线程, 按分配结果调整并行度和运行时长
+     * @return 是否获得求解资源
+     */
+    private boolean acquireSolverLease(){
+        SatParameters.Builder params = this.solver.getParameters();
+        try{
+            this.solverLease = this.scheduler.acquire(getClass().getSimpleName(), params.getNumSearchWorkers(),
+                    getMinSearchWorkers(), this.schedulePriority, this.deadlineMillis);
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            this.solverLease = null;
+        }
+        if(this.solverLease == null){
+            log.info("未获得求解资源, 放弃求解");
+            return false;
+        }
+        params.setNumSearchWorkers(this.solverLease.getWorkers());
+        params.setMaxTimeInSeconds(Math.min(params.getMaxTimeInSeconds(), this.solverLease.getRemainingSeconds()));
+        return true;
+    }
+
+    /**
+     * 字典序多目标的优先级(目标名, 优先级从高到低)
+     * 返回空则按objAccumulator加权求和单次求解; 未列出的目标合并为最后一个阶段
+     * @return 目标优先级
+     */
+    protected List<String> getObjPriority(){
+        return null;
+    }
+
+    /**
+     * 字典序求解中目标的相对容忍度
+     * 后续阶段允许该目标劣于本阶段最优值 |最优值|*容忍度
+     * @param objName 目标名
+     * @return 相对容忍度, 默认0(严格固定最优值)
+     */
+    protected double getObjTolerance(String objName){
+        return 0;
+    }
+
+    /**
+     * 字典序分阶段求解
+     * 每阶段只优化一个目标, 求得后将其(含容忍度)固定为约束, 并以本阶段解作为下一阶段的初始解
+     * 各阶段时长从总时长中按剩余时长均分; 各阶段从相同的求解参数开始, 上一阶段重试降级对参数的调整不带入下一阶段
+     * 重试降级切换备用模型时, 在备用模型上重新写入本阶段目标和此前各阶段的固定约束
+     * @param objPriority 目标优先级
+     * @return 求解状态枚举
+     */
+    private CpSolverStatus solveLexicographic(List<String> objPriority){
+        // 沿用doSetObjective设置的优化方向
+        CpModelProto.Builder objBuilder = this.model.getBuilder();
+        boolean minimize = !objBuilder.hasObjective() || objBuilder.getObjective().getScalingFactor() >= 0;
+
+        // 阶段划分: 按优先级逐个, 未列出的目标合并为最后一个阶段
+        List<List<String>> stages = new ArrayList<>();
+        objPriority.stream().filter(this.objAccumulator::contains)
+                .forEach(objName -> stages.add(Collections.singletonList(objName)));
+        List<String> restObjNames = this.objAccumulator.getObjNames().stream()
+                .filter(objName -> !objPriority.contains(objName)).collect(Collectors.toList());
+        if(!restObjNames.isEmpty()){
+            stages.add(restObjNames);
+        }
+
+        SatParameters.Builder params = this.solver.getParameters();
+        SatParameters baseParams = params.build();
+        double totalTime = params.getMaxTimeInSeconds();
+        long startNanos = System.nanoTime();
+        CpSolverStatus status = CpSolverStatus.UNKNOWN;
+        // 已固定的各阶段目标约束, 切换备用模型时重放
+        List<Consumer<CpModelProto.Builder>> stageBounds = new ArrayList<>();
+        for(int stage=0; stage<stages.size(); stage++){
+            List<String> objNames = stages.get(stage);
+            double remainTime = totalTime - (System.nanoTime() - startNanos) / 1e9;
+            if(remainTime <= 0){
+                log.info("字典序求解时间耗尽, 剩余阶段: {}", stages.subList(stage, stages.size()));
+                break;
+            }
+            params.clear().mergeFrom(baseParams);
+            params.setMaxTimeInSeconds(remainTime / (stages.size() - stage));
+            log.info("字典序求解第{}阶段, 目标: {}, 时长: {}", stage + 1, objNames,
+                    this.solver.getParameters().getMaxTimeInSeconds());
+
+            // 替换目标(重试降级可能切换为备用模型, 每阶段重新获取)
+            this.objAccumulator.writeObjective(this.model.getBuilder(), objNames, minimize);
+
+            CpSolverStatus stageStatus = solveWithRetry(builder -> {
+                this.objAccumulator.writeObjective(builder, objNames, minimize);
+                stageBounds.forEach(bound -> bound.accept(builder));
+                if(this.model.getBuilder().hasSolutionHint()){
+                    builder.setSolutionHint(this.model.getBuilder().getSolutionHint());
+                }
+            });
+            if(stageStatus != CpSolverStatus.OPTIMAL && stageStatus != CpSolverStatus.FEASIBLE){
+                log.info("字典序求解第{}阶段无解: {}", stage + 1, stageStatus);
+                return stageStatus;
+            }
+            // 任一阶段仅为可行解, 整体即为可行解
+            status = (stage == 0 || status == CpSolverStatus.OPTIMAL) ? stageStatus : status;
+            if(stage == stages.size() - 1){
+                break;
+            }
+            if(this.stopRequested){
+                log.info("字典序求解在第{}阶段后停止", stage + 1);
+                return CpSolverStatus.FEASIBLE;
+            }
+
+            // 固定本阶段目标(含容忍度)
+            long stageValue = Math.round(this.solver.objectiveValue());
+            long tolerance = (long) Math.floor(Math.abs(stageValue) * getObjTolerance(objNames.get(0)));
+            // 直接按变量下标写约束, 缓存命中时目标项没有IntVar
+            long lo = minimize ? Long.MIN_VALUE : stageValue - tolerance;
+            long hi = minimize ? stageValue + tolerance : Long.MAX_VALUE;
+            Consumer<CpModelProto.Builder> bound = builder -> this.objAccumulator.addConstraint(builder, objNames, lo, hi);
+            bound.accept(this.model.getBuilder());
+            stageBounds.add(bound);
+            // 本阶段解作为下一阶段的初始解
+            CpSolverResponse response = this.solver.response();
+            this.model.getBuilder().clearSolutionHint();
+            PartialVariableAssignment.Builder hint = this.model.getBuilder().getSolutionHintBuilder();
+            for(int i=0; i<response.getSolutionCount(); i++){
+                hint.addVars(i).addValues(response.getSolution(i));
+            }
+        }
+        return status;
     }
 
     /**
      * 尝试求解
-     * 进行cpmodel求解,为防止异常进行允许一次重试
+     * 进行cpmodel求解, 失败时按重试策略降级重试
      * @return 求解状态枚举
      */
     private CpSolverStatus trySolve(){
         // 求解器参数设置
         setSolverParam();
-        // 设置回调函数
-        CpSolverSolutionCallback callBack = getSolutionCallBack();
-        CpSolverStatus status;
-        log.info("开始求解...");
-//        CpSolverStatus status = solver.solve(model);
+        // 申请求解资源
+        if(this.scheduler != null && !acquireSolverLease()){
+            return CpSolverStatus.UNKNOWN;
+        }
         try{
-            status = solver.solveWithSolutionCallback(model, callBack);
-        }catch (Exception e1){
-            log.info("cp_solver求解异常");
-            e1.printStackTrace();
-            // 重试
+            // 按优先级分阶段求解
+            List<String> objPriority = getObjPriority();
+            if(objPriority != null && !objPriority.isEmpty() && !this.objAccumulator.isEmpty()){
+                return solveLexicographic(objPriority);
+            }
+            return solveWithRetry(null);
+        }finally {
+            if(this.solverLease != null){
+                this.solverLease.release();
+            }
+        }
+    }
+
+    /**
+     * 求解重试策略, 子类可重写
+     * @return 重试策略
+     */
+    protected RetryPolicy getRetryPolicy(){
+        return RetryPolicy.defaultPolicy();
+    }
+
+    /**
+     * 备用模型, 供重试降级时使用
+     * 需与主模型变量下标一致(如复制主模型proto后去掉部分软约束), 以便parseResult直接读取
+     * @return 备用模型, 默认无
+     */
+    protected CpModel getFallbackModel(){
+        return null;
+    }
+
+    /**
+     * 按重试策略求解: 失败后退避等待, 依次执行降级步骤, 各次尝试共享运行时长预算
+     * @param fallbackPreparer 切换备用模型前对其补充目标/约束, 可为null
+     * @return 求解状态枚举
+     */
+    private CpSolverStatus solveWithRetry(Consumer<CpModelProto.Builder> fallbackPreparer){
+        RetryPolicy policy = getRetryPolicy();
+        SatParameters.Builder params = this.solver.getParameters();
+        double totalTime = params.getMaxTimeInSeconds();
+        long startNanos = System.nanoTime();
+        boolean useFallbackModel = false;
+
+        CpSolverStatus status = CpSolverStatus.UNKNOWN;
+        for(int attempt=1; attempt<=policy.getMaxAttempts(); attempt++){
+            String stepName = "initial";
+            if(attempt > 1){
+                // 退避等待, 不超过剩余时长
+                long remainMillis = (long) ((totalTime - (System.nanoTime() - startNanos) / 1e9) * 1000);
+                long backoffMillis = Math.min(policy.getBackoffMillis(attempt - 1), remainMillis);
+                if(backoffMillis > 0){
+                    try{
+                        Thread.sleep(backoffMillis);
+                    }catch (InterruptedException e){
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                // 执行降级步骤
+                FallbackStep step = policy.getFallbackSteps().get(attempt - 2);
+                stepName = step.getName();
+                if(step.getParamModifier() != null){
+                    step.getParamModifier().accept(params);
+                }
+                if(step.isUseFallbackModel() && !useFallbackModel){
+                    CpModel fallbackModel = getFallbackModel();
+                    if(fallbackModel != null && fallbackModel != this.model){
+                        if(fallbackPreparer != null){
+                            fallbackPreparer.accept(fallbackModel.getBuilder());
+                        }
+                        this.model = fallbackModel;
+                        useFallbackModel = true;
+                    }
+                }
+            }
+            double remainTime = totalTime - (System.nanoTime() - startNanos) / 1e9;
+            if(remainTime <= 0){
+                log.info("求解时长预算耗尽, 停止重试");
+                break;
+            }
+            params.setMaxTimeInSeconds(Math.min(params.getMaxTimeInSeconds(), remainTime));
+
+            SolveAttempt solveAttempt = new SolveAttempt(this.solveAttempts.size() + 1, stepName, useFallbackModel,
+                    params.getNumSearchWorkers(), params.getMaxTimeInSeconds(), null, 0, null);
+            this.solveAttempts.add(solveAttempt);
+            long attemptStartNanos = System.nanoTime();
             try{
-                // 停止1min
-                Thread.sleep(60000);
-                log.info("开始求解重试");
-                status = solver.solveWithSolutionCallback(model, callBack);
-            }catch (Exception e2){
+                status = solveOnce();
+            }catch (Exception e){
+                log.info("cp_solver求解异常, 尝试: {}, 步骤: {}", attempt, stepName, e);
                 status = CpSolverStatus.UNKNOWN;
-                log.info("求解重试失败");
+                solveAttempt.setError(e.toString());
             }
+            solveAttempt.setStatus(status.name());
+            solveAttempt.setWallTime((System.nanoTime() - attemptStartNanos) / 1e9);
 
+            if((solveAttempt.getError() == null && !policy.getRetryStatuses().contains(status)) || this.stopRequested){
+                break;
+            }
         }
         log.info("求解完成");
         return status;
     }
 
-    private CpSolverSolutionCallback getSolutionCallBack(){
-        return null;
+    /**
+     * 单次求解
+     * @return 求解状态枚举
+     */
+    private CpSolverStatus solveOnce(){
+        // 设置回调函数
+        StreamingSolutionCallback callBack = getSolutionCallBack();
+        log.info("开始求解...");
+//        CpSolverStatus status = solver.solve(model);
+        this.runningCallBack = callBack;
+        // 求解开始前已请求停止, 由回调在求解开始后下发
+        if(this.stopRequested){
+            callBack.requestStop("外部停止");
+        }
+        callBack.start();
+        this.solution = null;
+        try{
+            return this.solver.solveWithSolutionCallback(this.model, callBack);
+        }finally {
+            callBack.close();
+            this.runningCallBack = null;
+        }
+    }
+
+    /**
+     * 获得求解回调, 子类可重写以定制回调
+     * @return 带提前终止规则和改进解监听的回调
+     */
+    protected StreamingSolutionCallback getSolutionCallBack(){
+        return new StreamingSolutionCallback(this.model, this.earlyStopRules, this.solutionListeners);
     }
 
     /**
      * 打印目标值明细
      */
     private void logObjDetail(){
-        if(this.objVarWeightMap == null || this.objVarWeightMap.isEmpty()){
+        if(this.objAccumulator == null || this.objAccumulator.isEmpty()){
             return;
         }
-        log.info("objDetail: {}", this.objVarWeightMap.entrySet().stream().map(kv -> {
-            int objValue = (int) kv.getValue().entrySet().stream().mapToLong(ow -> solver.value(ow.getKey()) * ow.getValue()).sum();
-            return String.format("%s: %s", kv.getKey(), objValue);
+        // 按解数组批量计算, 避免逐变量调用solver.value
+        log.info("objDetail: {}", this.objAccumulator.getObjNames().stream().map(objName -> {
+            long objValue = objValue(objName);
+            return String.format("%s: %s", objName, objValue);
         }).collect(Collectors.joining(", ")));
     }
 
@@ -258,39 +1111,138 @@ public abstract class AbstractCpOpt<R> {
      */
     protected abstract R getDefaultResult();
 
+    /**
+     * 停止搜索, 可在其他线程调用; 求解器以当前最优解返回; 尚未开始求解则在求解开始后立即停止
+     */
+    public void stopSearch(){
+        this.stopRequested = true;
+        StreamingSolutionCallback callBack = this.runningCallBack;
+        if(callBack != null){
+            callBack.requestStop("外部停止");
+        }
+    }
+
+    /**
+     * 异步执行, 使用默认线程池
+     * @see #executeAsync(long, Executor)
+     */
+    public CompletableFuture<StatusResult<AlgorithmResultEnum, R>> executeAsync(long deadlineMillis){
+        return executeAsync(deadlineMillis, ASYNC_EXECUTOR);
+    }
+
+    /**
+     * 异步执行
+     * 取消返回的future会停止搜索(stopSearch), future不进入取消状态, 而是随后以当前最优解正常完成; 已完成时取消返回false;
+     * 截止时刻只对本次执行有效, 执行结束后恢复原截止时刻; 同一实例不可并发执行
+     * @param deadlineMillis 截止时刻(毫秒时间戳), 排队和求解均不超过该时刻
+     * @param executor 执行线程池
+     * @return 求解结果future
+     */
+    public CompletableFuture<StatusResult<AlgorithmResultEnum, R>> executeAsync(long deadlineMillis, Executor executor){
+        long previousDeadline = this.deadlineMillis;
+        withDeadline(deadlineMillis);
+        this.stopRequested = false;
+        CompletableFuture<StatusResult<AlgorithmResultEnum, R>> future = new CompletableFuture<StatusResult<AlgorithmResultEnum, R>>(){
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                if(isDone()){
+                    return false;
+                }
+                stopSearch();
+                return true;
+            }
+        };
+        executor.execute(() -> {
+            try{
+                future.complete(execute());
+            }catch (Throwable e){
+                log.error("异步求解异常", e);
+                future.completeExceptionally(e);
+            }finally {
+                this.deadlineMillis = previousDeadline;
+            }
+        });
+        return future;
+    }
+
     /**
      * 最优化算法入口函数
      */
     public StatusResult<AlgorithmResultEnum, R> execute(){
+        try{
+            return doExecute();
+        }finally {
+            // 本次执行结束(含异常), 清除停止请求
+            this.stopRequested = false;
+        }
+    }
+
+    private StatusResult<AlgorithmResultEnum, R> doExecute(){
+        this.phaseMetrics = new ArrayList<>();
+        this.solveMetrics = null;
+
         // 初始化
-        init();
+        runPhase("init", this::init);
 
         // create the cp model
         this.model = new CpModel();
+        this.solveAttempts = new ArrayList<>();
+        this.varIndexMap = new HashMap<>();
 
         // 前剪枝
-        preCut();
+        runPhase("preCut", this::preCut);
 
-        // 变量创建
-        createVars();
+        // 有输入指纹时优先读缓存
+        String fingerprint = this.modelCache == null ? null : getModelFingerprint();
+        String cacheKey = fingerprint == null ? null : getClass().getName() + ":" + fingerprint;
+        this.modelFromCache = cacheKey != null && loadCachedModel(cacheKey);
+        if(!this.modelFromCache){
+            // 变量创建
+            runPhase("createVars", this::createVars);
+
+            // 中间变量计算
+            runPhase("computeInterVar", this::computeInterVar);
 
-        // 中间变量计算
-        computeInterVar();
+            // 设置约束
+            runPhase("addConstraints", this::addConstraints);
 
-        // 设置约束
-        addConstraints();
+            // 设置目标量
+            runPhase("setObjective", this::setObjective);
 
-        // 设置目标量
-        setObjective();
+            // 写缓存
+            if(cacheKey != null){
+                this.modelCache.put(cacheKey, this.model.getBuilder().build(), this.varIndexMap, this.objAccumulator);
+            }
+        }
 
         // 设置初始解
-        setInitialSolution();
+        this.warmStartReport = null;
+        runPhase("setInitialSolution", () -> {
+            setInitialSolution();
+            if(this.warmStartStore != null){
+                applyWarmStart();
+            }
+        });
+
+        // 模型检查
+        this.lintWarnings = Collections.emptyList();
+        if(this.linter != null){
+            runPhase("lint", this::lintModel);
+        }
 
         // 求解器初始化
         this.solver = new CpSolver();
+        this.solution = null;
 
         // 尝试求解
-        CpSolverStatus status = trySolve();
+        CpSolverStatus status = callPhase("trySolve", this::trySolve);
+        recordSolveMetrics(status);
+
+        // 记录快照, 未实际求解(如调度拒绝)时没有求解结果, 不记录
+        if(this.snapshotRecorder != null && this.solver.response() != null){
+            runPhase("snapshot", () -> this.snapshotRecorder.record(getClass().getSimpleName(),
+                    this.model.getBuilder().build(), this.solver.getParameters().build(), this.solver.response()));
+        }
 
         // 结果枚举
         AlgorithmResultEnum algorithmResultEnum;
@@ -309,13 +1261,18 @@ public abstract class AbstractCpOpt<R> {
                     algorithmResultEnum.getResultDesc(), solver.bestObjectiveBound(), solver.objectiveValue(), solver.wallTime());
             // 打印各目标值明细
             logObjDetail();
+            // 保存热启动解
+            if(this.warmStartStore != null){
+                saveWarmStart();
+            }
             // 结果转化
-            result = parseResult();
+            result = callPhase("parseResult", this::parseResult);
         }else{
-            algorithmResultEnum = AlgorithmResultEnum.INFEASIBLE;
-            log.info("{}", algorithmResultEnum.getResultDesc());
+            // 只有证明无解才返回无解; 未求得解(超时、未获得求解资源、模型无效等)返回未知
+            algorithmResultEnum = status == CpSolverStatus.INFEASIBLE ? AlgorithmResultEnum.INFEASIBLE : AlgorithmResultEnum.UNKNOWN;
+            log.info("{}, status: {}", algorithmResultEnum.getResultDesc(), status);
             result = getDefaultResult();
         }
-        return new StatusResult<>(algorithmResultEnum, result);
+        return new StatusResult<>(algorithmResultEnum, result, this.solveAttempts);
     }
 }
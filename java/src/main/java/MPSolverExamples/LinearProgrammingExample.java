@@ -5,6 +5,8 @@ import com.google.ortools.linearsolver.MPObjective;
 import com.google.ortools.linearsolver.MPSolver;
 import com.google.ortools.linearsolver.MPVariable;
 import lombok.extern.slf4j.Slf4j;
+import model.ModelFormatEnum;
+import utils.ModelIO;
 import utils.ORToolsLoader;
 
 import java.util.stream.IntStream;
@@ -52,7 +54,8 @@ public class LinearProgrammingExample {
         solver.setNumThreads(2);
         solver.setHint(new MPVariable[]{v1, v2, v3, v4}, new double[]{0.0, 0.0, 0.0, 0.0});
 
-        System.out.println(solver.exportModelAsLpFormat());
+        // 直接写到输出流, 不生成整个LP字符串
+        ModelIO.export(solver, System.out, ModelFormatEnum.LP);
 //        solver.enableOutput();
 
         MPSolver.ResultStatus resultStatus = solver.solve();
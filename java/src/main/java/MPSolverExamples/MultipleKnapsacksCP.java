@@ -2,8 +2,12 @@ package MPSolverExamples;
 
 import com.google.ortools.sat.*;
 import lombok.extern.slf4j.Slf4j;
+import utils.CpBulkBuilder;
+import utils.CpSolutionUtil;
 import utils.ORToolsLoader;
 
+import java.util.Arrays;
+
 @Slf4j
 public class MultipleKnapsacksCP {
     static {
@@ -22,41 +26,27 @@ public class MultipleKnapsacksCP {
         // Create the linear solver with the CBC backend.
         CpModel model = new CpModel();
 
-        IntVar[][] x = new IntVar[data.numItems][data.numBins];
-        for (int i = 0; i < data.numItems; ++i) {
-            for (int j = 0; j < data.numBins; ++j) {
-                x[i][j] = model.newBoolVar("");
-            }
-        }
+        // 矩阵化批量建模, 直接写入model.getBuilder()
+        CpBulkBuilder bulk = new CpBulkBuilder(model);
+        CpBulkBuilder.VarBlock x = bulk.newBoolVarBlock(data.numItems, data.numBins);
 
         // 一个品至多只能放一个包
-        for (int i = 0; i < data.numItems; ++i) {
-            model.addLessOrEqual(LinearExpr.sum(x[i]), 1);
-        }
+        bulk.addRowSums(x, 0, 1);
 
         // 一个包重量不超
+        long[] binMin = new long[data.numBins];
+        long[] binMax = new long[data.numBins];
         for (int j = 0; j < data.numBins; ++j) {
-            IntVar[] t = new IntVar[data.numItems];
-            int[] w = new int[data.numItems];
-            for (int i = 0; i < data.numItems; ++i) {
-                t[i] = x[i][j];
-                w[i] = data.weights[i];
-            }
-            model.addLessOrEqual(LinearExpr.scalProd(t, w), data.binCapacities[j]);
+            binMax[j] = data.binCapacities[j];
         }
+        bulk.addColumnWeightedSums(x, data.weights, binMin, binMax);
 
         // 收益最大
-        IntVar[] o = new IntVar[data.numItems*data.numBins];
-        int[] ow = new int[data.numItems*data.numBins];
-        int index = 0;
+        int[][] ow = new int[data.numItems][data.numBins];
         for (int i = 0; i < data.numItems; ++i) {
-            for (int j = 0; j < data.numBins; ++j) {
-                o[index] = x[i][j];
-                ow[index] = data.values[i];
-                index += 1;
-            }
+            Arrays.fill(ow[i], data.values[i]);
         }
-        model.maximize(LinearExpr.scalProd(o, ow));
+        bulk.setObjective(x, ow, false);
 
         CpSolver solver = new CpSolver();
         solver.getParameters().setLogSearchProgress(true);
@@ -67,13 +57,15 @@ public class MultipleKnapsacksCP {
         // Check that the problem has an optimal solution.
         if (true) {
             System.out.println("Total packed value: " + solver.objectiveValue() + "\n");
+            // 一次性取出全部解
+            long[][] packed = x.values(CpSolutionUtil.toArray(solver.response()));
             double totalWeight = 0;
             for (int j = 0; j < data.numBins; ++j) {
                 double binWeight = 0;
                 double binValue = 0;
                 System.out.println("Bin " + j + "\n");
                 for (int i = 0; i < data.numItems; ++i) {
-                    if (solver.value(x[i][j]) == 1) {
+                    if (packed[i][j] != 0) {
                         System.out.println(
                                 "Item " + i + " - weight: " + data.weights[i] + "  value: " + data.values[i]);
                         binWeight += data.weights[i];
@@ -0,0 +1,41 @@
+package callback;
+
+/**
+ * @author kun.hu
+ * 提前终止规则, 满足时停止搜索并保留当前最优解
+ */
+@FunctionalInterface
+public interface EarlyStopRule {
+
+    /**
+     * @param progress 当前求解进度
+     * @return 是否停止搜索
+     */
+    boolean shouldStop(SearchProgress progress);
+
+    /**
+     * 相对gap达到阈值即停止
+     * @param gap 相对gap阈值, 如0.01表示1%
+     */
+    static EarlyStopRule relativeGap(double gap){
+        return progress -> progress.getSolutionCount() > 0 && progress.getRelativeGap() <= gap;
+    }
+
+    /**
+     * 连续一段时间目标无改进即停止(首个解出现前不生效)
+     * @param seconds 无改进时长(秒)
+     */
+    static EarlyStopRule noImprovement(double seconds){
+        return progress -> progress.getSolutionCount() > 0
+                && progress.getWallTime() - progress.getLastImprovementTime() >= seconds;
+    }
+
+    /**
+     * 目标值达到期望值即停止(最小化: 目标值<=期望值; 最大化: 目标值>=期望值)
+     * @param target 期望目标值
+     */
+    static EarlyStopRule targetObjective(double target){
+        return progress -> progress.getSolutionCount() > 0
+                && (progress.isMinimize() ? progress.getObjectiveValue() <= target : progress.getObjectiveValue() >= target);
+    }
+}
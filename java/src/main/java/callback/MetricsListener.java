@@ -0,0 +1,25 @@
+package callback;
+
+import model.PhaseMetrics;
+import model.SolveMetrics;
+
+/**
+ * @author kun.hu
+ * 流程指标监听器, 用于将各阶段耗时/模型规模/求解统计导出到监控系统
+ */
+public interface MetricsListener {
+
+    /**
+     * 每个阶段结束时回调
+     * @param optName 优化任务名
+     * @param metrics 阶段指标
+     */
+    default void onPhase(String optName, PhaseMetrics metrics){}
+
+    /**
+     * 求解结束时回调
+     * @param optName 优化任务名
+     * @param metrics 求解统计
+     */
+    default void onSolve(String optName, SolveMetrics metrics){}
+}
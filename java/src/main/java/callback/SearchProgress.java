@@ -0,0 +1,54 @@
+package callback;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @author kun.hu
+ * 求解进度快照, 供提前终止规则和解监听器使用
+ */
+@Getter
+@AllArgsConstructor
+public class SearchProgress {
+
+    /**
+     * 是否为最小化目标
+     */
+    private final boolean minimize;
+
+    /**
+     * 当前最优目标值(尚无解时为NaN)
+     */
+    private final double objectiveValue;
+
+    /**
+     * 当前目标界(最小化为下界, 最大化为上界)
+     */
+    private final double bestObjectiveBound;
+
+    /**
+     * 已找到的改进解个数
+     */
+    private final int solutionCount;
+
+    /**
+     * 求解已用时长(秒)
+     */
+    private final double wallTime;
+
+    /**
+     * 最近一次目标改进的时刻(秒)
+     */
+    private final double lastImprovementTime;
+
+    /**
+     * 相对gap = |目标值 - 目标界| / max(1, |目标值|)
+     * @return 相对gap, 尚无解时返回正无穷
+     */
+    public double getRelativeGap(){
+        if(this.solutionCount == 0 || Double.isNaN(this.objectiveValue)){
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.abs(this.objectiveValue - this.bestObjectiveBound) / Math.max(1.0, Math.abs(this.objectiveValue));
+    }
+}
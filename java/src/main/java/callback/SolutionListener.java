@@ -0,0 +1,18 @@
+package callback;
+
+import com.google.ortools.sat.CpSolverSolutionCallback;
+
+/**
+ * @author kun.hu
+ * 改进解监听器, 每找到一个改进解回调一次, 用于增量输出中间解
+ */
+@FunctionalInterface
+public interface SolutionListener {
+
+    /**
+     * 注意: 只能在回调内通过callback.value(var)读取当前解, 回调返回后取值无效
+     * @param callback 当前求解回调
+     * @param progress 当前求解进度
+     */
+    void onSolution(CpSolverSolutionCallback callback, SearchProgress progress);
+}
@@ -0,0 +1,190 @@
+package callback;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolverSolutionCallback;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author kun.hu
+ * 可配置的求解回调: 逐个推送改进解, 并按提前终止规则停止搜索
+ * 无改进类规则依赖时间流逝, 由后台巡检线程定期检查
+ * 停止请求只在求解进行中下发给求解器(求解结束后回调内的停止标记已失效)
+ */
+@Slf4j
+public class StreamingSolutionCallback extends CpSolverSolutionCallback {
+
+    /**
+     * 巡检间隔(毫秒)
+     */
+    private static final long WATCH_INTERVAL_MILLIS = 100;
+
+    /**
+     * 是否为最小化目标
+     */
+    private final boolean minimize;
+
+    /**
+     * 提前终止规则
+     */
+    private final List<EarlyStopRule> earlyStopRules;
+
+    /**
+     * 改进解监听器
+     */
+    private final List<SolutionListener> solutionListeners;
+
+    /**
+     * 巡检线程
+     */
+    private ScheduledExecutorService watchdog;
+
+    /**
+     * 求解开始时刻(纳秒)
+     */
+    private volatile long startNanos = System.nanoTime();
+
+    private volatile int solutionCount;
+
+    private volatile double objectiveValue = Double.NaN;
+
+    private volatile double bestObjectiveBound = Double.NaN;
+
+    private volatile double lastImprovementTime;
+
+    /**
+     * 是否已请求停止
+     */
+    private volatile boolean stopped;
+
+    /**
+     * 是否正在求解
+     */
+    private boolean solving;
+
+    public StreamingSolutionCallback(CpModel model, List<EarlyStopRule> earlyStopRules, List<SolutionListener> solutionListeners){
+        // 最大化目标在proto中以scalingFactor<0表示
+        this.minimize = !model.getBuilder().hasObjective() || model.getBuilder().getObjective().getScalingFactor() >= 0;
+        this.earlyStopRules = new ArrayList<>(earlyStopRules);
+        this.solutionListeners = new ArrayList<>(solutionListeners);
+    }
+
+    /**
+     * 开始计时并启动巡检线程, 需在求解前调用
+     */
+    public synchronized void start(){
+        this.startNanos = System.nanoTime();
+        this.solving = true;
+        if(this.watchdog != null){
+            return;
+        }
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cp-early-stop-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        this.watchdog.scheduleAtFixedRate(this::watch, WATCH_INTERVAL_MILLIS, WATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 巡检: 已请求停止则重复下发(覆盖求解刚开始时停止未生效的情况), 否则检查规则
+     */
+    private synchronized void watch(){
+        if(this.stopped){
+            if(this.solving){
+                stopSearch();
+            }
+            return;
+        }
+        checkRules(getProgress());
+    }
+
+    /**
+     * 关闭巡检线程, 需在求解返回后调用
+     */
+    public synchronized void close(){
+        this.solving = false;
+        if(this.watchdog != null){
+            this.watchdog.shutdownNow();
+            this.watchdog = null;
+        }
+    }
+
+    /**
+     * 主动请求停止搜索, 求解器会返回当前最优解
+     * @param reason 停止原因
+     */
+    public synchronized void requestStop(String reason){
+        if(this.stopped){
+            return;
+        }
+        this.stopped = true;
+        log.info("提前终止求解: {}, gap: {}", reason, getProgress().getRelativeGap());
+        if(this.solving){
+            stopSearch();
+        }
+    }
+
+    public boolean isStopped(){
+        return this.stopped;
+    }
+
+    /**
+     * @return 当前求解进度
+     */
+    public SearchProgress getProgress(){
+        return new SearchProgress(this.minimize, this.objectiveValue, this.bestObjectiveBound,
+                this.solutionCount, elapsedSeconds(), this.lastImprovementTime);
+    }
+
+    @Override
+    public void onSolutionCallback() {
+        if(this.stopped){
+            stopSearch();
+            return;
+        }
+        double obj = objectiveValue();
+        double wallTime = elapsedSeconds();
+        boolean improved = this.solutionCount == 0
+                || (this.minimize ? obj < this.objectiveValue : obj > this.objectiveValue);
+        this.bestObjectiveBound = bestObjectiveBound();
+        if(!improved){
+            return;
+        }
+        this.objectiveValue = obj;
+        this.lastImprovementTime = wallTime;
+        this.solutionCount++;
+
+        SearchProgress progress = getProgress();
+        log.info("第{}个改进解, obj: {}, objBound: {}, wallTime: {}",
+                progress.getSolutionCount(), obj, progress.getBestObjectiveBound(), wallTime);
+        for(SolutionListener listener : this.solutionListeners){
+            listener.onSolution(this, progress);
+        }
+        checkRules(progress);
+    }
+
+    /**
+     * 依次检查规则, 任一满足即停止
+     */
+    private void checkRules(SearchProgress progress){
+        if(this.stopped){
+            return;
+        }
+        for(EarlyStopRule rule : this.earlyStopRules){
+            if(rule.shouldStop(progress)){
+                requestStop("满足提前终止规则");
+                return;
+            }
+        }
+    }
+
+    private double elapsedSeconds(){
+        return (System.nanoTime() - this.startNanos) / 1e9;
+    }
+}
@@ -0,0 +1,49 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author kun.hu
+ * 组合求解中单个后端的结果
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BackendOutcome {
+    /**
+     * 后端
+     */
+    private SolverBackendEnum backend;
+
+    /**
+     * 分配的线程数
+     */
+    private int threads;
+
+    /**
+     * 求解状态
+     */
+    private AlgorithmResultEnum status;
+
+    /**
+     * 目标值, 无解时为NaN
+     */
+    private double objective;
+
+    /**
+     * 解, 下标=变量下标; 无解时为空数组
+     */
+    private long[] solution;
+
+    /**
+     * 耗时(毫秒)
+     */
+    private long wallMillis;
+
+    /**
+     * 是否因其他后端获胜而被停止
+     */
+    private boolean stopped;
+}
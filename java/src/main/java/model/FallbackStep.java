@@ -0,0 +1,70 @@
+package model;
+
+import com.google.ortools.sat.SatParameters;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.function.Consumer;
+
+/**
+ * @author kun.hu
+ * 重试时的降级步骤: 调整求解参数, 或切换为更简单的备用模型
+ * 参数调整在各次重试间累积生效
+ */
+@Getter
+@AllArgsConstructor
+public class FallbackStep {
+
+    /**
+     * 步骤名
+     */
+    private final String name;
+
+    /**
+     * 求解参数调整, 可为空
+     */
+    private final Consumer<SatParameters.Builder> paramModifier;
+
+    /**
+     * 是否切换为备用模型
+     */
+    private final boolean useFallbackModel;
+
+    /**
+     * 原参数原模型重试
+     */
+    public static FallbackStep retry(){
+        return new FallbackStep("retry", null, false);
+    }
+
+    /**
+     * 搜索线程数减半
+     */
+    public static FallbackStep fewerWorkers(){
+        return new FallbackStep("fewerWorkers",
+                params -> params.setNumSearchWorkers(Math.max(1, params.getNumSearchWorkers() / 2)), false);
+    }
+
+    /**
+     * 关闭LP松弛
+     */
+    public static FallbackStep noLp(){
+        return new FallbackStep("noLp", params -> params.setLinearizationLevel(0), false);
+    }
+
+    /**
+     * 缩短运行时长上限
+     * @param seconds 运行时长上限(秒)
+     */
+    public static FallbackStep shorterLimit(double seconds){
+        return new FallbackStep("shorterLimit",
+                params -> params.setMaxTimeInSeconds(Math.min(params.getMaxTimeInSeconds(), seconds)), false);
+    }
+
+    /**
+     * 切换为备用模型
+     */
+    public static FallbackStep fallbackModel(){
+        return new FallbackStep("fallbackModel", null, true);
+    }
+}
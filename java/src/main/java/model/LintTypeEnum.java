@@ -0,0 +1,30 @@
+package model;
+
+import lombok.Getter;
+
+/**
+ * @author kun.hu
+ * 模型检查问题类型
+ */
+public enum LintTypeEnum {
+    // 定义域达到哨兵值(如Integer.MAX_VALUE默认上界)
+    SENTINEL_DOMAIN("定义域过大"),
+    // 线性约束/目标的区间运算可能溢出int64
+    LINEAR_OVERFLOW("线性表达式可能溢出"),
+    // 乘积约束可能溢出int64
+    PRODUCT_OVERFLOW("乘积可能溢出"),
+    // 变量未被任何约束或目标引用
+    UNUSED_VAR("未使用变量"),
+    // 重复变量(取值相同的常量, 或无条件相等的两个变量)
+    DUPLICATE_VAR("重复变量");
+
+    /**
+     * 类型描述
+     */
+    @Getter
+    private String desc;
+
+    LintTypeEnum(String desc){
+        this.desc = desc;
+    }
+}
@@ -0,0 +1,34 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author kun.hu
+ * 模型检查问题
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class LintWarning {
+    /**
+     * 问题类型
+     */
+    private LintTypeEnum type;
+
+    /**
+     * 相关变量下标, 无为-1
+     */
+    private int varIndex;
+
+    /**
+     * 相关约束下标, 无为-1(目标为-1)
+     */
+    private int constraintIndex;
+
+    /**
+     * 问题描述
+     */
+    private String message;
+}
@@ -0,0 +1,52 @@
+package model;
+
+import lombok.Getter;
+
+/**
+ * @author kun.hu
+ * 模型文件格式, 文件名以.gz结尾时按gzip压缩读写
+ */
+public enum ModelFormatEnum {
+    // 二进制proto
+    PROTO("proto", ".pb"),
+    // 文本proto
+    PROTO_TEXT("文本proto", ".pbtxt"),
+    // free MPS
+    MPS("MPS", ".mps"),
+    // CPLEX LP(仅导出)
+    LP("LP", ".lp");
+
+    /**
+     * 格式描述
+     */
+    @Getter
+    private String desc;
+
+    /**
+     * 文件扩展名
+     */
+    @Getter
+    private String suffix;
+
+    ModelFormatEnum(String desc, String suffix){
+        this.desc = desc;
+        this.suffix = suffix;
+    }
+
+    /**
+     * 按文件名推断格式(忽略.gz后缀)
+     * @throws IllegalArgumentException 无法识别的扩展名
+     */
+    public static ModelFormatEnum fromFileName(String fileName){
+        String name = fileName.toLowerCase();
+        if(name.endsWith(".gz")){
+            name = name.substring(0, name.length() - 3);
+        }
+        for(ModelFormatEnum format : values()){
+            if(name.endsWith(format.suffix)){
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("无法识别的模型文件格式: " + fileName);
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * @author kun.hu
+ * 单个流程阶段的耗时和模型增量
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class PhaseMetrics {
+    /**
+     * 阶段名: init, preCut, createVars, computeInterVar, addConstraints, setObjective, setInitialSolution, trySolve, parseResult
+     */
+    private String phase;
+
+    /**
+     * 耗时(毫秒)
+     */
+    private long wallMillis;
+
+    /**
+     * 当前线程堆内存分配量(字节), JVM不支持时为-1
+     */
+    private long allocatedBytes;
+
+    /**
+     * 新增变量数
+     */
+    private int variablesAdded;
+
+    /**
+     * 新增约束数
+     */
+    private int constraintsAdded;
+
+    /**
+     * 按约束类型统计的新增约束数, key=约束类型(如LINEAR, INT_MAX)
+     */
+    private Map<String, Integer> constraintsByType;
+}
@@ -0,0 +1,46 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author kun.hu
+ * 组合求解结果
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class PortfolioResult {
+    /**
+     * 获胜后端, 均无解时为null
+     */
+    private SolverBackendEnum winner;
+
+    /**
+     * 获胜后端的求解状态
+     */
+    private AlgorithmResultEnum status;
+
+    /**
+     * 目标值, 无解时为NaN
+     */
+    private double objective;
+
+    /**
+     * 解, 下标=变量下标; 无解时为空数组
+     */
+    private long[] solution;
+
+    /**
+     * 总耗时(毫秒)
+     */
+    private long wallMillis;
+
+    /**
+     * 截止时已返回的各后端结果
+     */
+    private List<BackendOutcome> outcomes;
+}
@@ -0,0 +1,94 @@
+package model;
+
+import com.google.ortools.sat.CpSolverStatus;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author kun.hu
+ * 求解重试策略: 首次求解失败后依次执行降级步骤, 每个步骤一次尝试
+ * 求解抛出异常或返回状态在retryStatuses中时视为失败; 各次尝试共享总时长预算
+ */
+@Getter
+public class RetryPolicy {
+
+    /**
+     * 首次重试前的等待时长(毫秒)
+     */
+    private long backoffMillis;
+
+    /**
+     * 等待时长增长倍数
+     */
+    private double backoffMultiplier = 1.0;
+
+    /**
+     * 最大等待时长(毫秒)
+     */
+    private long maxBackoffMillis;
+
+    /**
+     * 降级步骤, 第i次重试执行第i个步骤
+     */
+    private final List<FallbackStep> fallbackSteps = new ArrayList<>();
+
+    /**
+     * 需要重试的求解状态(异常始终重试)
+     */
+    private final Set<CpSolverStatus> retryStatuses = EnumSet.noneOf(CpSolverStatus.class);
+
+    /**
+     * 默认策略: 等待1s后减半线程重试, 再失败则关闭LP并切换备用模型
+     */
+    public static RetryPolicy defaultPolicy(){
+        return new RetryPolicy()
+                .backoff(1000, 2.0, 10000)
+                .fallback(FallbackStep.fewerWorkers())
+                .fallback(new FallbackStep("noLpFallbackModel", FallbackStep.noLp().getParamModifier(), true));
+    }
+
+    /**
+     * 不重试
+     */
+    public static RetryPolicy noRetry(){
+        return new RetryPolicy();
+    }
+
+    public RetryPolicy backoff(long backoffMillis, double backoffMultiplier, long maxBackoffMillis){
+        this.backoffMillis = backoffMillis;
+        this.backoffMultiplier = backoffMultiplier;
+        this.maxBackoffMillis = maxBackoffMillis;
+        return this;
+    }
+
+    public RetryPolicy fallback(FallbackStep step){
+        this.fallbackSteps.add(step);
+        return this;
+    }
+
+    public RetryPolicy retryOn(CpSolverStatus... statuses){
+        Collections.addAll(this.retryStatuses, statuses);
+        return this;
+    }
+
+    /**
+     * @return 最大尝试次数(含首次)
+     */
+    public int getMaxAttempts(){
+        return 1 + this.fallbackSteps.size();
+    }
+
+    /**
+     * @param retryNo 第几次重试(从1开始)
+     * @return 该次重试前的等待时长(毫秒)
+     */
+    public long getBackoffMillis(int retryNo){
+        double backoff = this.backoffMillis * Math.pow(this.backoffMultiplier, retryNo - 1);
+        return (long) Math.min(backoff, Math.max(this.backoffMillis, this.maxBackoffMillis));
+    }
+}
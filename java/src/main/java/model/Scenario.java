@@ -0,0 +1,123 @@
+package model;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * @author kun.hu
+ * what-if场景: 相对基准模型的变量界/约束右端/目标系数改动
+ * 变量和约束以下标(MPVariable.index()/MPConstraint.index())引用, 因此可作用于克隆模型
+ */
+public class Scenario {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * 场景名
+     */
+    @Getter
+    private final String name;
+
+    @Getter
+    private int varBoundCount;
+    private int[] varIndices = new int[INITIAL_CAPACITY];
+    private double[] varLbs = new double[INITIAL_CAPACITY];
+    private double[] varUbs = new double[INITIAL_CAPACITY];
+
+    @Getter
+    private int rowBoundCount;
+    private int[] rowIndices = new int[INITIAL_CAPACITY];
+    private double[] rowLbs = new double[INITIAL_CAPACITY];
+    private double[] rowUbs = new double[INITIAL_CAPACITY];
+
+    @Getter
+    private int objCoefCount;
+    private int[] objIndices = new int[INITIAL_CAPACITY];
+    private double[] objCoefs = new double[INITIAL_CAPACITY];
+
+    public Scenario(String name){
+        this.name = name;
+    }
+
+    /**
+     * 修改变量上下界
+     */
+    public Scenario varBounds(int varIndex, double lb, double ub){
+        if(this.varBoundCount == this.varIndices.length){
+            int capacity = this.varIndices.length * 2;
+            this.varIndices = Arrays.copyOf(this.varIndices, capacity);
+            this.varLbs = Arrays.copyOf(this.varLbs, capacity);
+            this.varUbs = Arrays.copyOf(this.varUbs, capacity);
+        }
+        this.varIndices[this.varBoundCount] = varIndex;
+        this.varLbs[this.varBoundCount] = lb;
+        this.varUbs[this.varBoundCount] = ub;
+        this.varBoundCount++;
+        return this;
+    }
+
+    /**
+     * 修改约束上下界(右端)
+     */
+    public Scenario rowBounds(int rowIndex, double lb, double ub){
+        if(this.rowBoundCount == this.rowIndices.length){
+            int capacity = this.rowIndices.length * 2;
+            this.rowIndices = Arrays.copyOf(this.rowIndices, capacity);
+            this.rowLbs = Arrays.copyOf(this.rowLbs, capacity);
+            this.rowUbs = Arrays.copyOf(this.rowUbs, capacity);
+        }
+        this.rowIndices[this.rowBoundCount] = rowIndex;
+        this.rowLbs[this.rowBoundCount] = lb;
+        this.rowUbs[this.rowBoundCount] = ub;
+        this.rowBoundCount++;
+        return this;
+    }
+
+    /**
+     * 修改目标系数
+     */
+    public Scenario objCoef(int varIndex, double coef){
+        if(this.objCoefCount == this.objIndices.length){
+            int capacity = this.objIndices.length * 2;
+            this.objIndices = Arrays.copyOf(this.objIndices, capacity);
+            this.objCoefs = Arrays.copyOf(this.objCoefs, capacity);
+        }
+        this.objIndices[this.objCoefCount] = varIndex;
+        this.objCoefs[this.objCoefCount] = coef;
+        this.objCoefCount++;
+        return this;
+    }
+
+    public int getVarIndex(int i){
+        return this.varIndices[i];
+    }
+
+    public double getVarLb(int i){
+        return this.varLbs[i];
+    }
+
+    public double getVarUb(int i){
+        return this.varUbs[i];
+    }
+
+    public int getRowIndex(int i){
+        return this.rowIndices[i];
+    }
+
+    public double getRowLb(int i){
+        return this.rowLbs[i];
+    }
+
+    public double getRowUb(int i){
+        return this.rowUbs[i];
+    }
+
+    public int getObjIndex(int i){
+        return this.objIndices[i];
+    }
+
+    public double getObjCoef(int i){
+        return this.objCoefs[i];
+    }
+}
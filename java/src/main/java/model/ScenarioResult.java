@@ -0,0 +1,39 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author kun.hu
+ * what-if场景求解结果
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ScenarioResult {
+    /**
+     * 场景名
+     */
+    private String name;
+
+    /**
+     * 求解状态
+     */
+    private AlgorithmResultEnum status;
+
+    /**
+     * 目标值, 无解时为NaN
+     */
+    private double objective;
+
+    /**
+     * 变量取值, 下标=变量下标; 无解时为空数组
+     */
+    private double[] values;
+
+    /**
+     * 耗时(毫秒)
+     */
+    private long wallMillis;
+}
@@ -0,0 +1,54 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author kun.hu
+ * 一次求解尝试的记录
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SolveAttempt {
+    /**
+     * 尝试序号(从1开始)
+     */
+    private int attemptNo;
+
+    /**
+     * 降级步骤名, 首次求解为initial
+     */
+    private String stepName;
+
+    /**
+     * 是否使用备用模型
+     */
+    private boolean fallbackModel;
+
+    /**
+     * 搜索线程数
+     */
+    private int numSearchWorkers;
+
+    /**
+     * 运行时长上限(秒)
+     */
+    private double maxTimeInSeconds;
+
+    /**
+     * 求解状态
+     */
+    private String status;
+
+    /**
+     * 耗时(秒)
+     */
+    private double wallTime;
+
+    /**
+     * 异常信息, 无异常为null
+     */
+    private String error;
+}
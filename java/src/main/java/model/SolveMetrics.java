@@ -0,0 +1,59 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author kun.hu
+ * 求解器统计信息
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SolveMetrics {
+    /**
+     * 求解状态
+     */
+    private String status;
+
+    /**
+     * 目标值, 无解为NaN
+     */
+    private double objectiveValue;
+
+    /**
+     * 目标界
+     */
+    private double bestObjectiveBound;
+
+    /**
+     * 相对gap, 无解为NaN
+     */
+    private double relativeGap;
+
+    /**
+     * 冲突数
+     */
+    private long numConflicts;
+
+    /**
+     * 分支数
+     */
+    private long numBranches;
+
+    /**
+     * 布尔变量数
+     */
+    private long numBooleans;
+
+    /**
+     * 墙钟时间(秒)
+     */
+    private double wallTime;
+
+    /**
+     * 用户态时间(秒)
+     */
+    private double userTime;
+}
@@ -0,0 +1,26 @@
+package model;
+
+import lombok.Getter;
+
+/**
+ * @author kun.hu
+ * 求解后端
+ */
+public enum SolverBackendEnum {
+    // CP-SAT
+    CP_SAT("CP-SAT"),
+    // CBC(MPSolver)
+    CBC("CBC"),
+    // SCIP(MPSolver)
+    SCIP("SCIP");
+
+    /**
+     * 后端描述
+     */
+    @Getter
+    private String desc;
+
+    SolverBackendEnum(String desc){
+        this.desc = desc;
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * @author kun.hu
  * @param <E> 状态枚举
@@ -23,4 +25,13 @@ public class StatusResult<E, R> {
      */
     private R result;
 
+    /**
+     * 求解尝试记录
+     */
+    private List<SolveAttempt> attempts;
+
+    public StatusResult(E status, R result){
+        this.status = status;
+        this.result = result;
+    }
 }
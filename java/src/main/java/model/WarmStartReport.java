@@ -0,0 +1,39 @@
+package model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author kun.hu
+ * 热启动情况
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class WarmStartReport {
+    /**
+     * 存储中上一次解的变量数
+     */
+    private int storedCount;
+
+    /**
+     * 本次模型中带key的变量数
+     */
+    private int keyCount;
+
+    /**
+     * 设置了初始解的变量数
+     */
+    private int hintedCount;
+
+    /**
+     * 命中率 = 设置了初始解的变量数 / 本次模型中带key的变量数
+     */
+    private double hitRate;
+
+    /**
+     * 初始解是否可行, 未检查或检查超时为null
+     */
+    private Boolean feasible;
+}
@@ -0,0 +1,31 @@
+package utils;
+
+/**
+ * @author kun.hu
+ * 相邻(连续)约束的编码方式
+ */
+public enum ContiguityEncoding {
+
+    /**
+     * 最大/最小值: max - min = 个数 - 1 (可选: max - 选中个数 < 选中位置)
+     */
+    MAX_MIN,
+
+    /**
+     * 起点文字: 按位置排序后, 每个位置一个"连续段起点"bool变量, 起点个数<=1; 位置不相邻的两点不能同时选中
+     * 仅适用于可选位置
+     */
+    START_LITERALS,
+
+    /**
+     * 自动机: 按位置排序后的0-1选择序列需满足 0*1*0* (位置间断处补0)
+     * 仅适用于可选位置
+     */
+    AUTOMATON,
+
+    /**
+     * 区间不重叠: 每个位置变量为长度1的区间, 全部落在[起点, 起点+个数-1]窗口内
+     * 仅适用于位置变量
+     */
+    NO_OVERLAP
+}
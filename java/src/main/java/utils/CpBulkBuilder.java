@@ -0,0 +1,230 @@
+package utils;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.CpObjectiveProto;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearConstraintProto;
+
+/**
+ * @author kun.hu
+ * 矩阵化批量建模工具
+ * 以原生数组(系数矩阵/CSR稀疏矩阵/变量块下标)为输入, 直接写入model.getBuilder(),
+ * 不创建IntVar/IntVar[]/LinearExpr等中间对象, 适用于百万变量级别的分配类模型
+ */
+public class CpBulkBuilder {
+
+    private final CpModelProto.Builder builder;
+
+    public CpBulkBuilder(CpModel model){
+        this.builder = model.getBuilder();
+    }
+
+    /**
+     * 批量创建0-1变量块(变量名为空)
+     * @param rows 行数
+     * @param cols 列数
+     * @return 变量块, 块内变量下标按行连续
+     */
+    public VarBlock newBoolVarBlock(int rows, int cols){
+        return newIntVarBlock(rows, cols, 0, 1);
+    }
+
+    /**
+     * 批量创建整数变量块(变量名为空)
+     * @param lb 变量下界
+     * @param ub 变量上界
+     */
+    public VarBlock newIntVarBlock(int rows, int cols, long lb, long ub){
+        int start = this.builder.getVariablesCount();
+        int n = Math.multiplyExact(rows, cols);
+        int[] indices = new int[n];
+        for(int i=0; i<n; i++){
+            this.builder.addVariablesBuilder().addDomain(lb).addDomain(ub);
+            indices[i] = start + i;
+        }
+        return new VarBlock(rows, cols, indices);
+    }
+
+    /**
+     * 包装已有变量矩阵(各行等长)
+     */
+    public static VarBlock block(IntVar[][] vars){
+        int rows = vars.length;
+        int cols = rows == 0 ? 0 : vars[0].length;
+        int[] indices = new int[Math.multiplyExact(rows, cols)];
+        for(int r=0; r<rows; r++){
+            for(int c=0; c<cols; c++){
+                indices[r * cols + c] = vars[r][c].getIndex();
+            }
+        }
+        return new VarBlock(rows, cols, indices);
+    }
+
+    /**
+     * 每行求和: lb <= sum(x[r][*]) <= ub
+     */
+    public void addRowSums(VarBlock block, long lb, long ub){
+        addRowSums(block, 0, block.rows, lb, ub);
+    }
+
+    /**
+     * 行区间[rowFrom, rowTo)每行求和: lb <= sum(x[r][*]) <= ub
+     */
+    public void addRowSums(VarBlock block, int rowFrom, int rowTo, long lb, long ub){
+        for(int r=rowFrom; r<rowTo; r++){
+            LinearConstraintProto.Builder linear = newLinear(lb, ub);
+            for(int c=0; c<block.cols; c++){
+                linear.addVars(block.index(r, c)).addCoeffs(1);
+            }
+        }
+    }
+
+    /**
+     * 每列求和: lb <= sum(x[*][c]) <= ub
+     */
+    public void addColumnSums(VarBlock block, long lb, long ub){
+        addColumnSums(block, 0, block.cols, lb, ub);
+    }
+
+    /**
+     * 列区间[colFrom, colTo)每列求和: lb <= sum(x[*][c]) <= ub
+     */
+    public void addColumnSums(VarBlock block, int colFrom, int colTo, long lb, long ub){
+        for(int c=colFrom; c<colTo; c++){
+            LinearConstraintProto.Builder linear = newLinear(lb, ub);
+            for(int r=0; r<block.rows; r++){
+                linear.addVars(block.index(r, c)).addCoeffs(1);
+            }
+        }
+    }
+
+    /**
+     * 每行加权求和: lb[r] <= sum(weights[r][c] * x[r][c]) <= ub[r]
+     * @param weights 系数矩阵, 与变量块同形
+     */
+    public void addRowWeightedSums(VarBlock block, int[][] weights, long[] lb, long[] ub){
+        for(int r=0; r<block.rows; r++){
+            LinearConstraintProto.Builder linear = newLinear(lb[r], ub[r]);
+            for(int c=0; c<block.cols; c++){
+                addTerm(linear, block.index(r, c), weights[r][c]);
+            }
+        }
+    }
+
+    /**
+     * 每列加权求和: lb[c] <= sum(weights[r][c] * x[r][c]) <= ub[c]
+     * @param weights 系数矩阵, 与变量块同形
+     */
+    public void addColumnWeightedSums(VarBlock block, int[][] weights, long[] lb, long[] ub){
+        for(int c=0; c<block.cols; c++){
+            LinearConstraintProto.Builder linear = newLinear(lb[c], ub[c]);
+            for(int r=0; r<block.rows; r++){
+                addTerm(linear, block.index(r, c), weights[r][c]);
+            }
+        }
+    }
+
+    /**
+     * 每列加权求和, 系数只与行有关(如物品重量): lb[c] <= sum(rowWeights[r] * x[r][c]) <= ub[c]
+     */
+    public void addColumnWeightedSums(VarBlock block, int[] rowWeights, long[] lb, long[] ub){
+        for(int c=0; c<block.cols; c++){
+            LinearConstraintProto.Builder linear = newLinear(lb[c], ub[c]);
+            for(int r=0; r<block.rows; r++){
+                addTerm(linear, block.index(r, c), rowWeights[r]);
+            }
+        }
+    }
+
+    /**
+     * CSR稀疏矩阵批量线性约束: 第i条约束为 lb[i] <= sum(coeffs[k] * x[varIndices[k]]) <= ub[i], k∈[rowPtr[i], rowPtr[i+1])
+     * @param rowPtr 行起始位置, 长度=约束数+1
+     * @param varIndices 变量下标
+     * @param coeffs 系数
+     */
+    public void addCsrConstraints(int[] rowPtr, int[] varIndices, long[] coeffs, long[] lb, long[] ub){
+        for(int i=0; i<rowPtr.length-1; i++){
+            LinearConstraintProto.Builder linear = newLinear(lb[i], ub[i]);
+            for(int k=rowPtr[i]; k<rowPtr[i+1]; k++){
+                addTerm(linear, varIndices[k], coeffs[k]);
+            }
+        }
+    }
+
+    /**
+     * 设置目标: sum(weights[r][c] * x[r][c]), 覆盖已有目标
+     * @param minimize true最小化, false最大化
+     */
+    public void setObjective(VarBlock block, int[][] weights, boolean minimize){
+        this.builder.clearObjective();
+        CpObjectiveProto.Builder objective = this.builder.getObjectiveBuilder();
+        for(int r=0; r<block.rows; r++){
+            for(int c=0; c<block.cols; c++){
+                long weight = weights[r][c];
+                if(weight != 0){
+                    objective.addVars(block.index(r, c)).addCoeffs(minimize ? weight : -weight);
+                }
+            }
+        }
+        // 最大化按取反后的最小化求解
+        if(!minimize){
+            objective.setScalingFactor(-1);
+        }
+    }
+
+    private LinearConstraintProto.Builder newLinear(long lb, long ub){
+        return this.builder.addConstraintsBuilder().getLinearBuilder().addDomain(lb).addDomain(ub);
+    }
+
+    private static void addTerm(LinearConstraintProto.Builder linear, int varIndex, long coeff){
+        // 系数为0的项不写入
+        if(coeff != 0){
+            linear.addVars(varIndex).addCoeffs(coeff);
+        }
+    }
+
+    /**
+     * 变量块: rows*cols个变量的下标, 按行存储
+     */
+    public static class VarBlock {
+        private final int rows;
+        private final int cols;
+        private final int[] indices;
+
+        VarBlock(int rows, int cols, int[] indices){
+            this.rows = rows;
+            this.cols = cols;
+            this.indices = indices;
+        }
+
+        public int getRows(){
+            return this.rows;
+        }
+
+        public int getCols(){
+            return this.cols;
+        }
+
+        /**
+         * @return 第r行第c列变量的下标
+         */
+        public int index(int r, int c){
+            return this.indices[r * this.cols + c];
+        }
+
+        /**
+         * 从解数组中读取整块取值
+         * @param solution CpSolutionUtil.toArray得到的解数组
+         */
+        public long[][] values(long[] solution){
+            long[][] values = new long[this.rows][this.cols];
+            for(int r=0; r<this.rows; r++){
+                for(int c=0; c<this.cols; c++){
+                    values[r][c] = solution[index(r, c)];
+                }
+            }
+            return values;
+        }
+    }
+}
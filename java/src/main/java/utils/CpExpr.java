@@ -0,0 +1,319 @@
+package utils;
+
+import com.google.ortools.sat.Constraint;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+
+import java.util.Arrays;
+
+/**
+ * @author kun.hu
+ * 惰性线性表达式: sum(coeffs[i] * vars[i]) + offset
+ * 线性组合(加减/数乘/求和)只做符号合并, 不创建变量; 仅在max/min/乘除/abs等非线性运算需要时才物化为一个变量和一条等式约束
+ * 对象不可变, 可安全复用
+ */
+public final class CpExpr {
+
+    private static final IntVar[] NO_VARS = new IntVar[0];
+
+    private static final long[] NO_COEFFS = new long[0];
+
+    private final IntVar[] vars;
+
+    private final long[] coeffs;
+
+    private final long offset;
+
+    /**
+     * 物化缓存: 同一表达式在同一模型中只物化一次
+     */
+    private CpModel materializedModel;
+
+    private IntVar materializedVar;
+
+    private CpExpr(IntVar[] vars, long[] coeffs, long offset){
+        this.vars = vars;
+        this.coeffs = coeffs;
+        this.offset = offset;
+    }
+
+    public static CpExpr of(IntVar var){
+        return new CpExpr(new IntVar[]{var}, new long[]{1}, 0);
+    }
+
+    public static CpExpr constant(long value){
+        return new CpExpr(NO_VARS, NO_COEFFS, value);
+    }
+
+    public static CpExpr term(IntVar var, long coeff){
+        return new CpExpr(new IntVar[]{var}, new long[]{coeff}, 0);
+    }
+
+    public static CpExpr sum(IntVar[] vars){
+        long[] coeffs = new long[vars.length];
+        Arrays.fill(coeffs, 1);
+        return new CpExpr(vars.clone(), coeffs, 0);
+    }
+
+    public static CpExpr scalProd(IntVar[] vars, long[] coeffs){
+        return new CpExpr(vars.clone(), coeffs.clone(), 0);
+    }
+
+    public static CpExpr scalProd(IntVar[] vars, int[] coeffs){
+        return new CpExpr(vars.clone(), Arrays.stream(coeffs).asLongStream().toArray(), 0);
+    }
+
+    /**
+     * 多个表达式求和, 一次拼接
+     * @throws ArithmeticException 常数项溢出long
+     */
+    public static CpExpr sum(CpExpr... exprs){
+        int n = 0;
+        long offset = 0;
+        for(CpExpr expr : exprs){
+            n += expr.vars.length;
+            offset = Math.addExact(offset, expr.offset);
+        }
+        IntVar[] vars = new IntVar[n];
+        long[] coeffs = new long[n];
+        int pos = 0;
+        for(CpExpr expr : exprs){
+            System.arraycopy(expr.vars, 0, vars, pos, expr.vars.length);
+            System.arraycopy(expr.coeffs, 0, coeffs, pos, expr.coeffs.length);
+            pos += expr.vars.length;
+        }
+        return new CpExpr(vars, coeffs, offset);
+    }
+
+    public CpExpr plus(CpExpr other){
+        return sum(this, other);
+    }
+
+    public CpExpr plus(long value){
+        return new CpExpr(this.vars, this.coeffs, Math.addExact(this.offset, value));
+    }
+
+    public CpExpr minus(CpExpr other){
+        return sum(this, other.negate());
+    }
+
+    public CpExpr negate(){
+        return times(-1);
+    }
+
+    public CpExpr times(long factor){
+        long[] coeffs = new long[this.coeffs.length];
+        for(int i=0; i<coeffs.length; i++){
+            coeffs[i] = Math.multiplyExact(this.coeffs[i], factor);
+        }
+        return new CpExpr(this.vars, coeffs, Math.multiplyExact(this.offset, factor));
+    }
+
+    public long getOffset(){
+        return this.offset;
+    }
+
+    IntVar getVar(int i){
+        return this.vars[i];
+    }
+
+    long getCoeff(int i){
+        return this.coeffs[i];
+    }
+
+    /**
+     * 由线性表达式构造
+     */
+    public static CpExpr from(LinearExpr expr){
+        int n = expr.numElements();
+        IntVar[] vars = new IntVar[n];
+        long[] coeffs = new long[n];
+        for(int i=0; i<n; i++){
+            vars[i] = expr.getVariable(i);
+            coeffs[i] = expr.getCoefficient(i);
+        }
+        return new CpExpr(vars, coeffs, 0);
+    }
+
+    /**
+     * @return 合并同类项并去掉0系数后的项数
+     */
+    public int size(){
+        return normalize().vars.length;
+    }
+
+    /**
+     * @return 是否为常量
+     */
+    public boolean isConstant(){
+        return normalize().vars.length == 0;
+    }
+
+    /**
+     * 合并同类项并去掉0系数
+     * 以(变量下标<<32 | 位置)编码后排序, 不使用装箱Map
+     * @return 规范化后的表达式
+     */
+    public CpExpr normalize(){
+        int n = this.vars.length;
+        if(n <= 1){
+            return n == 1 && this.coeffs[0] == 0 ? constant(this.offset) : this;
+        }
+        long[] keys = new long[n];
+        for(int i=0; i<n; i++){
+            keys[i] = ((long) this.vars[i].getIndex() << 32) | i;
+        }
+        Arrays.sort(keys);
+        IntVar[] vars = new IntVar[n];
+        long[] coeffs = new long[n];
+        int size = 0;
+        int lastIndex = -1;
+        for(long key : keys){
+            int index = (int) (key >>> 32);
+            int pos = (int) key;
+            if(size > 0 && index == lastIndex){
+                coeffs[size - 1] = Math.addExact(coeffs[size - 1], this.coeffs[pos]);
+                continue;
+            }
+            if(size > 0 && coeffs[size - 1] == 0){
+                size--;
+            }
+            vars[size] = this.vars[pos];
+            coeffs[size] = this.coeffs[pos];
+            lastIndex = index;
+            size++;
+        }
+        if(size > 0 && coeffs[size - 1] == 0){
+            size--;
+        }
+        if(size == n){
+            return new CpExpr(vars, coeffs, this.offset);
+        }
+        return new CpExpr(Arrays.copyOf(vars, size), Arrays.copyOf(coeffs, size), this.offset);
+    }
+
+    /**
+     * 区间运算求取值范围, 溢出时饱和到long边界; 变量界经模型的定义域索引读取
+     * @param model 变量所属的cp_model对象
+     * @return {下界, 上界}
+     */
+    public long[] bounds(CpModel model){
+        long lo = this.offset;
+        long hi = this.offset;
+        for(int i=0; i<this.vars.length; i++){
+            long a = CpModelUtil.satMul(CpModelUtil.lb(model, this.vars[i]), this.coeffs[i]);
+            long b = CpModelUtil.satMul(CpModelUtil.ub(model, this.vars[i]), this.coeffs[i]);
+            lo = CpModelUtil.satAdd(lo, Math.min(a, b));
+            hi = CpModelUtil.satAdd(hi, Math.max(a, b));
+        }
+        return new long[]{lo, hi};
+    }
+
+    /**
+     * 不含常数项的线性表达式(如用于目标, 常数项不影响最优解)
+     * @return 线性表达式
+     */
+    public LinearExpr toLinearExpr(){
+        CpExpr expr = normalize();
+        return LinearExpr.scalProd(expr.vars, expr.coeffs);
+    }
+
+    /**
+     * 物化为变量: 单变量直接返回, 常量取常量池, 否则创建一个变量(定义域为推导范围)和一条等式约束
+     * @param model cp_model对象
+     * @return 等价变量
+     * @throws ArithmeticException 推导范围溢出long, CP-SAT不接受long边界作为定义域
+     */
+    public synchronized IntVar toIntVar(CpModel model){
+        if(this.materializedModel == model){
+            return this.materializedVar;
+        }
+        CpExpr expr = normalize();
+        IntVar var;
+        if(expr.vars.length == 0){
+            var = CpModelUtil.constant(model, expr.offset);
+        }else if(expr.vars.length == 1 && expr.coeffs[0] == 1 && expr.offset == 0){
+            var = expr.vars[0];
+        }else{
+            long[] bounds = expr.bounds(model);
+            if(bounds[0] == Long.MIN_VALUE || bounds[1] == Long.MAX_VALUE){
+                throw new ArithmeticException("expression bounds overflow long: [" + bounds[0] + ", " + bounds[1] + "]");
+            }
+            var = model.newIntVar(bounds[0], bounds[1], "");
+            // expr - var == 0
+            expr.minus(of(var)).addInDomain(model, 0, 0);
+        }
+        this.materializedModel = model;
+        this.materializedVar = var;
+        return var;
+    }
+
+    /**
+     * 增加约束 lo <= expr <= hi, 常数项移至两侧
+     * @throws ArithmeticException 移项后溢出long
+     */
+    public Constraint addInDomain(CpModel model, long lo, long hi){
+        CpExpr expr = normalize();
+        long newLo = lo == Long.MIN_VALUE ? lo : Math.subtractExact(lo, expr.offset);
+        long newHi = hi == Long.MAX_VALUE ? hi : Math.subtractExact(hi, expr.offset);
+        return model.addLinearConstraint(LinearExpr.scalProd(expr.vars, expr.coeffs), newLo, newHi);
+    }
+
+    public Constraint addEquality(CpModel model, long value){
+        return addInDomain(model, value, value);
+    }
+
+    public Constraint addLessOrEqual(CpModel model, long value){
+        return addInDomain(model, Long.MIN_VALUE, value);
+    }
+
+    public Constraint addGreaterOrEqual(CpModel model, long value){
+        return addInDomain(model, value, Long.MAX_VALUE);
+    }
+
+    public Constraint addEquality(CpModel model, CpExpr other){
+        return minus(other).addInDomain(model, 0, 0);
+    }
+
+    public Constraint addLessOrEqual(CpModel model, CpExpr other){
+        return minus(other).addInDomain(model, Long.MIN_VALUE, 0);
+    }
+
+    public Constraint addGreaterOrEqual(CpModel model, CpExpr other){
+        return minus(other).addInDomain(model, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * 以下为非线性运算: 操作数物化后调用CpModelUtil, 结果包装为表达式
+     * 结果变量的定义域直接取区间运算推导范围, 不截断到int
+     */
+    public static CpExpr max(CpModel model, CpExpr... exprs){
+        return of(CpModelUtil.max(model, toIntVars(model, exprs), Long.MIN_VALUE, Long.MAX_VALUE, ""));
+    }
+
+    public static CpExpr min(CpModel model, CpExpr... exprs){
+        return of(CpModelUtil.min(model, toIntVars(model, exprs), Long.MIN_VALUE, Long.MAX_VALUE, ""));
+    }
+
+    public static CpExpr product(CpModel model, CpExpr... exprs){
+        return of(CpModelUtil.productVar(model, toIntVars(model, exprs), Long.MIN_VALUE, Long.MAX_VALUE, ""));
+    }
+
+    public static CpExpr div(CpModel model, CpExpr numerator, CpExpr denominator){
+        return of(CpModelUtil.divVar(model, numerator.toIntVar(model), denominator.toIntVar(model),
+                Long.MIN_VALUE, Long.MAX_VALUE, ""));
+    }
+
+    public static CpExpr abs(CpModel model, CpExpr expr){
+        return of(CpModelUtil.absVar(model, expr.toIntVar(model), 0, Long.MAX_VALUE, ""));
+    }
+
+    private static IntVar[] toIntVars(CpModel model, CpExpr[] exprs){
+        IntVar[] vars = new IntVar[exprs.length];
+        for(int i=0; i<exprs.length; i++){
+            vars[i] = exprs[i].toIntVar(model);
+        }
+        return vars;
+    }
+}
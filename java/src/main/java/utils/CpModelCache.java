@@ -0,0 +1,259 @@
+package utils;
+
+import com.google.ortools.sat.CpModelProto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author kun.hu
+ * CpModelProto磁盘缓存, 按输入指纹保存建模结果
+ * 文件格式(gzip压缩): 魔数, 版本, 变量key->下标映射, 目标分组(目标名->变量下标/权重), CpModelProto; 总大小超限时按最近访问时间淘汰
+ */
+@Slf4j
+public class CpModelCache {
+
+    /**
+     * 文件魔数"CPMC"
+     */
+    private static final int MAGIC = 0x43504D43;
+
+    private static final int VERSION = 2;
+
+    private static final String SUFFIX = ".cpm";
+
+    /**
+     * 缓存目录
+     */
+    @Getter
+    private final Path dir;
+
+    /**
+     * 缓存总大小上限(字节)
+     */
+    @Getter
+    private final long maxBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public CpModelCache(String dir, long maxBytes){
+        this.dir = Paths.get(dir);
+        this.maxBytes = maxBytes;
+        try{
+            Files.createDirectories(this.dir);
+        }catch (IOException e){
+            log.error("模型缓存目录创建失败, dir: {}", dir, e);
+        }
+    }
+
+    /**
+     * 计算输入指纹(SHA-256)
+     * @param parts 输入内容
+     * @return 16进制指纹
+     */
+    public static String fingerprint(String... parts){
+        try{
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for(String part : parts){
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                // 分隔符, 避免拼接歧义
+                digest.update((byte) 0);
+            }
+            StringBuilder sb = new StringBuilder();
+            for(byte b : digest.digest()){
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        }catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 读取缓存
+     * @param key 缓存key
+     * @return 缓存模型, 未命中或读取失败返回null
+     */
+    public synchronized CachedModel get(String key){
+        Path file = fileOf(key);
+        if(!Files.exists(file)){
+            this.misses.incrementAndGet();
+            return null;
+        }
+        try(DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))){
+            if(in.readInt() != MAGIC || in.readInt() != VERSION){
+                log.info("模型缓存版本不符, 丢弃: {}", file);
+                Files.deleteIfExists(file);
+                this.misses.incrementAndGet();
+                return null;
+            }
+            int varCount = in.readInt();
+            Map<String, Integer> varIndexMap = new HashMap<>(varCount * 2);
+            for(int i=0; i<varCount; i++){
+                String varKey = in.readUTF();
+                varIndexMap.put(varKey, in.readInt());
+            }
+            ObjectiveAccumulator objAccumulator = new ObjectiveAccumulator();
+            int objCount = in.readInt();
+            for(int i=0; i<objCount; i++){
+                String objName = in.readUTF();
+                int termCount = in.readInt();
+                for(int k=0; k<termCount; k++){
+                    objAccumulator.add(objName, in.readInt(), in.readLong());
+                }
+            }
+            CpModelProto proto = CpModelProto.parseFrom(in);
+            // 刷新访问时间, 用于淘汰
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            this.hits.incrementAndGet();
+            return new CachedModel(proto, varIndexMap, objAccumulator);
+        }catch (IOException e){
+            log.error("模型缓存读取失败, 丢弃: {}", file, e);
+            try{
+                Files.deleteIfExists(file);
+            }catch (IOException ignored){
+            }
+            this.misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存(不含目标分组)
+     * @param key 缓存key
+     * @param proto 模型
+     * @param varIndexMap 变量key->下标映射
+     */
+    public void put(String key, CpModelProto proto, Map<String, Integer> varIndexMap){
+        put(key, proto, varIndexMap, null);
+    }
+
+    /**
+     * 写入缓存, 先写临时文件再原子替换
+     * @param key 缓存key
+     * @param proto 模型
+     * @param varIndexMap 变量key->下标映射
+     * @param objAccumulator 目标分组, 可为null
+     */
+    public synchronized void put(String key, CpModelProto proto, Map<String, Integer> varIndexMap, ObjectiveAccumulator objAccumulator){
+        Path file = fileOf(key);
+        Path tmp = this.dir.resolve(file.getFileName() + ".tmp");
+        try{
+            try(DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))){
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(varIndexMap.size());
+                for(Map.Entry<String, Integer> entry : varIndexMap.entrySet()){
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue());
+                }
+                Set<String> objNames = objAccumulator == null ? Collections.emptySet() : objAccumulator.getObjNames();
+                out.writeInt(objNames.size());
+                for(String objName : objNames){
+                    int[] varIndices = objAccumulator.getVarIndices(objName);
+                    long[] weights = objAccumulator.getWeights(objName);
+                    out.writeUTF(objName);
+                    out.writeInt(varIndices.length);
+                    for(int k=0; k<varIndices.length; k++){
+                        out.writeInt(varIndices[k]);
+                        out.writeLong(weights[k]);
+                    }
+                }
+                proto.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            evict(file);
+        }catch (IOException e){
+            log.error("模型缓存写入失败: {}", file, e);
+            try{
+                Files.deleteIfExists(tmp);
+            }catch (IOException ignored){
+            }
+        }
+    }
+
+    /**
+     * 总大小超限时, 按最近访问时间从旧到新删除(保留刚写入的文件)
+     * @param keep 刚写入的文件
+     */
+    private void evict(Path keep) throws IOException {
+        List<Path> files;
+        try(Stream<Path> stream = Files.list(this.dir)){
+            files = stream.filter(p -> p.toString().endsWith(SUFFIX)).collect(Collectors.toList());
+        }
+        Map<Path, Long> sizes = new HashMap<>(files.size() * 2);
+        Map<Path, Long> times = new HashMap<>(files.size() * 2);
+        long totalBytes = 0;
+        for(Path p : files){
+            long size = Files.size(p);
+            sizes.put(p, size);
+            times.put(p, Files.getLastModifiedTime(p).toMillis());
+            totalBytes += size;
+        }
+        files.sort(Comparator.comparingLong(times::get));
+        for(Path p : files){
+            if(totalBytes <= this.maxBytes){
+                break;
+            }
+            if(p.equals(keep)){
+                continue;
+            }
+            Files.deleteIfExists(p);
+            totalBytes -= sizes.get(p);
+            log.info("模型缓存淘汰: {}", p.getFileName());
+        }
+    }
+
+    private Path fileOf(String key){
+        return this.dir.resolve(fingerprint(key) + SUFFIX);
+    }
+
+    public long getHits(){
+        return this.hits.get();
+    }
+
+    public long getMisses(){
+        return this.misses.get();
+    }
+
+    /**
+     * 缓存的模型、变量下标映射及目标分组
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedModel {
+        private final CpModelProto proto;
+        private final Map<String, Integer> varIndexMap;
+        /**
+         * 目标分组, 目标项按变量下标恢复(没有IntVar)
+         */
+        private final ObjectiveAccumulator objAccumulator;
+    }
+}
@@ -0,0 +1,234 @@
+package utils;
+
+import com.google.ortools.sat.ConstraintProto;
+import com.google.ortools.sat.CpModelProtoOrBuilder;
+import com.google.ortools.sat.CpObjectiveProtoOrBuilder;
+import com.google.ortools.sat.IntegerArgumentProto;
+import com.google.ortools.sat.IntegerVariableProtoOrBuilder;
+import com.google.ortools.sat.LinearConstraintProto;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+import model.LintTypeEnum;
+import model.LintWarning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author kun.hu
+ * 求解前模型检查
+ * 扫描CpModelProto, 检查哨兵大小的定义域、线性/乘积约束的int64溢出风险、未使用变量和重复变量
+ */
+public class CpModelLinter {
+
+    /**
+     * 约束中引用变量的字段名(其余int32字段如intervals引用的是约束下标)
+     */
+    private static final Set<String> VAR_REF_FIELDS = new HashSet<>(Arrays.asList(
+            "enforcement_literal", "vars", "literals", "target", "index", "start", "end", "size",
+            "f_direct", "f_inverse", "times", "actives", "capacity", "demands"));
+
+    /**
+     * 定义域绝对值达到该值视为哨兵值
+     */
+    private long sentinel = Integer.MAX_VALUE;
+
+    /**
+     * 严格模式: 有问题时抛出ModelLintException
+     */
+    private boolean strict = false;
+
+    public CpModelLinter sentinel(long sentinel){
+        this.sentinel = sentinel;
+        return this;
+    }
+
+    public CpModelLinter strict(boolean strict){
+        this.strict = strict;
+        return this;
+    }
+
+    public boolean isStrict(){
+        return this.strict;
+    }
+
+    /**
+     * 检查模型, 严格模式下有问题时抛出异常
+     * @param model 模型proto(可直接传model.getBuilder())
+     * @return 问题列表
+     * @throws ModelLintException 严格模式且存在问题
+     */
+    public List<LintWarning> check(CpModelProtoOrBuilder model){
+        List<LintWarning> warnings = lint(model);
+        if(this.strict && !warnings.isEmpty()){
+            throw new ModelLintException(warnings);
+        }
+        return warnings;
+    }
+
+    /**
+     * 检查模型
+     * @param model 模型proto(可直接传model.getBuilder())
+     * @return 问题列表
+     */
+    public List<LintWarning> lint(CpModelProtoOrBuilder model){
+        List<LintWarning> warnings = new ArrayList<>();
+        int n = model.getVariablesCount();
+        long[] mins = new long[n];
+        long[] maxs = new long[n];
+        for(int i=0; i<n; i++){
+            IntegerVariableProtoOrBuilder var = model.getVariablesOrBuilder(i);
+            mins[i] = var.getDomain(0);
+            maxs[i] = var.getDomain(var.getDomainCount() - 1);
+        }
+        checkDomains(model, mins, maxs, warnings);
+
+        BitSet used = new BitSet(n);
+        for(int c=0; c<model.getConstraintsCount(); c++){
+            ConstraintProto constraint = model.getConstraints(c);
+            collectRefs(constraint, used);
+            if(constraint.hasLinear()){
+                checkLinear(constraint, c, mins, maxs, warnings);
+            }else if(constraint.hasIntProd()){
+                checkProduct(constraint.getIntProd(), c, mins, maxs, warnings);
+            }
+        }
+        if(model.hasObjective()){
+            CpObjectiveProtoOrBuilder objective = model.getObjectiveOrBuilder();
+            for(int i=0; i<objective.getVarsCount(); i++){
+                used.set(toVar(objective.getVars(i)));
+            }
+            if(overflows(objective.getVarsList(), objective.getCoeffsList(), mins, maxs)){
+                warnings.add(new LintWarning(LintTypeEnum.LINEAR_OVERFLOW, -1, -1, "目标函数可能溢出int64"));
+            }
+        }
+        for(int i=0; i<n; i++){
+            // 常量不计入未使用
+            if(!used.get(i) && mins[i] != maxs[i]){
+                warnings.add(new LintWarning(LintTypeEnum.UNUSED_VAR, i, -1,
+                        "变量未被约束或目标引用: " + varName(model, i)));
+            }
+        }
+        return warnings;
+    }
+
+    /**
+     * 哨兵定义域、重复常量
+     */
+    private void checkDomains(CpModelProtoOrBuilder model, long[] mins, long[] maxs, List<LintWarning> warnings){
+        Map<Long, Integer> constants = new HashMap<>();
+        for(int i=0; i<mins.length; i++){
+            if(mins[i] <= -this.sentinel || maxs[i] >= this.sentinel){
+                warnings.add(new LintWarning(LintTypeEnum.SENTINEL_DOMAIN, i, -1,
+                        "变量定义域过大: " + varName(model, i) + " [" + mins[i] + ", " + maxs[i] + "]"));
+            }
+            if(mins[i] == maxs[i]){
+                Integer first = constants.putIfAbsent(mins[i], i);
+                if(first != null){
+                    warnings.add(new LintWarning(LintTypeEnum.DUPLICATE_VAR, i, -1,
+                            "重复常量: " + varName(model, i) + " = " + varName(model, first) + " = " + mins[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * 线性约束溢出、无条件相等的两个变量
+     */
+    private static void checkLinear(ConstraintProto constraint, int c, long[] mins, long[] maxs, List<LintWarning> warnings){
+        LinearConstraintProto linear = constraint.getLinear();
+        if(overflows(linear.getVarsList(), linear.getCoeffsList(), mins, maxs)){
+            warnings.add(new LintWarning(LintTypeEnum.LINEAR_OVERFLOW, -1, c, "线性约束可能溢出int64, 约束下标: " + c));
+        }
+        // x - y == 0
+        if(constraint.getEnforcementLiteralCount() == 0 && linear.getVarsCount() == 2
+                && linear.getDomainCount() == 2 && linear.getDomain(0) == 0 && linear.getDomain(1) == 0
+                && linear.getCoeffs(0) == -linear.getCoeffs(1) && linear.getVars(0) >= 0 && linear.getVars(1) >= 0){
+            warnings.add(new LintWarning(LintTypeEnum.DUPLICATE_VAR, linear.getVars(1), c,
+                    "变量无条件相等: " + linear.getVars(0) + " == " + linear.getVars(1) + ", 约束下标: " + c));
+        }
+    }
+
+    /**
+     * 乘积约束溢出
+     */
+    private static void checkProduct(IntegerArgumentProto product, int c, long[] mins, long[] maxs, List<LintWarning> warnings){
+        long bound = 1;
+        try{
+            for(int i=0; i<product.getVarsCount(); i++){
+                bound = Math.multiplyExact(bound, absMax(product.getVars(i), mins, maxs));
+            }
+        }catch (ArithmeticException e){
+            warnings.add(new LintWarning(LintTypeEnum.PRODUCT_OVERFLOW, -1, c, "乘积约束可能溢出int64, 约束下标: " + c));
+        }
+    }
+
+    /**
+     * sum(|coeff| * max(|lb|, |ub|))是否溢出
+     */
+    private static boolean overflows(List<Integer> vars, List<Long> coeffs, long[] mins, long[] maxs){
+        long bound = 0;
+        try{
+            for(int i=0; i<vars.size(); i++){
+                bound = Math.addExact(bound, Math.multiplyExact(Math.abs(coeffs.get(i)), absMax(vars.get(i), mins, maxs)));
+            }
+            return false;
+        }catch (ArithmeticException e){
+            return true;
+        }
+    }
+
+    private static long absMax(int ref, long[] mins, long[] maxs){
+        int var = toVar(ref);
+        // Long.MIN_VALUE取绝对值溢出
+        if(mins[var] == Long.MIN_VALUE){
+            throw new ArithmeticException();
+        }
+        return Math.max(Math.abs(mins[var]), Math.abs(maxs[var]));
+    }
+
+    /**
+     * 递归收集约束中引用的变量
+     */
+    private static void collectRefs(Message message, BitSet used){
+        for(Map.Entry<Descriptors.FieldDescriptor, Object> entry : message.getAllFields().entrySet()){
+            Descriptors.FieldDescriptor field = entry.getKey();
+            Object value = entry.getValue();
+            if(field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE){
+                if(field.isRepeated()){
+                    for(Object item : (List<?>) value){
+                        collectRefs((Message) item, used);
+                    }
+                }else{
+                    collectRefs((Message) value, used);
+                }
+            }else if(field.getJavaType() == Descriptors.FieldDescriptor.JavaType.INT && VAR_REF_FIELDS.contains(field.getName())){
+                if(field.isRepeated()){
+                    for(Object item : (List<?>) value){
+                        used.set(toVar((Integer) item));
+                    }
+                }else{
+                    used.set(toVar((Integer) value));
+                }
+            }
+        }
+    }
+
+    /**
+     * 取反引用(-i-1)转为变量下标
+     */
+    private static int toVar(int ref){
+        return ref >= 0 ? ref : -ref - 1;
+    }
+
+    private static String varName(CpModelProtoOrBuilder model, int index){
+        String name = model.getVariablesOrBuilder(index).getName();
+        return name.isEmpty() ? "#" + index : name;
+    }
+}
@@ -0,0 +1,143 @@
+package utils;
+
+import com.google.ortools.sat.IntVar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author kun.hu
+ * CpModelUtil公共子表达式去重
+ * 将一次辅助方法调用规范化为key(操作, 规范顺序的操作数, 系数, 上下界), 相同key返回已创建的结果变量
+ * 结果变量名不参与key, 命中时返回的变量保留首次调用的变量名
+ */
+public class CpModelMemo {
+
+    /**
+     * 操作类型
+     */
+    static final long LINEAR = 1;
+    static final long MAX = 2;
+    static final long MIN = 3;
+    static final long OPTIONAL_MAX = 4;
+    static final long OPTIONAL_MAX_VALUES = 5;
+    static final long OPTIONAL_MIN = 6;
+    static final long OPTIONAL_MIN_VALUES = 7;
+
+    private final Map<Key, IntVar> results = new HashMap<>();
+
+    /**
+     * 命中次数, 即消除的重复变量/约束组数
+     */
+    private long hits;
+
+    private long misses;
+
+    synchronized IntVar get(long[] key){
+        IntVar var = this.results.get(new Key(key));
+        if(var == null){
+            this.misses++;
+        }else{
+            this.hits++;
+        }
+        return var;
+    }
+
+    synchronized void put(long[] key, IntVar var){
+        this.results.put(new Key(key), var);
+    }
+
+    public synchronized long getHits(){
+        return this.hits;
+    }
+
+    public synchronized long getMisses(){
+        return this.misses;
+    }
+
+    public synchronized int size(){
+        return this.results.size();
+    }
+
+    /**
+     * 线性表达式key: 合并同类项后按变量下标排序
+     */
+    static long[] linearKey(long minValue, long maxValue, CpExpr expr){
+        CpExpr normalized = expr.normalize();
+        int n = normalized.size();
+        long[] key = new long[4 + 2 * n];
+        key[0] = LINEAR;
+        key[1] = minValue;
+        key[2] = maxValue;
+        key[3] = normalized.getOffset();
+        for(int i=0; i<n; i++){
+            key[4 + 2 * i] = normalized.getVar(i).getIndex();
+            key[5 + 2 * i] = normalized.getCoeff(i);
+        }
+        return key;
+    }
+
+    /**
+     * 可交换操作key: 操作数按变量下标排序
+     */
+    static long[] unorderedKey(long op, long minValue, long maxValue, IntVar[] vars){
+        long[] key = new long[3 + vars.length];
+        key[0] = op;
+        key[1] = minValue;
+        key[2] = maxValue;
+        for(int i=0; i<vars.length; i++){
+            key[3 + i] = vars[i].getIndex();
+        }
+        Arrays.sort(key, 3, key.length);
+        return key;
+    }
+
+    /**
+     * 成对操作数key: (first[i], second[i])编码为一个long后排序
+     * @param extra 附加操作数(如最大值变量下标)
+     */
+    static long[] pairKey(long op, long minValue, long maxValue, long extra, int[] first, IntVar[] second){
+        long[] key = new long[4 + first.length];
+        key[0] = op;
+        key[1] = minValue;
+        key[2] = maxValue;
+        key[3] = extra;
+        for(int i=0; i<first.length; i++){
+            key[4 + i] = ((long) first[i] << 32) | (second[i].getIndex() & 0xFFFFFFFFL);
+        }
+        Arrays.sort(key, 4, key.length);
+        return key;
+    }
+
+    static int[] indices(IntVar[] vars){
+        int[] indices = new int[vars.length];
+        for(int i=0; i<vars.length; i++){
+            indices[i] = vars[i].getIndex();
+        }
+        return indices;
+    }
+
+    /**
+     * long[]包装, 按内容比较
+     */
+    private static final class Key {
+        private final long[] values;
+        private final int hash;
+
+        private Key(long[] values){
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(this.values, ((Key) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -3,11 +3,20 @@ package utils;
 import com.google.ortools.sat.Constraint;
 import com.google.ortools.sat.CpModel;
 import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.IntervalVar;
 import com.google.ortools.sat.LinearExpr;
+import com.google.ortools.sat.Literal;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 /**
@@ -16,13 +25,188 @@ import java.util.stream.IntStream;
  */
 public class CpModelUtil {
 
+    /**
+     * 常量池: key=模型(弱引用, 模型回收后自动清除), value={key=常量值, value=常量变量}
+     */
+    private static final Map<CpModel, Map<Long, IntVar>> CONSTANT_POOL = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 获得常量变量, 同一模型中相同取值只创建一个变量
+     * @param model  cp_model对象
+     * @param value  常量值
+     * @return  常量变量
+     */
+    public static IntVar constant(CpModel model, long value){
+        Map<Long, IntVar> constants = CONSTANT_POOL.computeIfAbsent(model, k -> new HashMap<>(16));
+        synchronized (constants){
+            return constants.computeIfAbsent(value, model::newConstant);
+        }
+    }
+
+    /**
+     * @param model  cp_model对象
+     * @return  该模型常量池中的常量个数
+     */
+    public static int constantCount(CpModel model){
+        Map<Long, IntVar> constants = CONSTANT_POOL.get(model);
+        if(constants == null){
+            return 0;
+        }
+        synchronized (constants){
+            return constants.size();
+        }
+    }
+
+    /**
+     * 公共子表达式去重: key=模型(弱引用), value=去重表, 仅对开启去重的模型生效
+     */
+    private static final Map<CpModel, CpModelMemo> MEMOS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 开启模型的公共子表达式去重
+     * 开启后linearExprToIntVar/sum/max/min/optionalMax/optionalMin对相同输入(操作数顺序无关, 忽略变量名)返回已创建的结果变量
+     * @param model  cp_model对象
+     * @return  去重表(可查询命中次数)
+     */
+    public static CpModelMemo enableMemo(CpModel model){
+        return MEMOS.computeIfAbsent(model, k -> new CpModelMemo());
+    }
+
+    public static void disableMemo(CpModel model){
+        MEMOS.remove(model);
+    }
+
+    /**
+     * @return  模型的去重表, 未开启返回null
+     */
+    public static CpModelMemo getMemo(CpModel model){
+        return MEMOS.get(model);
+    }
+
+    private static IntVar memoize(CpModel model, Supplier<long[]> keySupplier, Supplier<IntVar> creator){
+        CpModelMemo memo = MEMOS.get(model);
+        if(memo == null){
+            return creator.get();
+        }
+        long[] key = keySupplier.get();
+        IntVar var = memo.get(key);
+        if(var == null){
+            var = creator.get();
+            memo.put(key, var);
+        }
+        return var;
+    }
+
+    /**
+     * 定义域索引: key=模型(弱引用), value=变量最小值/最大值/空洞数
+     */
+    private static final Map<CpModel, DomainIndex> DOMAIN_INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 获得模型的定义域索引, 首次调用时创建
+     * @param model  cp_model对象
+     * @return  定义域索引
+     */
+    public static DomainIndex domainIndex(CpModel model){
+        return DOMAIN_INDEXES.computeIfAbsent(model, DomainIndex::new);
+    }
+
+    /**
+     * 直接读取proto, 不经过定义域索引; 已知模型时用getMinDomain(model, var)
+     */
     public static int getMinDomain(IntVar var){
-        return var.getBuilder().getDomainList().get(0).intValue();
+        return (int) var.getBuilder().getDomain(0);
     }
 
+    /**
+     * 直接读取proto, 不经过定义域索引; 已知模型时用getMaxDomain(model, var)
+     */
     public static int getMaxDomain(IntVar var){
-        List<Long> domainList = var.getBuilder().getDomainList();
-        return domainList.get(domainList.size() - 1).intValue();
+        return (int) var.getBuilder().getDomain(var.getBuilder().getDomainCount() - 1);
+    }
+
+    public static long getMinDomain(CpModel model, IntVar var){
+        return domainIndex(model).min(var);
+    }
+
+    public static long getMaxDomain(CpModel model, IntVar var){
+        return domainIndex(model).max(var);
+    }
+
+    /**
+     * 变量下界(long, 不装箱), 经定义域索引读取
+     */
+    static long lb(CpModel model, IntVar var){
+        return domainIndex(model).min(var);
+    }
+
+    /**
+     * 变量上界(long, 不装箱), 经定义域索引读取
+     */
+    static long ub(CpModel model, IntVar var){
+        return domainIndex(model).max(var);
+    }
+
+    /**
+     * 饱和加法, 溢出时取long边界
+     */
+    static long satAdd(long a, long b){
+        long r = a + b;
+        // 同号相加结果变号即溢出
+        if(((a ^ r) & (b ^ r)) < 0){
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return r;
+    }
+
+    /**
+     * 饱和乘法, 溢出时取long边界
+     */
+    static long satMul(long a, long b){
+        try{
+            return Math.multiplyExact(a, b);
+        }catch (ArithmeticException e){
+            return (a < 0) == (b < 0) ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * 区间运算求线性表达式的取值范围
+     * @param model cp_model对象
+     * @param expr 线性表达式
+     * @return {下界, 上界}
+     */
+    static long[] exprBounds(CpModel model, LinearExpr expr){
+        long lo = 0;
+        long hi = 0;
+        for(int i=0; i<expr.numElements(); i++){
+            IntVar var = expr.getVariable(i);
+            long coef = expr.getCoefficient(i);
+            long a = satMul(lb(model, var), coef);
+            long b = satMul(ub(model, var), coef);
+            lo = satAdd(lo, Math.min(a, b));
+            hi = satAdd(hi, Math.max(a, b));
+        }
+        return new long[]{lo, hi};
+    }
+
+    /**
+     * 创建结果变量, 定义域为推导范围与调用方范围的交集
+     * 交集为空时模型必然无解, 沿用调用方范围以便由等式约束判定无解
+     * @param lo 推导下界
+     * @param hi 推导上界
+     * @param minValue 调用方下界
+     * @param maxValue 调用方上界
+     * @param varName 变量名
+     * @return 结果变量
+     */
+    static IntVar newBoundedIntVar(CpModel model, long lo, long hi, long minValue, long maxValue, String varName){
+        long newLo = Math.max(lo, minValue);
+        long newHi = Math.min(hi, maxValue);
+        if(newLo > newHi){
+            return model.newIntVar(minValue, maxValue, varName);
+        }
+        return model.newIntVar(newLo, newHi, varName);
     }
 
     /** 获得变量求和
@@ -49,9 +233,12 @@ public class CpModelUtil {
      * @return  线性表达式等价变量
      */
     public static IntVar linearExprToIntVar(CpModel model, LinearExpr expr, int minValue, int maxValue, String varName){
-        IntVar exprVar = model.newIntVar(minValue, maxValue, varName);
-        model.addEquality(exprVar, expr);
-        return exprVar;
+        return memoize(model, () -> CpModelMemo.linearKey(minValue, maxValue, CpExpr.from(expr)), () -> {
+            long[] bounds = exprBounds(model, expr);
+            IntVar exprVar = newBoundedIntVar(model, bounds[0], bounds[1], minValue, maxValue, varName);
+            model.addEquality(exprVar, expr);
+            return exprVar;
+        });
     }
 
     public static IntVar linearExprToIntVar(CpModel model, LinearExpr expr, String varName){
@@ -67,9 +254,26 @@ public class CpModelUtil {
      * @return  与线性表达式绝对值相等的变量
      */
     public static IntVar linearExprToAbsIntVar(CpModel model, LinearExpr expr, int minValue, int maxValue, String varName){
-        IntVar exprAbsVar = model.newIntVar(minValue, maxValue, varName);
-        model.addAbsEquality(exprAbsVar, linearExprToIntVar(model, expr, Integer.MIN_VALUE, Integer.MAX_VALUE, ""));
-        return exprAbsVar;
+        return absVar(model, linearExprToIntVar(model, expr, Integer.MIN_VALUE, Integer.MAX_VALUE, ""), minValue, maxValue, varName);
+    }
+
+    /**
+     * @param model  cp_model对象
+     * @param var  变量
+     * @param minValue  结果变量最小值
+     * @param maxValue  结果变量最大值
+     * @param varName  结果变量名
+     * @return  与变量绝对值相等的变量
+     */
+    public static IntVar absVar(CpModel model, IntVar var, long minValue, long maxValue, String varName){
+        // |[lo, hi]|
+        long lo = lb(model, var);
+        long hi = ub(model, var);
+        long absLo = lo >= 0 ? lo : (hi <= 0 ? -hi : 0);
+        long absHi = Math.max(Math.abs(lo), Math.abs(hi));
+        IntVar absVar = newBoundedIntVar(model, absLo, absHi, minValue, maxValue, varName);
+        model.addAbsEquality(absVar, var);
+        return absVar;
     }
 
     public static IntVar linearExprToAbsIntVar(CpModel model, LinearExpr expr){
@@ -84,8 +288,18 @@ public class CpModelUtil {
      * @param varName  结果变量名
      * @return  变量连乘等价变量
      */
-    public static IntVar productVar(CpModel model, IntVar[] toProductVars, int minValue, int maxValue, String varName){
-        IntVar productVar = model.newIntVar(minValue, maxValue, varName);
+    public static IntVar productVar(CpModel model, IntVar[] toProductVars, long minValue, long maxValue, String varName){
+        // 区间连乘: [a,b]*[c,d] = [min(ac,ad,bc,bd), max(ac,ad,bc,bd)]
+        long lo = 1;
+        long hi = 1;
+        for(IntVar var : toProductVars){
+            long c = lb(model, var);
+            long d = ub(model, var);
+            long[] corners = {satMul(lo, c), satMul(lo, d), satMul(hi, c), satMul(hi, d)};
+            lo = Arrays.stream(corners).min().getAsLong();
+            hi = Arrays.stream(corners).max().getAsLong();
+        }
+        IntVar productVar = newBoundedIntVar(model, lo, hi, minValue, maxValue, varName);
         model.addProductEquality(productVar, toProductVars);
         return productVar;
     }
@@ -106,10 +320,17 @@ public class CpModelUtil {
      * @param varName  结果变量名
      * @return  变量相除等价变量
      */
-    public static IntVar divVar(CpModel model, IntVar var1, IntVar var2, int minValue, int maxValue, String varName){
-        IntVar divVar = model.newIntVar(minValue, maxValue, varName);
+    public static IntVar divVar(CpModel model, IntVar var1, IntVar var2, long minValue, long maxValue, String varName){
         // 除数保证=max(1, var2) > 1
-        IntVar var3 = max(model, new IntVar[]{var2, model.newConstant(1)}, 1, Integer.MAX_VALUE, "");
+        IntVar var3 = max(model, new IntVar[]{var2, constant(model, 1)}, 1, Long.MAX_VALUE, "");
+        // 除数>0时商关于被除数/除数均单调(向0取整), 极值在区间端点处取得
+        long a = lb(model, var1);
+        long b = ub(model, var1);
+        long c = lb(model, var3);
+        long d = ub(model, var3);
+        long[] corners = {a / c, a / d, b / c, b / d};
+        IntVar divVar = newBoundedIntVar(model, Arrays.stream(corners).min().getAsLong(),
+                Arrays.stream(corners).max().getAsLong(), minValue, maxValue, varName);
         // 除数不为0, 结果 = var1/var2; 除数为0, 结果 = var1/1
         model.addDivisionEquality(divVar, var1, var3);
         return divVar;
@@ -149,14 +370,20 @@ public class CpModelUtil {
      * @param valueVars 值变量数组
      * @return 最大变量
      */
-    public static IntVar max(CpModel model, IntVar[] valueVars, int minValue, int maxValue, String varName){
+    public static IntVar max(CpModel model, IntVar[] valueVars, long minValue, long maxValue, String varName){
         // 只有一个变量直接返回
         if(valueVars.length == 1){
            return valueVars[0];
         }
-        IntVar maxVar = model.newIntVar(minValue, maxValue, varName);
-        model.addMaxEquality(maxVar, valueVars);
-        return maxVar;
+        // max的范围: [max(各下界), max(各上界)]
+        return memoize(model, () -> CpModelMemo.unorderedKey(CpModelMemo.MAX, minValue, maxValue, valueVars), () -> {
+            DomainIndex domains = domainIndex(model);
+            long lo = Arrays.stream(valueVars).mapToLong(domains::min).max().orElse(minValue);
+            long hi = Arrays.stream(valueVars).mapToLong(domains::max).max().orElse(maxValue);
+            IntVar maxVar = newBoundedIntVar(model, lo, hi, minValue, maxValue, varName);
+            model.addMaxEquality(maxVar, valueVars);
+            return maxVar;
+        });
     }
 
     public static IntVar max(CpModel model, IntVar[] valueVars) {
@@ -169,14 +396,20 @@ public class CpModelUtil {
      * @param valueVars 值变量数组
      * @return 最小变量
      */
-    public static IntVar min(CpModel model, IntVar[] valueVars, int minValue, int maxValue, String varName){
+    public static IntVar min(CpModel model, IntVar[] valueVars, long minValue, long maxValue, String varName){
         // 只有一个变量直接返回
         if(valueVars.length == 1){
             return valueVars[0];
         }
-        IntVar minVar = model.newIntVar(minValue, maxValue, varName);
-        model.addMinEquality(minVar, valueVars);
-        return minVar;
+        // min的范围: [min(各下界), min(各上界)]
+        return memoize(model, () -> CpModelMemo.unorderedKey(CpModelMemo.MIN, minValue, maxValue, valueVars), () -> {
+            DomainIndex domains = domainIndex(model);
+            long lo = Arrays.stream(valueVars).mapToLong(domains::min).min().orElse(minValue);
+            long hi = Arrays.stream(valueVars).mapToLong(domains::max).min().orElse(maxValue);
+            IntVar minVar = newBoundedIntVar(model, lo, hi, minValue, maxValue, varName);
+            model.addMinEquality(minVar, valueVars);
+            return minVar;
+        });
     }
 
     public static IntVar min(CpModel model, IntVar[] valueVars) {
@@ -190,22 +423,45 @@ public class CpModelUtil {
      * @return 实际最大变量
      */
     public static IntVar optionalMax(CpModel model, IntVar[] valueVars, IntVar[] optionalVars, int minValue, int maxValue, String varName){
+        return optionalMax(model, valueVars, optionalVars, minValue, maxValue, varName, OptionalEncoding.BIG_M);
+    }
+
+    /**
+     * 获得可选变量中的最大变量
+     * @param valueVars 值变量数组
+     * @param optionalVars 选择变量(0-1变量)数组
+     * @param encoding 可选性编码方式, 各编码无选中时的结果不同, 见OptionalEncoding
+     * @return 实际最大变量
+     */
+    public static IntVar optionalMax(CpModel model, IntVar[] valueVars, IntVar[] optionalVars, int minValue, int maxValue, String varName,
+                                     OptionalEncoding encoding){
         if(valueVars.length == 0){
-            return model.newConstant(0);
-        }
-        IntVar[] optionalValues = new IntVar[valueVars.length];
-        for(int i=0; i<valueVars.length; i++){
-            // optionalValueVar = valueVar - (1-optionalVar)*maxValue
-            // optional ? valueVar : valueVar - maxValue
-            optionalValues[i] = linearExprToIntVar(model, LinearExpr.scalProd(new IntVar[]{valueVars[i], model.newConstant(maxValue), optionalVars[i]},
-                    new int[]{1, -1, maxValue}), minValue-maxValue, maxValue, "");
+            return constant(model, 0);
         }
-        return max(model, optionalValues, minValue-maxValue, maxValue, varName);
+        return memoize(model, () -> CpModelMemo.pairKey(CpModelMemo.OPTIONAL_MAX, minValue, maxValue, encoding.ordinal(), CpModelMemo.indices(valueVars), optionalVars), () -> {
+            if(encoding != OptionalEncoding.BIG_M){
+                return optionalExtreme(model, valueVars, optionalVars, minValue, maxValue, varName, encoding, true);
+            }
+            IntVar[] optionalValues = new IntVar[valueVars.length];
+            IntVar maxConstant = constant(model, maxValue);
+            for(int i=0; i<valueVars.length; i++){
+                // optionalValueVar = valueVar - (1-optionalVar)*maxValue
+                // optional ? valueVar : valueVar - maxValue
+                optionalValues[i] = linearExprToIntVar(model, LinearExpr.scalProd(new IntVar[]{valueVars[i], maxConstant, optionalVars[i]},
+                        new int[]{1, -1, maxValue}), minValue-maxValue, maxValue, "");
+            }
+            return max(model, optionalValues, minValue-maxValue, maxValue, varName);
+        });
     }
 
     public static IntVar optionalMax(CpModel model, IntVar[] valueVars, IntVar[] optionalVars){
-        int maxValue = (int) Arrays.stream(valueVars).mapToLong(CpModelUtil::getMaxDomain).max().orElse(0);
-        return optionalMax(model, valueVars, optionalVars, 0, maxValue, "");
+        return optionalMax(model, valueVars, optionalVars, OptionalEncoding.BIG_M);
+    }
+
+    public static IntVar optionalMax(CpModel model, IntVar[] valueVars, IntVar[] optionalVars, OptionalEncoding encoding){
+        DomainIndex domains = domainIndex(model);
+        int maxValue = (int) Arrays.stream(valueVars).mapToLong(domains::max).max().orElse(0);
+        return optionalMax(model, valueVars, optionalVars, 0, maxValue, "", encoding);
     }
 
     /**
@@ -216,14 +472,16 @@ public class CpModelUtil {
      */
     public static IntVar optionalMax(CpModel model, int[] values, IntVar[] optionalVars, int minValue, int maxValue, String varName){
         if(values.length == 0){
-            return model.newConstant(0);
-        }
-        IntVar[] optionalValues = new IntVar[values.length];
-        for(int i=0; i<values.length; i++){
-            // 可选值=原值*(0|1)
-            optionalValues[i] = linearExprToIntVar(model, LinearExpr.term(optionalVars[i], values[i]), minValue, maxValue, "");
+            return constant(model, 0);
         }
-        return max(model, optionalValues, minValue, maxValue, varName);
+        return memoize(model, () -> CpModelMemo.pairKey(CpModelMemo.OPTIONAL_MAX_VALUES, minValue, maxValue, -1, values, optionalVars), () -> {
+            IntVar[] optionalValues = new IntVar[values.length];
+            for(int i=0; i<values.length; i++){
+                // 可选值=原值*(0|1)
+                optionalValues[i] = linearExprToIntVar(model, LinearExpr.term(optionalVars[i], values[i]), minValue, maxValue, "");
+            }
+            return max(model, optionalValues, minValue, maxValue, varName);
+        });
     }
 
     public static IntVar optionalMax(CpModel model, int[] values, IntVar[] optionalVars){
@@ -238,24 +496,95 @@ public class CpModelUtil {
      * @return 实际最小变量
      */
     public static IntVar optionalMin(CpModel model, IntVar[] valueVars, IntVar[] optionalVars, int minValue, int maxValue, String varName){
+        return optionalMin(model, valueVars, optionalVars, minValue, maxValue, varName, OptionalEncoding.BIG_M);
+    }
+
+    /**
+     * 获得可选变量中的最小变量
+     * @param valueVars 值变量数组
+     * @param optionalVars 选择变量(0-1变量)数组
+     * @param encoding 可选性编码方式, 各编码无选中时的结果不同, 见OptionalEncoding
+     * @return 实际最小变量
+     */
+    public static IntVar optionalMin(CpModel model, IntVar[] valueVars, IntVar[] optionalVars, int minValue, int maxValue, String varName,
+                                     OptionalEncoding encoding){
         if(valueVars.length == 0){
-            return model.newConstant(0);
-        }
-        IntVar[] optionalValues = new IntVar[valueVars.length];
-        for(int i=0; i<valueVars.length; i++){
-            // optionalValueVar = valueVar + (1-optionalVar)*maxValue
-            // optional ? valueVar : valueVar + maxValue
-            optionalValues[i] = linearExprToIntVar(model, LinearExpr.scalProd(new IntVar[]{valueVars[i], model.newConstant(maxValue), optionalVars[i]},
-                    new int[]{1, 1, -maxValue}), "");
+            return constant(model, 0);
         }
+        return memoize(model, () -> CpModelMemo.pairKey(CpModelMemo.OPTIONAL_MIN, minValue, maxValue, encoding.ordinal(), CpModelMemo.indices(valueVars), optionalVars), () -> {
+            if(encoding != OptionalEncoding.BIG_M){
+                return optionalExtreme(model, valueVars, optionalVars, minValue, maxValue, varName, encoding, false);
+            }
+            IntVar[] optionalValues = new IntVar[valueVars.length];
+            IntVar maxConstant = constant(model, maxValue);
+            for(int i=0; i<valueVars.length; i++){
+                // optionalValueVar = valueVar + (1-optionalVar)*maxValue
+                // optional ? valueVar : valueVar + maxValue
+                optionalValues[i] = linearExprToIntVar(model, LinearExpr.scalProd(new IntVar[]{valueVars[i], maxConstant, optionalVars[i]},
+                        new int[]{1, 1, -maxValue}), "");
+            }
 
-        return min(model, optionalValues, minValue, 2*maxValue, varName);
+            return min(model, optionalValues, minValue, 2*maxValue, varName);
+        });
 
     }
 
     public static IntVar optionalMin(CpModel model, IntVar[] valueVars, IntVar[] optionalVars){
-        int maxValue = (int) Arrays.stream(valueVars).mapToLong(CpModelUtil::getMaxDomain).max().orElse(0);
-        return optionalMin(model, valueVars, optionalVars, 0, maxValue, "");
+        return optionalMin(model, valueVars, optionalVars, OptionalEncoding.BIG_M);
+    }
+
+    public static IntVar optionalMin(CpModel model, IntVar[] valueVars, IntVar[] optionalVars, OptionalEncoding encoding){
+        DomainIndex domains = domainIndex(model);
+        int maxValue = (int) Arrays.stream(valueVars).mapToLong(domains::max).max().orElse(0);
+        return optionalMin(model, valueVars, optionalVars, 0, maxValue, "", encoding);
+    }
+
+    /**
+     * 执行文字/element编码的可选最大(小)值, 无选中时取默认值(max取minValue, min取maxValue)
+     * @param isMax true求最大, false求最小
+     */
+    private static IntVar optionalExtreme(CpModel model, IntVar[] valueVars, IntVar[] optionalVars, int minValue, int maxValue, String varName,
+                                          OptionalEncoding encoding, boolean isMax){
+        int n = valueVars.length;
+        long defaultValue = isMax ? minValue : maxValue;
+        // 结果取某个值变量或默认值
+        DomainIndex domains = domainIndex(model);
+        long lo = Math.min(defaultValue, Arrays.stream(valueVars).mapToLong(domains::min).min().orElse(defaultValue));
+        long hi = Math.max(defaultValue, Arrays.stream(valueVars).mapToLong(domains::max).max().orElse(defaultValue));
+        IntVar result = newBoundedIntVar(model, lo, hi, minValue, maxValue, varName);
+        // max: value - result <= 0; min: result - value <= 0
+        int[] sign = isMax ? new int[]{1, -1} : new int[]{-1, 1};
+        for(int i=0; i<n; i++){
+            // 被选中的值不超过(不低于)结果
+            model.addLessOrEqual(LinearExpr.scalProd(new IntVar[]{valueVars[i], result}, sign), 0).onlyEnforceIf(optionalVars[i]);
+        }
+        if(encoding == OptionalEncoding.ELEMENT){
+            // result = candidates[index], index=n表示无选中
+            IntVar[] candidates = Arrays.copyOf(valueVars, n + 1);
+            candidates[n] = constant(model, defaultValue);
+            IntVar index = model.newIntVar(0, n, "");
+            model.addElement(index, candidates, result);
+            for(int i=0; i<n; i++){
+                // 未选中不能作为结果, 有选中时不取默认值
+                model.addDifferent(index, i).onlyEnforceIf(optionalVars[i].not());
+                model.addDifferent(index, n).onlyEnforceIf(optionalVars[i]);
+            }
+            return result;
+        }
+        // 结果等于某个被选中的值, 或无选中时等于默认值
+        Literal[] chosen = new Literal[n + 1];
+        IntVar none = model.newBoolVar("");
+        for(int i=0; i<n; i++){
+            IntVar selected = model.newBoolVar("");
+            model.addImplication(selected, optionalVars[i]);
+            model.addEquality(result, valueVars[i]).onlyEnforceIf(selected);
+            model.addImplication(optionalVars[i], none.not());
+            chosen[i] = selected;
+        }
+        model.addEquality(result, defaultValue).onlyEnforceIf(none);
+        chosen[n] = none;
+        model.addBoolOr(chosen);
+        return result;
     }
 
     /**
@@ -266,16 +595,22 @@ public class CpModelUtil {
      * @return 实际最小值
      */
     public static IntVar optionalMin(CpModel model, int[] values, IntVar[] optionalVars, IntVar maxVar, int minValue, int maxValue, String varName){
-        IntVar[] optionalValues = new IntVar[values.length];
-        for(int i=0; i<values.length; i++){
-            IntVar optionalValue = model.newIntVar(minValue, maxValue, "");
-            // 实际存在, 可选值=自身
-            model.addEquality(optionalValue, values[i]).onlyEnforceIf(optionalVars[i]);
-            // 实际不存在, 可选值=最大值
-            model.addEquality(optionalValue, maxVar).onlyEnforceIf(optionalVars[i].not());
-            optionalValues[i] = optionalValue;
-        }
-        return min(model, optionalValues, minValue, maxValue, varName);
+        return memoize(model, () -> CpModelMemo.pairKey(CpModelMemo.OPTIONAL_MIN_VALUES, minValue, maxValue, maxVar.getIndex(), values, optionalVars), () -> {
+            IntVar[] optionalValues = new IntVar[values.length];
+            // 可选值取自身或最大值变量
+            DomainIndex domains = domainIndex(model);
+            long lo = Math.min(Arrays.stream(values).min().orElse(minValue), domains.min(maxVar));
+            long hi = Math.max(Arrays.stream(values).max().orElse(maxValue), domains.max(maxVar));
+            for(int i=0; i<values.length; i++){
+                IntVar optionalValue = newBoundedIntVar(model, lo, hi, minValue, maxValue, "");
+                // 实际存在, 可选值=自身
+                model.addEquality(optionalValue, values[i]).onlyEnforceIf(optionalVars[i]);
+                // 实际不存在, 可选值=最大值
+                model.addEquality(optionalValue, maxVar).onlyEnforceIf(optionalVars[i].not());
+                optionalValues[i] = optionalValue;
+            }
+            return min(model, optionalValues, minValue, maxValue, varName);
+        });
     }
 
     public static IntVar optionalMin(CpModel model, int[] values, IntVar[] optionalVars, IntVar maxVar){
@@ -349,6 +684,32 @@ public class CpModelUtil {
      * @param optionalVars 选择变量(0-1变量)数组
      */
     public static void addOptionalNeighborConstraints(CpModel model, int[] positions, IntVar[] optionalVars) {
+        addOptionalNeighborConstraints(model, positions, optionalVars, ContiguityEncoding.MAX_MIN);
+    }
+
+    /**
+     * 增加可选择位置值相邻约束
+     * @param positions 位置值数组(各不相等)
+     * @param optionalVars 选择变量(0-1变量)数组
+     * @param encoding 编码方式: MAX_MIN/START_LITERALS/AUTOMATON
+     */
+    public static void addOptionalNeighborConstraints(CpModel model, int[] positions, IntVar[] optionalVars, ContiguityEncoding encoding) {
+        switch (encoding){
+            case MAX_MIN:
+                addOptionalNeighborMaxMin(model, positions, optionalVars);
+                return;
+            case START_LITERALS:
+                addOptionalNeighborStartLiterals(model, positions, optionalVars);
+                return;
+            case AUTOMATON:
+                addOptionalNeighborAutomaton(model, positions, optionalVars);
+                return;
+            default:
+                throw new IllegalArgumentException("可选位置相邻约束不支持编码: " + encoding);
+        }
+    }
+
+    private static void addOptionalNeighborMaxMin(CpModel model, int[] positions, IntVar[] optionalVars) {
         // 被选中的变量个数
         IntVar selectedNum = CpModelUtil.linearExprToIntVar(model, LinearExpr.sum(optionalVars), 0, positions.length, "");
         // 获得可选位置最大值
@@ -362,11 +723,109 @@ public class CpModelUtil {
         }
     }
 
+    /**
+     * 起点文字编码: 按位置排序, start[k] >= x[k] - x[k-1], sum(start) <= 1; 位置不相邻的相邻两点不能同时选中
+     */
+    private static void addOptionalNeighborStartLiterals(CpModel model, int[] positions, IntVar[] optionalVars) {
+        int[] order = sortedOrder(positions);
+        IntVar[] starts = new IntVar[order.length];
+        for(int k=0; k<order.length; k++){
+            IntVar x = optionalVars[order[k]];
+            IntVar start = model.newBoolVar("");
+            model.addImplication(start, x);
+            if(k == 0){
+                // 第一个位置选中即为起点
+                model.addImplication(x, start);
+            }else{
+                IntVar prev = optionalVars[order[k-1]];
+                // 选中且前一位置未选中 => 起点
+                model.addBoolOr(new Literal[]{x.not(), prev, start});
+                model.addImplication(start, prev.not());
+                if(positions[order[k]] - positions[order[k-1]] > 1){
+                    // 位置不相邻, 不能同时选中
+                    model.addBoolOr(new Literal[]{x.not(), prev.not()});
+                }
+            }
+            starts[k] = start;
+        }
+        model.addLessOrEqual(LinearExpr.sum(starts), 1);
+    }
+
+    /**
+     * 自动机编码: 状态0=未开始, 1=连续段中, 2=已结束; 选择序列需满足 0*1*0*, 位置间断处补常量0
+     */
+    private static void addOptionalNeighborAutomaton(CpModel model, int[] positions, IntVar[] optionalVars) {
+        int[] order = sortedOrder(positions);
+        IntVar zero = constant(model, 0);
+        List<IntVar> sequence = new ArrayList<>(2 * order.length);
+        for(int k=0; k<order.length; k++){
+            if(k > 0 && positions[order[k]] - positions[order[k-1]] > 1){
+                sequence.add(zero);
+            }
+            sequence.add(optionalVars[order[k]]);
+        }
+        long[][] transitions = {{0, 0, 0}, {0, 1, 1}, {1, 1, 1}, {1, 0, 2}, {2, 0, 2}};
+        model.addAutomaton(sequence.toArray(new IntVar[0]), 0, new long[]{0, 1, 2}, transitions);
+    }
+
+    /**
+     * @return 位置从小到大排序后的原下标
+     */
+    private static int[] sortedOrder(int[] positions){
+        return IntStream.range(0, positions.length).boxed()
+                .sorted(Comparator.comparingInt(i -> positions[i]))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
     /**
      * 增加位置变量相邻约束
      * @param positionVars 位置变量数组(各不相等)
      */
     public static void addNeighborConstraints(CpModel model, IntVar[] positionVars) {
+        addNeighborConstraints(model, positionVars, ContiguityEncoding.MAX_MIN);
+    }
+
+    /**
+     * 增加位置变量相邻约束
+     * @param positionVars 位置变量数组(各不相等)
+     * @param encoding 编码方式: MAX_MIN/NO_OVERLAP
+     */
+    public static void addNeighborConstraints(CpModel model, IntVar[] positionVars, ContiguityEncoding encoding) {
+        switch (encoding){
+            case MAX_MIN:
+                addNeighborMaxMin(model, positionVars);
+                return;
+            case NO_OVERLAP:
+                addNeighborNoOverlap(model, positionVars);
+                return;
+            default:
+                throw new IllegalArgumentException("位置变量相邻约束不支持编码: " + encoding);
+        }
+    }
+
+    /**
+     * 区间不重叠编码: 位置变量为长度1的区间且互不重叠, 全部落在[start, start+n-1]内
+     */
+    private static void addNeighborNoOverlap(CpModel model, IntVar[] positionVars) {
+        int n = positionVars.length;
+        DomainIndex domains = domainIndex(model);
+        long lo = Arrays.stream(positionVars).mapToLong(domains::min).min().orElse(0);
+        long hi = Arrays.stream(positionVars).mapToLong(domains::max).max().orElse(0);
+        IntVar start = model.newIntVar(lo, Math.max(lo, hi - n + 1), "");
+        IntVar one = constant(model, 1);
+        IntervalVar[] intervals = new IntervalVar[n];
+        int[] minus = new int[]{1, -1};
+        for(int i=0; i<n; i++){
+            IntVar end = model.newIntVar(domains.min(positionVars[i]) + 1, domains.max(positionVars[i]) + 1, "");
+            intervals[i] = model.newIntervalVar(positionVars[i], one, end, "");
+            // start <= pos <= start + n - 1
+            model.addGreaterOrEqual(LinearExpr.scalProd(new IntVar[]{positionVars[i], start}, minus), 0);
+            model.addLessOrEqual(LinearExpr.scalProd(new IntVar[]{positionVars[i], start}, minus), n - 1);
+        }
+        model.addNoOverlap(intervals);
+    }
+
+    private static void addNeighborMaxMin(CpModel model, IntVar[] positionVars) {
         int gap = positionVars.length;
         // 获得最大位置变量
         IntVar maxPos = max(model, positionVars);
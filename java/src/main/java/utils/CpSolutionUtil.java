@@ -0,0 +1,105 @@
+package utils;
+
+import com.google.ortools.sat.CpSolverResponse;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.Literal;
+
+/**
+ * @author kun.hu
+ * Cp_Model解读取工具类
+ * 从CpSolverResponse一次性取出全部解(按变量下标), 之后按下标批量读取, 避免逐变量调用solver.value
+ */
+public class CpSolutionUtil {
+
+    /**
+     * 取出全部解
+     * @param response 求解结果
+     * @return 解数组, 下标=变量下标; 无解时为空数组
+     */
+    public static long[] toArray(CpSolverResponse response){
+        int n = response.getSolutionCount();
+        long[] solution = new long[n];
+        for(int i=0; i<n; i++){
+            solution[i] = response.getSolution(i);
+        }
+        return solution;
+    }
+
+    public static long value(long[] solution, IntVar var){
+        return solution[var.getIndex()];
+    }
+
+    /**
+     * @param solution 解数组
+     * @param literal 布尔变量或其取反
+     * @return 文字取值
+     */
+    public static boolean booleanValue(long[] solution, Literal literal){
+        int index = literal.getIndex();
+        // 取反文字的下标为 -变量下标-1
+        return index >= 0 ? solution[index] != 0 : solution[-index - 1] == 0;
+    }
+
+    public static long[] values(long[] solution, IntVar[] vars){
+        long[] values = new long[vars.length];
+        for(int i=0; i<vars.length; i++){
+            values[i] = solution[vars[i].getIndex()];
+        }
+        return values;
+    }
+
+    public static long[][] values(long[] solution, IntVar[][] vars){
+        long[][] values = new long[vars.length][];
+        for(int i=0; i<vars.length; i++){
+            values[i] = values(solution, vars[i]);
+        }
+        return values;
+    }
+
+    public static int[] intValues(long[] solution, IntVar[] vars){
+        int[] values = new int[vars.length];
+        for(int i=0; i<vars.length; i++){
+            values[i] = Math.toIntExact(solution[vars[i].getIndex()]);
+        }
+        return values;
+    }
+
+    public static boolean[] booleanValues(long[] solution, IntVar[] vars){
+        boolean[] values = new boolean[vars.length];
+        for(int i=0; i<vars.length; i++){
+            values[i] = solution[vars[i].getIndex()] != 0;
+        }
+        return values;
+    }
+
+    public static boolean[][] booleanValues(long[] solution, IntVar[][] vars){
+        boolean[][] values = new boolean[vars.length][];
+        for(int i=0; i<vars.length; i++){
+            values[i] = booleanValues(solution, vars[i]);
+        }
+        return values;
+    }
+
+    /**
+     * 计算线性表达式的值
+     * @param solution 解数组
+     * @param vars 变量数组
+     * @param coeffs 系数数组
+     * @return sum(coeffs[i] * vars[i])
+     */
+    public static long scalProd(long[] solution, IntVar[] vars, long[] coeffs){
+        long sum = 0;
+        for(int i=0; i<vars.length; i++){
+            sum += solution[vars[i].getIndex()] * coeffs[i];
+        }
+        return sum;
+    }
+
+    public static long sum(long[] solution, IntVar[] vars){
+        long sum = 0;
+        for(IntVar var : vars){
+            sum += solution[var.getIndex()];
+        }
+        return sum;
+    }
+}
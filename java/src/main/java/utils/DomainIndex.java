@@ -0,0 +1,164 @@
+package utils;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.IntegerVariableProtoOrBuilder;
+
+import java.util.Arrays;
+
+/**
+ * @author kun.hu
+ * 模型变量定义域索引
+ * 按变量下标在原生数组中记录最小值/最大值/空洞数, 查询O(1)且不分配对象
+ * 新增变量在查询时增量同步; 通过tighten收紧定义域时同步更新proto与索引, 直接修改proto后需调用refresh
+ * CpModelUtil/CpExpr推导结果变量范围时均经此索引读取变量界
+ */
+public class DomainIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final CpModelProto.Builder builder;
+
+    private long[] mins = new long[INITIAL_CAPACITY];
+
+    private long[] maxs = new long[INITIAL_CAPACITY];
+
+    /**
+     * 空洞数 = 区间段数 - 1
+     */
+    private int[] holes = new int[INITIAL_CAPACITY];
+
+    /**
+     * 已同步的变量个数
+     */
+    private int size;
+
+    DomainIndex(CpModel model){
+        this.builder = model.getBuilder();
+    }
+
+    public long min(IntVar var){
+        return min(var.getIndex());
+    }
+
+    public long max(IntVar var){
+        return max(var.getIndex());
+    }
+
+    public int holes(IntVar var){
+        return holes(var.getIndex());
+    }
+
+    public synchronized long min(int index){
+        sync(index);
+        return this.mins[index];
+    }
+
+    public synchronized long max(int index){
+        sync(index);
+        return this.maxs[index];
+    }
+
+    public synchronized int holes(int index){
+        sync(index);
+        return this.holes[index];
+    }
+
+    /**
+     * 收紧变量定义域为[原定义域 ∩ [lo, hi]], 同步写入proto
+     * @return 收紧后定义域是否非空; 为空时不修改
+     */
+    public boolean tighten(IntVar var, long lo, long hi){
+        return tighten(var.getIndex(), lo, hi);
+    }
+
+    /**
+     * 按变量下标收紧定义域(如模型由proto合并而来, 没有IntVar)
+     * @return 收紧后定义域是否非空; 为空时不修改
+     */
+    public synchronized boolean tighten(int index, long lo, long hi){
+        sync(index);
+        if(lo <= this.mins[index] && hi >= this.maxs[index]){
+            return true;
+        }
+        long[] domain = toArray(this.builder.getVariablesOrBuilder(index));
+        long[] tightened = new long[domain.length];
+        int n = 0;
+        for(int i=0; i<domain.length; i+=2){
+            long a = Math.max(domain[i], lo);
+            long b = Math.min(domain[i+1], hi);
+            if(a <= b){
+                tightened[n++] = a;
+                tightened[n++] = b;
+            }
+        }
+        if(n == 0){
+            return false;
+        }
+        this.builder.getVariablesBuilder(index).clearDomain();
+        for(int i=0; i<n; i++){
+            this.builder.getVariablesBuilder(index).addDomain(tightened[i]);
+        }
+        read(index);
+        return true;
+    }
+
+    /**
+     * 直接修改proto中变量定义域后重新读取
+     */
+    public synchronized void refresh(IntVar var){
+        int index = var.getIndex();
+        if(index < this.size){
+            read(index);
+        }
+    }
+
+    /**
+     * 重新读取全部已同步变量
+     */
+    public synchronized void refreshAll(){
+        for(int i=0; i<this.size; i++){
+            read(i);
+        }
+    }
+
+    /**
+     * 同步到包含index的全部新增变量
+     */
+    private void sync(int index){
+        if(index < this.size){
+            return;
+        }
+        int count = this.builder.getVariablesCount();
+        if(index >= count){
+            throw new IndexOutOfBoundsException("变量下标超出模型变量个数, index:" + index + ", count:" + count);
+        }
+        if(count > this.mins.length){
+            int capacity = Math.max(count, this.mins.length * 2);
+            this.mins = Arrays.copyOf(this.mins, capacity);
+            this.maxs = Arrays.copyOf(this.maxs, capacity);
+            this.holes = Arrays.copyOf(this.holes, capacity);
+        }
+        for(int i=this.size; i<count; i++){
+            read(i);
+        }
+        this.size = count;
+    }
+
+    private void read(int index){
+        IntegerVariableProtoOrBuilder var = this.builder.getVariablesOrBuilder(index);
+        int count = var.getDomainCount();
+        this.mins[index] = var.getDomain(0);
+        this.maxs[index] = var.getDomain(count - 1);
+        this.holes[index] = count / 2 - 1;
+    }
+
+    private static long[] toArray(IntegerVariableProtoOrBuilder var){
+        long[] domain = new long[var.getDomainCount()];
+        for(int i=0; i<domain.length; i++){
+            domain[i] = var.getDomain(i);
+        }
+        return domain;
+    }
+}
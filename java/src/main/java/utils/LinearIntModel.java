@@ -0,0 +1,188 @@
+package utils;
+
+import com.google.ortools.linearsolver.MPConstraintProto;
+import com.google.ortools.linearsolver.MPModelProto;
+import com.google.ortools.linearsolver.MPVariableProto;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.CpObjectiveProto;
+import com.google.ortools.sat.LinearConstraintProto;
+
+import java.util.Arrays;
+
+/**
+ * @author kun.hu
+ * 与求解后端无关的整数线性模型
+ * 变量界、约束(CSR稀疏格式)、目标系数存于原生数组, 可分别转为CpModel和MPModelProto, 变量下标在各后端中一致
+ */
+public class LinearIntModel {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int varCount;
+    private long[] varLb = new long[INITIAL_CAPACITY];
+    private long[] varUb = new long[INITIAL_CAPACITY];
+    private String[] varNames = new String[INITIAL_CAPACITY];
+
+    private int rowCount;
+    private int[] rowStart = new int[INITIAL_CAPACITY + 1];
+    private long[] rowLb = new long[INITIAL_CAPACITY];
+    private long[] rowUb = new long[INITIAL_CAPACITY];
+    private int nnz;
+    private int[] cols = new int[INITIAL_CAPACITY];
+    private long[] coefs = new long[INITIAL_CAPACITY];
+
+    /**
+     * 目标系数, 下标=变量下标
+     */
+    private long[] objCoefs = new long[INITIAL_CAPACITY];
+
+    private boolean maximize;
+
+    /**
+     * 创建整数变量, 上下界必须有限: CP-SAT不接受Long.MIN_VALUE/Long.MAX_VALUE作为变量定义域
+     * @return 变量下标
+     * @throws IllegalArgumentException 上下界无穷或lb > ub
+     */
+    public int newVar(long lb, long ub, String name){
+        if(lb == Long.MIN_VALUE || ub == Long.MAX_VALUE || lb > ub){
+            throw new IllegalArgumentException("variable bounds must be finite and lb <= ub: [" + lb + ", " + ub + "], name: " + name);
+        }
+        if(this.varCount == this.varLb.length){
+            int capacity = this.varLb.length * 2;
+            this.varLb = Arrays.copyOf(this.varLb, capacity);
+            this.varUb = Arrays.copyOf(this.varUb, capacity);
+            this.varNames = Arrays.copyOf(this.varNames, capacity);
+            this.objCoefs = Arrays.copyOf(this.objCoefs, capacity);
+        }
+        this.varLb[this.varCount] = lb;
+        this.varUb[this.varCount] = ub;
+        this.varNames[this.varCount] = name;
+        return this.varCount++;
+    }
+
+    /**
+     * 批量创建0-1变量
+     * @return 变量下标
+     */
+    public int[] newBoolVars(int n){
+        int[] indices = new int[n];
+        for(int i=0; i<n; i++){
+            indices[i] = newVar(0, 1, "");
+        }
+        return indices;
+    }
+
+    /**
+     * 增加约束: lb <= sum(rowCoefs[k] * x[varIndices[k]]) <= ub
+     */
+    public void addRow(int[] varIndices, long[] rowCoefs, long lb, long ub){
+        int n = varIndices.length;
+        if(this.nnz + n > this.cols.length){
+            int capacity = Math.max(this.nnz + n, this.cols.length * 2);
+            this.cols = Arrays.copyOf(this.cols, capacity);
+            this.coefs = Arrays.copyOf(this.coefs, capacity);
+        }
+        System.arraycopy(varIndices, 0, this.cols, this.nnz, n);
+        System.arraycopy(rowCoefs, 0, this.coefs, this.nnz, n);
+        this.nnz += n;
+        if(this.rowCount + 1 >= this.rowStart.length){
+            this.rowStart = Arrays.copyOf(this.rowStart, this.rowStart.length * 2);
+            this.rowLb = Arrays.copyOf(this.rowLb, this.rowStart.length);
+            this.rowUb = Arrays.copyOf(this.rowUb, this.rowStart.length);
+        }
+        this.rowLb[this.rowCount] = lb;
+        this.rowUb[this.rowCount] = ub;
+        this.rowStart[++this.rowCount] = this.nnz;
+    }
+
+    public void addLessOrEqual(int[] varIndices, long[] rowCoefs, long maxValue){
+        addRow(varIndices, rowCoefs, Long.MIN_VALUE, maxValue);
+    }
+
+    public void addGreaterOrEqual(int[] varIndices, long[] rowCoefs, long minValue){
+        addRow(varIndices, rowCoefs, minValue, Long.MAX_VALUE);
+    }
+
+    /**
+     * 设置目标(覆盖同一变量的已有系数)
+     * @param maximize true最大化, false最小化
+     */
+    public void setObjective(int[] varIndices, long[] objCoefArr, boolean maximize){
+        for(int i=0; i<varIndices.length; i++){
+            this.objCoefs[varIndices[i]] = objCoefArr[i];
+        }
+        this.maximize = maximize;
+    }
+
+    public int getVarCount(){
+        return this.varCount;
+    }
+
+    public int getRowCount(){
+        return this.rowCount;
+    }
+
+    public boolean isMaximize(){
+        return this.maximize;
+    }
+
+    /**
+     * 转为CpModel(直接写proto)
+     */
+    public CpModel toCpModel(){
+        CpModel model = new CpModel();
+        CpModelProto.Builder builder = model.getBuilder();
+        for(int i=0; i<this.varCount; i++){
+            builder.addVariablesBuilder().setName(this.varNames[i]).addDomain(this.varLb[i]).addDomain(this.varUb[i]);
+        }
+        for(int r=0; r<this.rowCount; r++){
+            LinearConstraintProto.Builder linear = builder.addConstraintsBuilder().getLinearBuilder()
+                    .addDomain(this.rowLb[r]).addDomain(this.rowUb[r]);
+            for(int k=this.rowStart[r]; k<this.rowStart[r+1]; k++){
+                linear.addVars(this.cols[k]).addCoeffs(this.coefs[k]);
+            }
+        }
+        CpObjectiveProto.Builder objective = builder.getObjectiveBuilder();
+        for(int i=0; i<this.varCount; i++){
+            if(this.objCoefs[i] != 0){
+                // 最大化按取反后的最小化求解
+                objective.addVars(i).addCoeffs(this.maximize ? -this.objCoefs[i] : this.objCoefs[i]);
+            }
+        }
+        if(this.maximize){
+            objective.setScalingFactor(-1);
+        }
+        return model;
+    }
+
+    /**
+     * 转为MPModelProto, 约束的无穷界转为±INFINITY
+     */
+    public MPModelProto toMPModelProto(){
+        MPModelProto.Builder model = MPModelProto.newBuilder().setMaximize(this.maximize);
+        for(int i=0; i<this.varCount; i++){
+            model.addVariable(MPVariableProto.newBuilder().setName(this.varNames[i]).setIsInteger(true)
+                    .setLowerBound(toDouble(this.varLb[i])).setUpperBound(toDouble(this.varUb[i]))
+                    .setObjectiveCoefficient(this.objCoefs[i]));
+        }
+        for(int r=0; r<this.rowCount; r++){
+            MPConstraintProto.Builder constraint = model.addConstraintBuilder()
+                    .setLowerBound(toDouble(this.rowLb[r])).setUpperBound(toDouble(this.rowUb[r]));
+            for(int k=this.rowStart[r]; k<this.rowStart[r+1]; k++){
+                constraint.addVarIndex(this.cols[k]).addCoefficient(this.coefs[k]);
+            }
+        }
+        return model.build();
+    }
+
+    private static double toDouble(long bound){
+        if(bound == Long.MIN_VALUE){
+            return -LinearSolverUtil.INFINITY;
+        }
+        if(bound == Long.MAX_VALUE){
+            return LinearSolverUtil.INFINITY;
+        }
+        return bound;
+    }
+}
@@ -3,13 +3,28 @@ package utils;
 import com.google.ortools.linearsolver.MPConstraint;
 import com.google.ortools.linearsolver.MPSolver;
 import com.google.ortools.linearsolver.MPVariable;
+import com.google.ortools.linearsolver.MPModelProto;
+import com.google.ortools.linearsolver.MPObjective;
+import com.google.ortools.linearsolver.MPSolverParameters;
+import com.google.ortools.linearsolver.PartialVariableAssignment;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import model.AlgorithmResultEnum;
+import model.Scenario;
+import model.ScenarioResult;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
 
@@ -19,8 +34,24 @@ public class LinearSolverUtil {
     public static final double INFINITY = Double.POSITIVE_INFINITY;
     public static final int M_VALUE = 10000;
 
+    /**
+     * 场景并行求解线程池(守护线程)
+     */
+    private static final ExecutorService SCENARIO_EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "scenario-solver");
+        t.setDaemon(true);
+        return t;
+    });
+
     private MPSolver solver;
 
+    /**
+     * 批量建模缓冲, 首次批量调用时创建(求解器须为空), loadBulk后清空
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private MPModelBuffer bulk;
+
     public LinearSolverUtil(MPSolver solver){
         this.solver = solver;
     }
@@ -74,32 +105,479 @@ public class LinearSolverUtil {
     }
 
     /**
-     * min(x_1, x_2, ... x_n)的线性表达
-     * x_i为
-     * @param varArr
-     * @param mValue
-     * @return
+     * min(x_1, x_2, ... x_n)的线性表达(固定大M)
+     * @param varArr 变量数组
+     * @param mValue 大M, 需不小于各变量取值范围
+     * @return 最小值变量
      */
     public MPVariable min(MPVariable[] varArr, int mValue, String varName){
-        // 定义minV变量
+        double[] ms = new double[varArr.length];
+        Arrays.fill(ms, mValue);
+        return min(varArr, ms, varName);
+    }
+
+    /**
+     * min(x_1, x_2, ... x_n)的线性表达, 每行大M由变量上下界推导: M_i = ub(x_i) - min(lb)
+     * 上下界无穷时抛出IllegalArgumentException, 需先给变量加界或使用固定大M的重载
+     * @param varArr 变量数组
+     * @return 最小值变量
+     * @throws IllegalArgumentException 变量界无穷
+     */
+    public MPVariable min(MPVariable[] varArr,  String varName){
+        double minLb = Arrays.stream(varArr).mapToDouble(MPVariable::lb).min().orElse(0.0);
+        double[] ms = Arrays.stream(varArr).mapToDouble(x -> bigM(x.ub() - minLb)).toArray();
+        return min(varArr, ms, varName);
+    }
+
+    private MPVariable min(MPVariable[] varArr, double[] ms, String varName){
+        // minV的范围: [min(各下界), min(各上界)]
         double lb = Arrays.stream(varArr).mapToDouble(MPVariable::lb).min().orElse(0.0);
-        double ub = Arrays.stream(varArr).mapToDouble(MPVariable::lb).max().orElse(0.0);
-        MPVariable minV = solver.makeIntVar(lb, ub, varName);
-        // 定义y_i变量
+        double ub = Arrays.stream(varArr).mapToDouble(MPVariable::ub).min().orElse(0.0);
+        MPVariable minV = this.solver.makeVar(lb, ub, allInteger(varArr), varName);
+        // 定义y_i变量, y_i=0表示x_i取到最小值
         MPVariable[] ys = this.solver.makeBoolVarArray(varArr.length);
 
         // minV <= x_i => minV-x_i <= 0
         IntStream.range(0, varArr.length).forEach(i -> addLessOrEqual(new MPVariable[]{minV, varArr[i]}, new double[]{1.0, -1.0}, 0, varName));
-        // minV >= x_i-yi*M => minV-x_i+yi*M >= 0
-        IntStream.range(0, varArr.length).forEach(i -> addGreaterOrEqual(new MPVariable[]{minV, varArr[i], ys[i]}, new double[]{1.0, -1.0, mValue}, 0, varName));
+        // minV >= x_i-yi*M_i => minV-x_i+yi*M_i >= 0
+        IntStream.range(0, varArr.length).forEach(i -> addGreaterOrEqual(new MPVariable[]{minV, varArr[i], ys[i]}, new double[]{1.0, -1.0, ms[i]}, 0, varName));
         // sum{y_i}=|ys|-1
         addEqual(ys, IntStream.range(0, ys.length).mapToDouble(i -> 1.0).toArray(), ys.length-1, "");
         return minV;
+    }
+
+    /**
+     * max(x_1, x_2, ... x_n)的线性表达, 每行大M由变量上下界推导: M_i = max(ub) - lb(x_i)
+     * @param varArr 变量数组
+     * @return 最大值变量
+     * @throws IllegalArgumentException 变量界无穷
+     */
+    public MPVariable max(MPVariable[] varArr, String varName){
+        // maxV的范围: [max(各下界), max(各上界)]
+        double lb = Arrays.stream(varArr).mapToDouble(MPVariable::lb).max().orElse(0.0);
+        double ub = Arrays.stream(varArr).mapToDouble(MPVariable::ub).max().orElse(0.0);
+        MPVariable maxV = this.solver.makeVar(lb, ub, allInteger(varArr), varName);
+        // 定义y_i变量, y_i=0表示x_i取到最大值
+        MPVariable[] ys = this.solver.makeBoolVarArray(varArr.length);
 
+        for(int i=0; i<varArr.length; i++){
+            // maxV >= x_i
+            addGreaterOrEqual(new MPVariable[]{maxV, varArr[i]}, new double[]{1.0, -1.0}, 0, varName);
+            // maxV <= x_i+yi*M_i
+            addLessOrEqual(new MPVariable[]{maxV, varArr[i], ys[i]}, new double[]{1.0, -1.0, -bigM(ub - varArr[i].lb())}, 0, varName);
+        }
+        // sum{y_i}=|ys|-1
+        addEqual(ys, IntStream.range(0, ys.length).mapToDouble(i -> 1.0).toArray(), ys.length-1, "");
+        return maxV;
     }
 
-    public MPVariable min(MPVariable[] varArr,  String varName){
-        return min(varArr, M_VALUE, varName);
+    /**
+     * @return 变量是否全为整数变量; 结果变量据此取整数或连续, 避免对连续输入引入多余的整数约束
+     */
+    private static boolean allInteger(MPVariable[] varArr){
+        return Arrays.stream(varArr).allMatch(MPVariable::integer);
+    }
+
+    /**
+     * |x|的线性表达, 大M由x的上下界推导; x非负时直接返回x
+     * @param var 变量x
+     * @return 绝对值变量
+     * @throws IllegalArgumentException x可取负值且界无穷
+     */
+    public MPVariable abs(MPVariable var, String varName){
+        double lb = var.lb();
+        double ub = var.ub();
+        if(lb >= 0){
+            return var;
+        }
+        MPVariable absV = this.solver.makeVar(Math.max(0, ub <= 0 ? -ub : 0), Math.max(-lb, ub), var.integer(), varName);
+        if(ub <= 0){
+            // absV = -x
+            addEqual(new MPVariable[]{absV, var}, new double[]{1.0, 1.0}, 0, varName);
+            return absV;
+        }
+        // b=1 <=> x>=0
+        MPVariable b = this.solver.makeBoolVar("");
+        // absV >= x, absV >= -x
+        addGreaterOrEqual(new MPVariable[]{absV, var}, new double[]{1.0, -1.0}, 0, varName);
+        addGreaterOrEqual(new MPVariable[]{absV, var}, new double[]{1.0, 1.0}, 0, varName);
+        // absV <= x + M0*(1-b), M0 = -2*lb
+        double m0 = bigM(-2 * lb);
+        addLessOrEqual(new MPVariable[]{absV, var, b}, new double[]{1.0, -1.0, m0}, m0, varName);
+        // absV <= -x + M1*b, M1 = 2*ub
+        double m1 = bigM(2 * ub);
+        addLessOrEqual(new MPVariable[]{absV, var, b}, new double[]{1.0, 1.0, -m1}, 0, varName);
+        // b=1 => x >= 0: x >= lb*(1-b); b=0 => x <= 0: x <= ub*b
+        addGreaterOrEqual(new MPVariable[]{var, b}, new double[]{1.0, -bigM(-lb)}, -bigM(-lb), varName);
+        addLessOrEqual(new MPVariable[]{var, b}, new double[]{1.0, -bigM(ub)}, 0, varName);
+        return absV;
+    }
+
+    /**
+     * 指示约束: indicator=activeValue => minValue <= expr <= maxValue, 大M由表达式的取值范围推导
+     * 表达式范围已满足的一侧不加约束
+     * @param indicator 0-1变量
+     * @param activeValue 生效取值
+     * @param minValue 下界, 无下界传-INFINITY
+     * @param maxValue 上界, 无上界传INFINITY
+     * @throws IllegalArgumentException 需要约束的一侧表达式范围无穷
+     */
+    public void addIndicator(MPVariable indicator, boolean activeValue, MPVariable[] varArr, double[] coefArr,
+                             double minValue, double maxValue, String constraintName){
+        double[] bounds = exprBounds(varArr, coefArr);
+        MPVariable[] vars = Arrays.copyOf(varArr, varArr.length + 1);
+        vars[varArr.length] = indicator;
+        double[] coefs = Arrays.copyOf(coefArr, coefArr.length + 1);
+        if(maxValue < bounds[1]){
+            // expr <= maxValue + M*(不生效), M = exprMax - maxValue
+            double m = bigM(bounds[1] - maxValue);
+            coefs[coefArr.length] = activeValue ? m : -m;
+            addLessOrEqual(vars, coefs, activeValue ? maxValue + m : maxValue, constraintName);
+        }
+        if(minValue > bounds[0]){
+            // expr >= minValue - M*(不生效), M = minValue - exprMin
+            double m = bigM(minValue - bounds[0]);
+            coefs[coefArr.length] = activeValue ? -m : m;
+            addGreaterOrEqual(vars, coefs, activeValue ? minValue - m : minValue, constraintName);
+        }
+    }
+
+    /**
+     * 分段线性函数 y = f(x), f由断点(xs[k], ys[k])线性插值, x需在[xs[0], xs[n-1]]内
+     * SOS2式建模: lambda_k为断点权重, z_k为所在分段(0-1变量), 只有相邻两个lambda可以非零
+     * @param xs 断点横坐标(递增)
+     * @param ys 断点纵坐标
+     * @return y变量(连续)
+     */
+    public MPVariable piecewiseLinear(MPVariable var, double[] xs, double[] ys, String varName){
+        int n = xs.length;
+        double yMin = Arrays.stream(ys).min().orElse(0.0);
+        double yMax = Arrays.stream(ys).max().orElse(0.0);
+        MPVariable y = this.solver.makeNumVar(yMin, yMax, varName);
+        MPVariable[] lambdas = this.solver.makeNumVarArray(n, 0, 1);
+        double[] ones = new double[n];
+        Arrays.fill(ones, 1.0);
+        // sum(lambda) = 1
+        addEqual(lambdas, ones, 1, varName);
+        // x = sum(lambda_k * xs_k), y = sum(lambda_k * ys_k)
+        MPVariable[] vars = Arrays.copyOf(lambdas, n + 1);
+        double[] coefs = new double[n + 1];
+        vars[n] = var;
+        System.arraycopy(xs, 0, coefs, 0, n);
+        coefs[n] = -1;
+        addEqual(vars, coefs, 0, varName);
+        vars[n] = y;
+        System.arraycopy(ys, 0, coefs, 0, n);
+        addEqual(vars, coefs, 0, varName);
+        if(n <= 2){
+            return y;
+        }
+        // 分段选择: sum(z) = 1, lambda_k <= z_{k-1} + z_k
+        MPVariable[] zs = this.solver.makeBoolVarArray(n - 1);
+        addEqual(zs, Arrays.copyOf(ones, n - 1), 1, varName);
+        for(int k=0; k<n; k++){
+            if(k == 0){
+                addLessOrEqual(new MPVariable[]{lambdas[k], zs[0]}, new double[]{1.0, -1.0}, 0, varName);
+            }else if(k == n - 1){
+                addLessOrEqual(new MPVariable[]{lambdas[k], zs[k-1]}, new double[]{1.0, -1.0}, 0, varName);
+            }else{
+                addLessOrEqual(new MPVariable[]{lambdas[k], zs[k-1], zs[k]}, new double[]{1.0, -1.0, -1.0}, 0, varName);
+            }
+        }
+        return y;
+    }
+
+    /**
+     * 区间运算求表达式取值范围
+     * @return {下界, 上界}
+     */
+    static double[] exprBounds(MPVariable[] varArr, double[] coefArr){
+        double lo = 0;
+        double hi = 0;
+        for(int i=0; i<varArr.length; i++){
+            double a = coefArr[i] * varArr[i].lb();
+            double b = coefArr[i] * varArr[i].ub();
+            lo += Math.min(a, b);
+            hi += Math.max(a, b);
+        }
+        return new double[]{lo, hi};
+    }
+
+    /**
+     * 由上下界推导的大M
+     * @throws IllegalArgumentException 变量界无穷导致大M无穷(或非数); 固定大M会截掉合法解, 不做退化
+     */
+    static double bigM(double m){
+        if(!Double.isFinite(m)){
+            throw new IllegalArgumentException("big-M derived from infinite bounds: " + m
+                    + ", bound the variables or use an explicit big-M overload");
+        }
+        return Math.max(m, 0);
+    }
+
+    /**
+     * 批量创建变量(写入缓冲, loadBulk时一次性加载)
+     * 批量建模只用于空求解器: 加载会重建原生模型, 已有的MPVariable/MPConstraint会指向已释放的对象
+     * @param lbs 下界数组
+     * @param ubs 上界数组
+     * @param integer 是否整数变量
+     * @return 新变量的下标, loadBulk后即solver.variables()中的下标
+     * @throws IllegalStateException 求解器中已有变量或约束
+     */
+    public int[] addVariablesBulk(double[] lbs, double[] ubs, boolean integer){
+        return bulk().addVariables(lbs, ubs, integer);
+    }
+
+    /**
+     * 批量增加约束(写入CSR缓冲): lb <= expr <= ub
+     * @param varIndices 变量下标(addVariablesBulk的返回值)
+     * @param coefArr 系数
+     * @throws IllegalStateException 求解器中已有变量或约束
+     */
+    public void addRowBulk(int[] varIndices, double[] coefArr, double lb, double ub){
+        bulk().addRow(varIndices, coefArr, lb, ub);
+    }
+
+    /**
+     * 批量增加约束: expr <= maxValue
+     */
+    public void addLessOrEqualBulk(int[] varIndices, double[] coefArr, double maxValue){
+        addRowBulk(varIndices, coefArr, -INFINITY, maxValue);
+    }
+
+    /**
+     * 批量增加约束: expr >= minValue
+     */
+    public void addGreaterOrEqualBulk(int[] varIndices, double[] coefArr, double minValue){
+        addRowBulk(varIndices, coefArr, minValue, INFINITY);
+    }
+
+    /**
+     * 批量增加约束: expr = targetValue
+     */
+    public void addEqualBulk(int[] varIndices, double[] coefArr, double targetValue){
+        addRowBulk(varIndices, coefArr, targetValue, targetValue);
+    }
+
+    /**
+     * 批量设置目标
+     * @param maximize true最大化, false最小化
+     */
+    public void setObjectiveBulk(int[] varIndices, double[] coefArr, boolean maximize){
+        bulk().setObjectiveCoefficients(varIndices, coefArr);
+        bulk().setMaximize(maximize);
+    }
+
+    /**
+     * 将缓冲组装为MPModelProto, 通过loadModelFromProto一次性加载到空求解器
+     * 加载前后求解器中都不存在逐个创建的变量/约束, 不会有MPVariable/MPConstraint指向被清除的原生对象
+     * @return 加载后的全部变量, 下标=addVariablesBulk返回的下标
+     * @throws IllegalStateException 缓冲创建后又逐个创建了变量或约束, 或加载失败
+     */
+    public MPVariable[] loadBulk(){
+        if(this.bulk == null || this.bulk.isEmpty()){
+            return this.solver.variables();
+        }
+        checkEmptySolver();
+        // 空模型导出只携带名称和目标方向
+        MPModelProto.Builder model = this.solver.exportModelToProto().toBuilder();
+        this.bulk.appendTo(model);
+        this.bulk = null;
+        String error = this.solver.loadModelFromProto(model.build());
+        if(error != null && !error.isEmpty()){
+            throw new IllegalStateException("批量加载模型失败: " + error);
+        }
+        return this.solver.variables();
+    }
+
+    /**
+     * 批量求解what-if场景: 依次在当前模型上应用场景改动 -> 求解 -> 撤销改动
+     * 模型不重建, LP(GLOP)增量求解复用上一次的基; MIP以上一个场景的解作为hint(CBC忽略hint, SCIP等后端才生效)
+     * 返回后模型恢复为调用前的状态, 包括调用前设置的hint
+     * @param scenarios 场景列表
+     * @return 各场景结果, 顺序与scenarios一致
+     */
+    public List<ScenarioResult> solveScenarios(List<Scenario> scenarios){
+        MPVariable[] vars = this.solver.variables();
+        MPConstraint[] constraints = this.solver.constraints();
+        MPSolverParameters params = new MPSolverParameters();
+        params.setIntegerParam(MPSolverParameters.IntegerParam.INCREMENTALITY,
+                MPSolverParameters.IncrementalityValues.INCREMENTALITY_ON.swigValue());
+        boolean mip = this.solver.isMip();
+        // MPSolver没有读取hint的接口, 从导出的模型中取调用前的hint
+        PartialVariableAssignment previousHint = mip ? this.solver.exportModelToProto().getSolutionHint() : null;
+        double[] incumbent = null;
+        boolean hinted = false;
+        List<ScenarioResult> results = new ArrayList<>(scenarios.size());
+        try {
+            for(Scenario scenario : scenarios){
+                if(mip && incumbent != null){
+                    this.solver.setHint(vars, incumbent);
+                    hinted = true;
+                }
+                ScenarioResult result = solveScenario(scenario, vars, constraints, params);
+                if(result.getValues().length > 0){
+                    incumbent = result.getValues();
+                }
+                results.add(result);
+            }
+        }finally {
+            if(hinted){
+                // 场景解不应作为之后求解的hint, 恢复调用前的hint
+                MPVariable[] hintVars = new MPVariable[previousHint.getVarIndexCount()];
+                double[] hintValues = new double[hintVars.length];
+                for(int i=0; i<hintVars.length; i++){
+                    hintVars[i] = vars[previousHint.getVarIndex(i)];
+                    hintValues[i] = previousHint.getVarValue(i);
+                }
+                this.solver.setHint(hintVars, hintValues);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 多线程批量求解what-if场景: 模型导出为proto后克隆到threads个求解器, 场景按连续分段分给各克隆依次求解
+     * 当前求解器不被修改
+     * 导出的proto不含求解参数(时限/线程数/求解器参数), 且MPSolver不能读取这些参数, 需由调用方传入以应用到每个克隆
+     * @param scenarios 场景列表
+     * @param problemType 克隆求解器的问题类型, 一般与当前求解器一致
+     * @param threads 线程数(克隆个数)
+     * @param timeLimitMillis 每个克隆单次求解的时限(毫秒), <=0不限制
+     * @param numThreadsPerClone 每个克隆的求解线程数, <=0使用后端默认值
+     * @param solverSpecificParams 后端参数字符串(setSolverSpecificParametersAsString), 为null或空不设置
+     * @return 各场景结果, 顺序与scenarios一致
+     * @throws IllegalStateException 克隆模型或设置参数失败, 或求解被中断
+     */
+    public List<ScenarioResult> solveScenarios(List<Scenario> scenarios, MPSolver.OptimizationProblemType problemType, int threads,
+                                               long timeLimitMillis, int numThreadsPerClone, String solverSpecificParams){
+        int n = scenarios.size();
+        int workers = Math.min(threads, n);
+        if(workers <= 1){
+            return solveScenarios(scenarios);
+        }
+        MPModelProto model = this.solver.exportModelToProto();
+        List<Future<List<ScenarioResult>>> futures = new ArrayList<>(workers);
+        for(int w=0; w<workers; w++){
+            List<Scenario> chunk = scenarios.subList(n * w / workers, n * (w + 1) / workers);
+            futures.add(SCENARIO_EXECUTOR.submit(() -> {
+                MPSolver clone = new MPSolver("scenario", problemType);
+                try {
+                    String error = clone.loadModelFromProto(model);
+                    if(error != null && !error.isEmpty()){
+                        throw new IllegalStateException("克隆模型失败: " + error);
+                    }
+                    if(timeLimitMillis > 0){
+                        clone.setTimeLimit(timeLimitMillis);
+                    }
+                    if(numThreadsPerClone > 0 && !clone.setNumThreads(numThreadsPerClone)){
+                        throw new IllegalStateException("求解后端不支持设置线程数: " + problemType);
+                    }
+                    if(solverSpecificParams != null && !solverSpecificParams.isEmpty()
+                            && !clone.setSolverSpecificParametersAsString(solverSpecificParams)){
+                        throw new IllegalStateException("求解器参数设置失败: " + solverSpecificParams);
+                    }
+                    return new LinearSolverUtil(clone).solveScenarios(chunk);
+                }finally {
+                    clone.delete();
+                }
+            }));
+        }
+        List<ScenarioResult> results = new ArrayList<>(n);
+        try {
+            for(Future<List<ScenarioResult>> future : futures){
+                results.addAll(future.get());
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("场景求解被中断", e);
+        }catch (ExecutionException e){
+            throw new IllegalStateException("场景求解异常", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * 应用场景改动并求解, 求解后(含异常)按逆序撤销改动
+     */
+    private ScenarioResult solveScenario(Scenario scenario, MPVariable[] vars, MPConstraint[] constraints, MPSolverParameters params){
+        MPObjective objective = this.solver.objective();
+        double[] oldVarLb = new double[scenario.getVarBoundCount()];
+        double[] oldVarUb = new double[scenario.getVarBoundCount()];
+        double[] oldRowLb = new double[scenario.getRowBoundCount()];
+        double[] oldRowUb = new double[scenario.getRowBoundCount()];
+        double[] oldObjCoef = new double[scenario.getObjCoefCount()];
+        long startMillis = System.currentTimeMillis();
+        try {
+            for(int i=0; i<scenario.getVarBoundCount(); i++){
+                MPVariable var = vars[scenario.getVarIndex(i)];
+                oldVarLb[i] = var.lb();
+                oldVarUb[i] = var.ub();
+                var.setBounds(scenario.getVarLb(i), scenario.getVarUb(i));
+            }
+            for(int i=0; i<scenario.getRowBoundCount(); i++){
+                MPConstraint constraint = constraints[scenario.getRowIndex(i)];
+                oldRowLb[i] = constraint.lb();
+                oldRowUb[i] = constraint.ub();
+                constraint.setBounds(scenario.getRowLb(i), scenario.getRowUb(i));
+            }
+            for(int i=0; i<scenario.getObjCoefCount(); i++){
+                MPVariable var = vars[scenario.getObjIndex(i)];
+                oldObjCoef[i] = objective.getCoefficient(var);
+                objective.setCoefficient(var, scenario.getObjCoef(i));
+            }
+
+            AlgorithmResultEnum status = toResult(this.solver.solve(params));
+            boolean solved = status == AlgorithmResultEnum.OPTIMAL || status == AlgorithmResultEnum.FEASIBLE;
+            double[] values = new double[solved ? vars.length : 0];
+            for(int i=0; i<values.length; i++){
+                values[i] = vars[i].solutionValue();
+            }
+            return new ScenarioResult(scenario.getName(), status, solved ? objective.value() : Double.NaN,
+                    values, System.currentTimeMillis() - startMillis);
+        }finally {
+            // 同一变量/约束可能被改动多次, 逆序撤销才能恢复原值
+            for(int i=scenario.getObjCoefCount()-1; i>=0; i--){
+                objective.setCoefficient(vars[scenario.getObjIndex(i)], oldObjCoef[i]);
+            }
+            for(int i=scenario.getRowBoundCount()-1; i>=0; i--){
+                constraints[scenario.getRowIndex(i)].setBounds(oldRowLb[i], oldRowUb[i]);
+            }
+            for(int i=scenario.getVarBoundCount()-1; i>=0; i--){
+                vars[scenario.getVarIndex(i)].setBounds(oldVarLb[i], oldVarUb[i]);
+            }
+        }
+    }
+
+    private static AlgorithmResultEnum toResult(MPSolver.ResultStatus status){
+        switch (status){
+            case OPTIMAL:
+                return AlgorithmResultEnum.OPTIMAL;
+            case FEASIBLE:
+                return AlgorithmResultEnum.FEASIBLE;
+            case INFEASIBLE:
+                return AlgorithmResultEnum.INFEASIBLE;
+            default:
+                return AlgorithmResultEnum.UNKNOWN;
+        }
+    }
+
+    private MPModelBuffer bulk(){
+        if(this.bulk == null){
+            checkEmptySolver();
+            this.bulk = new MPModelBuffer(0);
+        }
+        return this.bulk;
+    }
+
+    /**
+     * loadModelFromProto会清除原生模型, 已持有的MPVariable/MPConstraint随之失效(访问会使JVM崩溃), 批量建模只允许空求解器
+     */
+    private void checkEmptySolver(){
+        if(this.solver.numVariables() > 0 || this.solver.numConstraints() > 0){
+            throw new IllegalStateException("批量建模只能用于空求解器, numVariables: " + this.solver.numVariables()
+                    + ", numConstraints: " + this.solver.numConstraints());
+        }
     }
 
 }
@@ -0,0 +1,170 @@
+package utils;
+
+import com.google.ortools.linearsolver.MPConstraintProto;
+import com.google.ortools.linearsolver.MPModelProto;
+import com.google.ortools.linearsolver.MPVariableProto;
+
+import java.util.Arrays;
+
+/**
+ * @author kun.hu
+ * 线性模型批量缓冲
+ * 变量界/类型、约束(CSR稀疏格式)、目标系数均存于可增长的原生数组, 最后一次性组装为MPModelProto
+ * 变量以全局下标引用: 已在求解器中的变量为MPVariable.index(), 缓冲变量从base开始连续编号
+ */
+public class MPModelBuffer {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * 缓冲变量的起始下标(创建缓冲时求解器中已有的变量数)
+     */
+    private final int base;
+
+    private int varCount;
+    private double[] varLb = new double[INITIAL_CAPACITY];
+    private double[] varUb = new double[INITIAL_CAPACITY];
+    private boolean[] varInteger = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * CSR: 第r行的非零元为[rowStart[r], rowStart[r+1])
+     */
+    private int rowCount;
+    private int[] rowStart = new int[INITIAL_CAPACITY + 1];
+    private double[] rowLb = new double[INITIAL_CAPACITY];
+    private double[] rowUb = new double[INITIAL_CAPACITY];
+    private int nnz;
+    private int[] cols = new int[INITIAL_CAPACITY];
+    private double[] coefs = new double[INITIAL_CAPACITY];
+
+    private int objCount;
+    private int[] objIdx = new int[INITIAL_CAPACITY];
+    private double[] objCoef = new double[INITIAL_CAPACITY];
+
+    /**
+     * 目标方向, 未设置为null(沿用求解器当前方向)
+     */
+    private Boolean maximize;
+
+    public MPModelBuffer(int base){
+        this.base = base;
+    }
+
+    public int getBase(){
+        return this.base;
+    }
+
+    public int getVarCount(){
+        return this.varCount;
+    }
+
+    public int getRowCount(){
+        return this.rowCount;
+    }
+
+    public int getNnz(){
+        return this.nnz;
+    }
+
+    public boolean isEmpty(){
+        return this.varCount == 0 && this.rowCount == 0 && this.objCount == 0 && this.maximize == null;
+    }
+
+    /**
+     * 批量增加变量
+     * @param lb 下界数组
+     * @param ub 上界数组
+     * @param integer 是否整数变量
+     * @return 新变量的全局下标
+     */
+    public int[] addVariables(double[] lb, double[] ub, boolean integer){
+        int n = lb.length;
+        ensureVarCapacity(this.varCount + n);
+        int[] indices = new int[n];
+        for(int i=0; i<n; i++){
+            this.varLb[this.varCount] = lb[i];
+            this.varUb[this.varCount] = ub[i];
+            this.varInteger[this.varCount] = integer;
+            indices[i] = this.base + this.varCount;
+            this.varCount++;
+        }
+        return indices;
+    }
+
+    /**
+     * 增加约束: lb <= sum(coefs[k] * x[varIndices[k]]) <= ub
+     * @return 约束在缓冲中的行号
+     */
+    public int addRow(int[] varIndices, double[] rowCoefs, double lb, double ub){
+        int n = varIndices.length;
+        if(this.nnz + n > this.cols.length){
+            int capacity = Math.max(this.nnz + n, this.cols.length * 2);
+            this.cols = Arrays.copyOf(this.cols, capacity);
+            this.coefs = Arrays.copyOf(this.coefs, capacity);
+        }
+        System.arraycopy(varIndices, 0, this.cols, this.nnz, n);
+        System.arraycopy(rowCoefs, 0, this.coefs, this.nnz, n);
+        this.nnz += n;
+        if(this.rowCount + 1 >= this.rowStart.length){
+            this.rowStart = Arrays.copyOf(this.rowStart, this.rowStart.length * 2);
+            this.rowLb = Arrays.copyOf(this.rowLb, this.rowStart.length);
+            this.rowUb = Arrays.copyOf(this.rowUb, this.rowStart.length);
+        }
+        this.rowLb[this.rowCount] = lb;
+        this.rowUb[this.rowCount] = ub;
+        this.rowStart[++this.rowCount] = this.nnz;
+        return this.rowCount - 1;
+    }
+
+    /**
+     * 设置目标系数(同一变量多次设置以最后一次为准)
+     */
+    public void setObjectiveCoefficients(int[] varIndices, double[] objCoefs){
+        int n = varIndices.length;
+        if(this.objCount + n > this.objIdx.length){
+            int capacity = Math.max(this.objCount + n, this.objIdx.length * 2);
+            this.objIdx = Arrays.copyOf(this.objIdx, capacity);
+            this.objCoef = Arrays.copyOf(this.objCoef, capacity);
+        }
+        System.arraycopy(varIndices, 0, this.objIdx, this.objCount, n);
+        System.arraycopy(objCoefs, 0, this.objCoef, this.objCount, n);
+        this.objCount += n;
+    }
+
+    public void setMaximize(boolean maximize){
+        this.maximize = maximize;
+    }
+
+    /**
+     * 将缓冲内容追加到模型proto
+     * @param model 求解器导出的模型(变量数须等于base)
+     */
+    public void appendTo(MPModelProto.Builder model){
+        for(int i=0; i<this.varCount; i++){
+            model.addVariable(MPVariableProto.newBuilder()
+                    .setLowerBound(this.varLb[i]).setUpperBound(this.varUb[i]).setIsInteger(this.varInteger[i]));
+        }
+        for(int r=0; r<this.rowCount; r++){
+            MPConstraintProto.Builder constraint = model.addConstraintBuilder()
+                    .setLowerBound(this.rowLb[r]).setUpperBound(this.rowUb[r]);
+            for(int k=this.rowStart[r]; k<this.rowStart[r+1]; k++){
+                constraint.addVarIndex(this.cols[k]).addCoefficient(this.coefs[k]);
+            }
+        }
+        for(int i=0; i<this.objCount; i++){
+            model.getVariableBuilder(this.objIdx[i]).setObjectiveCoefficient(this.objCoef[i]);
+        }
+        if(this.maximize != null){
+            model.setMaximize(this.maximize);
+        }
+    }
+
+    private void ensureVarCapacity(int capacity){
+        if(capacity > this.varLb.length){
+            int newCapacity = Math.max(capacity, this.varLb.length * 2);
+            this.varLb = Arrays.copyOf(this.varLb, newCapacity);
+            this.varUb = Arrays.copyOf(this.varUb, newCapacity);
+            this.varInteger = Arrays.copyOf(this.varInteger, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,810 @@
+package utils;
+
+import com.google.ortools.linearsolver.MPConstraintProto;
+import com.google.ortools.linearsolver.MPModelProto;
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPVariableProto;
+import com.google.ortools.sat.ConstraintProto;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.CpModelProtoOrBuilder;
+import com.google.ortools.sat.CpObjectiveProto;
+import com.google.ortools.sat.CpObjectiveProtoOrBuilder;
+import com.google.ortools.sat.IntegerVariableProtoOrBuilder;
+import com.google.ortools.sat.LinearConstraintProto;
+import com.google.protobuf.TextFormat;
+import model.ModelFormatEnum;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author kun.hu
+ * 模型导入导出, 支持MPSolver和CpModel
+ * 直接按行写入/读取流, 不生成整个模型的字符串(exportModelAsLpFormat会在堆上生成完整LP文本); 文件名以.gz结尾时gzip压缩
+ * CpModel导出MPS/LP要求模型只含无条件线性约束且定义域无空洞; 从MPS导入CpModel要求变量为整数、系数为整数
+ */
+public final class ModelIO {
+
+    /**
+     * MPS中目标行名
+     */
+    private static final String OBJ_ROW = "COST";
+
+    /**
+     * LP每行最多的项数
+     */
+    private static final int LP_TERMS_PER_LINE = 8;
+
+    private ModelIO(){
+    }
+
+    /**
+     * 导出MPSolver模型, 格式按文件名推断
+     */
+    public static void export(MPSolver solver, Path path) throws IOException {
+        export(solver, path, ModelFormatEnum.fromFileName(path.getFileName().toString()));
+    }
+
+    public static void export(MPSolver solver, Path path, ModelFormatEnum format) throws IOException {
+        try(OutputStream out = openOutput(path)){
+            export(solver, out, format);
+        }
+    }
+
+    /**
+     * 导出MPSolver模型到流(不关闭流)
+     */
+    public static void export(MPSolver solver, OutputStream out, ModelFormatEnum format) throws IOException {
+        writeMPModel(solver.exportModelToProto(), out, format);
+    }
+
+    /**
+     * 导入模型到MPSolver, 格式按文件名推断; 会替换求解器中的已有模型
+     * @throws IllegalStateException 加载失败
+     */
+    public static void load(MPSolver solver, Path path) throws IOException {
+        load(solver, path, ModelFormatEnum.fromFileName(path.getFileName().toString()));
+    }
+
+    public static void load(MPSolver solver, Path path, ModelFormatEnum format) throws IOException {
+        MPModelProto model;
+        try(InputStream in = openInput(path)){
+            model = readMPModel(in, format);
+        }
+        String error = solver.loadModelFromProto(model);
+        if(error != null && !error.isEmpty()){
+            throw new IllegalStateException("加载模型失败: " + error);
+        }
+    }
+
+    /**
+     * 导出CpModel, 格式按文件名推断
+     */
+    public static void export(CpModel model, Path path) throws IOException {
+        export(model, path, ModelFormatEnum.fromFileName(path.getFileName().toString()));
+    }
+
+    public static void export(CpModel model, Path path, ModelFormatEnum format) throws IOException {
+        try(OutputStream out = openOutput(path)){
+            export(model, out, format);
+        }
+    }
+
+    /**
+     * 导出CpModel到流(不关闭流)
+     */
+    public static void export(CpModel model, OutputStream out, ModelFormatEnum format) throws IOException {
+        switch (format){
+            case PROTO:
+                model.getBuilder().build().writeTo(out);
+                out.flush();
+                break;
+            case PROTO_TEXT:
+                Writer writer = newWriter(out);
+                TextFormat.print(model.getBuilder(), writer);
+                writer.flush();
+                break;
+            default:
+                writeMPModel(toMPModelProto(model.getBuilder()), out, format);
+        }
+    }
+
+    /**
+     * 导入CpModel, 格式按文件名推断
+     */
+    public static CpModel loadCpModel(Path path) throws IOException {
+        return loadCpModel(path, ModelFormatEnum.fromFileName(path.getFileName().toString()));
+    }
+
+    public static CpModel loadCpModel(Path path, ModelFormatEnum format) throws IOException {
+        try(InputStream in = openInput(path)){
+            return loadCpModel(in, format);
+        }
+    }
+
+    /**
+     * 从流导入CpModel(不关闭流)
+     */
+    public static CpModel loadCpModel(InputStream in, ModelFormatEnum format) throws IOException {
+        switch (format){
+            case PROTO:
+                CpModel model = new CpModel();
+                model.getBuilder().mergeFrom(in);
+                return model;
+            case PROTO_TEXT:
+                CpModel textModel = new CpModel();
+                TextFormat.merge(new InputStreamReader(in, StandardCharsets.UTF_8), textModel.getBuilder());
+                return textModel;
+            default:
+                return toCpModel(readMPModel(in, format));
+        }
+    }
+
+    /**
+     * 写出MPModelProto(不关闭流)
+     */
+    public static void writeMPModel(MPModelProto model, OutputStream out, ModelFormatEnum format) throws IOException {
+        if(format == ModelFormatEnum.PROTO){
+            model.writeTo(out);
+            out.flush();
+            return;
+        }
+        Writer writer = newWriter(out);
+        switch (format){
+            case PROTO_TEXT:
+                TextFormat.print(model, writer);
+                break;
+            case MPS:
+                writeMps(model, writer);
+                break;
+            default:
+                writeLp(model, writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * 读取MPModelProto(不关闭流)
+     * @throws UnsupportedOperationException LP格式
+     */
+    public static MPModelProto readMPModel(InputStream in, ModelFormatEnum format) throws IOException {
+        switch (format){
+            case PROTO:
+                return MPModelProto.parseFrom(in);
+            case PROTO_TEXT:
+                MPModelProto.Builder builder = MPModelProto.newBuilder();
+                TextFormat.merge(new InputStreamReader(in, StandardCharsets.UTF_8), builder);
+                return builder.build();
+            case MPS:
+                return readMps(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            default:
+                throw new UnsupportedOperationException("LP格式仅支持导出");
+        }
+    }
+
+    /**
+     * 按free MPS格式写出, 区间约束写为L行+RANGES, 整数变量以MARKER包围
+     */
+    public static void writeMps(MPModelProto model, Writer out) throws IOException {
+        checkLinear(model);
+        int n = model.getVariableCount();
+        int m = model.getConstraintCount();
+        String[] colNames = uniqueNames(n, i -> model.getVariable(i).getName(), "C");
+        String[] rowNames = uniqueNames(m, i -> model.getConstraint(i).getName(), "R", OBJ_ROW);
+
+        // 按列转置: 第j列的非零元为[colStart[j], colStart[j+1])
+        int[] colStart = new int[n + 1];
+        for(int r=0; r<m; r++){
+            MPConstraintProto constraint = model.getConstraint(r);
+            for(int k=0; k<constraint.getVarIndexCount(); k++){
+                colStart[constraint.getVarIndex(k) + 1]++;
+            }
+        }
+        for(int j=0; j<n; j++){
+            colStart[j+1] += colStart[j];
+        }
+        int[] rows = new int[colStart[n]];
+        double[] values = new double[colStart[n]];
+        int[] pos = Arrays.copyOf(colStart, n);
+        for(int r=0; r<m; r++){
+            MPConstraintProto constraint = model.getConstraint(r);
+            for(int k=0; k<constraint.getVarIndexCount(); k++){
+                int p = pos[constraint.getVarIndex(k)]++;
+                rows[p] = r;
+                values[p] = constraint.getCoefficient(k);
+            }
+        }
+
+        out.write("NAME " + (model.getName().isEmpty() ? "MODEL" : sanitize(model.getName())) + "\n");
+        if(model.getMaximize()){
+            out.write("OBJSENSE\n    MAX\n");
+        }
+        out.write("ROWS\n N  " + OBJ_ROW + "\n");
+        for(int r=0; r<m; r++){
+            out.write(" " + rowType(model.getConstraint(r)) + "  " + rowNames[r] + "\n");
+        }
+
+        out.write("COLUMNS\n");
+        boolean integer = false;
+        int markers = 0;
+        for(int j=0; j<n; j++){
+            MPVariableProto var = model.getVariable(j);
+            if(var.getIsInteger() != integer){
+                integer = var.getIsInteger();
+                out.write("    M" + (markers++) + " 'MARKER' " + (integer ? "'INTORG'" : "'INTEND'") + "\n");
+            }
+            // 不出现在任何行中的变量也要声明, 否则导入后下标错位
+            if(var.getObjectiveCoefficient() != 0 || colStart[j] == colStart[j+1]){
+                out.write("    " + colNames[j] + " " + OBJ_ROW + " " + format(var.getObjectiveCoefficient()) + "\n");
+            }
+            for(int p=colStart[j]; p<colStart[j+1]; p++){
+                out.write("    " + colNames[j] + " " + rowNames[rows[p]] + " " + format(values[p]) + "\n");
+            }
+        }
+        if(integer){
+            out.write("    M" + markers + " 'MARKER' 'INTEND'\n");
+        }
+
+        out.write("RHS\n");
+        if(model.getObjectiveOffset() != 0){
+            // MPS约定目标行的右端为常数项的相反数
+            out.write("    RHS " + OBJ_ROW + " " + format(-model.getObjectiveOffset()) + "\n");
+        }
+        for(int r=0; r<m; r++){
+            MPConstraintProto constraint = model.getConstraint(r);
+            double rhs = Double.isInfinite(constraint.getUpperBound()) ? constraint.getLowerBound() : constraint.getUpperBound();
+            if(!Double.isInfinite(rhs) && rhs != 0){
+                out.write("    RHS " + rowNames[r] + " " + format(rhs) + "\n");
+            }
+        }
+
+        out.write("RANGES\n");
+        for(int r=0; r<m; r++){
+            MPConstraintProto constraint = model.getConstraint(r);
+            double lb = constraint.getLowerBound();
+            double ub = constraint.getUpperBound();
+            if(!Double.isInfinite(lb) && !Double.isInfinite(ub) && lb != ub){
+                out.write("    RNG " + rowNames[r] + " " + format(ub - lb) + "\n");
+            }
+        }
+
+        out.write("BOUNDS\n");
+        for(int j=0; j<n; j++){
+            MPVariableProto var = model.getVariable(j);
+            double lb = var.getLowerBound();
+            double ub = var.getUpperBound();
+            if(lb == ub){
+                out.write(" FX BND " + colNames[j] + " " + format(lb) + "\n");
+                continue;
+            }
+            if(Double.isInfinite(lb) && Double.isInfinite(ub)){
+                out.write(" FR BND " + colNames[j] + "\n");
+                continue;
+            }
+            if(Double.isInfinite(lb)){
+                out.write(" MI BND " + colNames[j] + "\n");
+            }else if(lb != 0 || ub < 0){
+                // ub<0时显式写下界, 避免部分读取器把下界改为-inf
+                out.write(" LO BND " + colNames[j] + " " + format(lb) + "\n");
+            }
+            if(!Double.isInfinite(ub)){
+                out.write(" UP BND " + colNames[j] + " " + format(ub) + "\n");
+            }else if(var.getIsInteger()){
+                // 部分读取器对无上界的整数变量默认上界为1
+                out.write(" PL BND " + colNames[j] + "\n");
+            }
+        }
+        out.write("ENDATA\n");
+    }
+
+    /**
+     * 读取free MPS(名称中不能有空白), 第一个N行为目标, 其余N行读为自由约束
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static MPModelProto readMps(BufferedReader in) throws IOException {
+        MPModelProto.Builder model = MPModelProto.newBuilder();
+        Map<String, Integer> rowIndex = new HashMap<>();
+        Map<String, Integer> colIndex = new HashMap<>();
+        String objRow = null;
+        int rowCount = 0;
+        char[] rowTypes = new char[64];
+        double[] rhs = new double[64];
+        double[] ranges = new double[64];
+        String section = "";
+        boolean integer = false;
+        String line;
+        int lineNo = 0;
+        while((line = in.readLine()) != null){
+            lineNo++;
+            if(line.trim().isEmpty() || line.charAt(0) == '*'){
+                continue;
+            }
+            String[] t = line.trim().split("\\s+");
+            if(!Character.isWhitespace(line.charAt(0))){
+                section = t[0];
+                if("NAME".equals(section) && t.length > 1){
+                    model.setName(t[1]);
+                }else if("OBJSENSE".equals(section) && t.length > 1){
+                    model.setMaximize(t[1].startsWith("MAX"));
+                }else if("ENDATA".equals(section)){
+                    break;
+                }
+                continue;
+            }
+            switch (section){
+                case "OBJSENSE":
+                    model.setMaximize(t[0].startsWith("MAX"));
+                    break;
+                case "ROWS":
+                    checkTokens(t, 2, lineNo);
+                    char type = t[0].charAt(0);
+                    if(type == 'N' && objRow == null){
+                        objRow = t[1];
+                        break;
+                    }
+                    if(rowCount == rowTypes.length){
+                        rowTypes = Arrays.copyOf(rowTypes, rowCount * 2);
+                        rhs = Arrays.copyOf(rhs, rowCount * 2);
+                        ranges = Arrays.copyOf(ranges, rowCount * 2);
+                    }
+                    rowTypes[rowCount] = type;
+                    ranges[rowCount] = Double.NaN;
+                    rowIndex.put(t[1], rowCount++);
+                    model.addConstraintBuilder().setName(t[1]);
+                    break;
+                case "COLUMNS":
+                    if(t.length >= 3 && "'MARKER'".equals(t[1])){
+                        integer = "'INTORG'".equals(t[2]);
+                        break;
+                    }
+                    checkTokens(t, 3, lineNo);
+                    Integer col = colIndex.get(t[0]);
+                    if(col == null){
+                        col = model.getVariableCount();
+                        colIndex.put(t[0], col);
+                        model.addVariableBuilder().setName(t[0]).setIsInteger(integer)
+                                .setLowerBound(0).setUpperBound(LinearSolverUtil.INFINITY);
+                    }
+                    for(int k=1; k+1<t.length; k+=2){
+                        double value = parse(t[k+1], lineNo);
+                        if(t[k].equals(objRow)){
+                            model.getVariableBuilder(col).setObjectiveCoefficient(value);
+                        }else{
+                            model.getConstraintBuilder(row(rowIndex, t[k], lineNo)).addVarIndex(col).addCoefficient(value);
+                        }
+                    }
+                    break;
+                case "RHS":
+                case "RANGES":
+                    // 集合名可省略
+                    for(int k=t.length % 2; k+1<t.length; k+=2){
+                        double value = parse(t[k+1], lineNo);
+                        if(t[k].equals(objRow)){
+                            if("RHS".equals(section)){
+                                model.setObjectiveOffset(-value);
+                            }
+                        }else if("RHS".equals(section)){
+                            rhs[row(rowIndex, t[k], lineNo)] = value;
+                        }else{
+                            ranges[row(rowIndex, t[k], lineNo)] = value;
+                        }
+                    }
+                    break;
+                case "BOUNDS":
+                    readBound(model, colIndex, t, lineNo);
+                    break;
+                default:
+                    throw new IllegalArgumentException("MPS格式错误, 第" + lineNo + "行不属于任何段: " + line);
+            }
+        }
+
+        for(int r=0; r<rowCount; r++){
+            MPConstraintProto.Builder constraint = model.getConstraintBuilder(r);
+            double range = ranges[r];
+            boolean ranged = !Double.isNaN(range);
+            switch (rowTypes[r]){
+                case 'E':
+                    constraint.setLowerBound(ranged && range < 0 ? rhs[r] + range : rhs[r])
+                            .setUpperBound(ranged && range > 0 ? rhs[r] + range : rhs[r]);
+                    break;
+                case 'L':
+                    constraint.setLowerBound(ranged ? rhs[r] - Math.abs(range) : -LinearSolverUtil.INFINITY).setUpperBound(rhs[r]);
+                    break;
+                case 'G':
+                    constraint.setLowerBound(rhs[r]).setUpperBound(ranged ? rhs[r] + Math.abs(range) : LinearSolverUtil.INFINITY);
+                    break;
+                default:
+                    constraint.setLowerBound(-LinearSolverUtil.INFINITY).setUpperBound(LinearSolverUtil.INFINITY);
+            }
+        }
+        return model.build();
+    }
+
+    /**
+     * 按CPLEX LP格式写出(便于人工查看), 区间约束拆为_lo/_hi两行, 自由约束不写出
+     */
+    public static void writeLp(MPModelProto model, Writer out) throws IOException {
+        checkLinear(model);
+        int n = model.getVariableCount();
+        String[] colNames = uniqueNames(n, i -> model.getVariable(i).getName(), "C");
+        String[] rowNames = uniqueNames(model.getConstraintCount(), i -> model.getConstraint(i).getName(), "R", "obj");
+
+        if(!model.getName().isEmpty()){
+            out.write("\\ " + model.getName() + "\n");
+        }
+        out.write(model.getMaximize() ? "Maximize\n" : "Minimize\n");
+        out.write(" obj:");
+        int terms = 0;
+        for(int j=0; j<n; j++){
+            double coef = model.getVariable(j).getObjectiveCoefficient();
+            if(coef != 0){
+                writeTerm(out, coef, colNames[j], terms++);
+            }
+        }
+        if(model.getObjectiveOffset() != 0 || terms == 0){
+            out.write(" " + signed(model.getObjectiveOffset()));
+        }
+        out.write("\n");
+
+        out.write("Subject To\n");
+        for(int r=0; r<model.getConstraintCount(); r++){
+            MPConstraintProto constraint = model.getConstraint(r);
+            double lb = constraint.getLowerBound();
+            double ub = constraint.getUpperBound();
+            if(lb == ub){
+                writeLpRow(out, rowNames[r], constraint, colNames, "=", lb);
+            }else if(Double.isInfinite(lb) && !Double.isInfinite(ub)){
+                writeLpRow(out, rowNames[r], constraint, colNames, "<=", ub);
+            }else if(!Double.isInfinite(lb) && Double.isInfinite(ub)){
+                writeLpRow(out, rowNames[r], constraint, colNames, ">=", lb);
+            }else if(!Double.isInfinite(lb)){
+                writeLpRow(out, rowNames[r] + "_lo", constraint, colNames, ">=", lb);
+                writeLpRow(out, rowNames[r] + "_hi", constraint, colNames, "<=", ub);
+            }
+        }
+
+        out.write("Bounds\n");
+        for(int j=0; j<n; j++){
+            MPVariableProto var = model.getVariable(j);
+            double lb = var.getLowerBound();
+            double ub = var.getUpperBound();
+            if(lb == ub){
+                out.write(" " + colNames[j] + " = " + format(lb) + "\n");
+            }else if(Double.isInfinite(lb) && Double.isInfinite(ub)){
+                out.write(" " + colNames[j] + " free\n");
+            }else if(Double.isInfinite(ub)){
+                if(lb != 0){
+                    out.write(" " + colNames[j] + " >= " + format(lb) + "\n");
+                }
+            }else{
+                out.write(" " + (Double.isInfinite(lb) ? "-inf" : format(lb)) + " <= " + colNames[j] + " <= " + format(ub) + "\n");
+            }
+        }
+
+        boolean generals = false;
+        int count = 0;
+        for(int j=0; j<n; j++){
+            if(model.getVariable(j).getIsInteger()){
+                if(!generals){
+                    out.write("Generals\n");
+                    generals = true;
+                }
+                out.write((count > 0 && count % LP_TERMS_PER_LINE == 0 ? "\n " : " ") + colNames[j]);
+                count++;
+            }
+        }
+        if(generals){
+            out.write("\n");
+        }
+        out.write("End\n");
+    }
+
+    /**
+     * CpModel转为MPModelProto(变量均为整数), 取反字面量x'按1-x展开
+     * @throws IllegalArgumentException 含非线性/带条件约束, 或定义域有空洞
+     */
+    public static MPModelProto toMPModelProto(CpModelProtoOrBuilder cp){
+        MPModelProto.Builder model = MPModelProto.newBuilder().setName(cp.getName());
+        for(int i=0; i<cp.getVariablesCount(); i++){
+            IntegerVariableProtoOrBuilder var = cp.getVariablesOrBuilder(i);
+            if(var.getDomainCount() != 2){
+                throw new IllegalArgumentException("变量定义域有空洞, 无法转为线性模型: #" + i);
+            }
+            model.addVariableBuilder().setName(var.getName()).setIsInteger(true)
+                    .setLowerBound(toDouble(var.getDomain(0))).setUpperBound(toDouble(var.getDomain(1)));
+        }
+        for(int c=0; c<cp.getConstraintsCount(); c++){
+            ConstraintProto constraint = cp.getConstraints(c);
+            if(!constraint.hasLinear() || constraint.getEnforcementLiteralCount() > 0 || constraint.getLinear().getDomainCount() != 2){
+                throw new IllegalArgumentException("不是无条件的区间线性约束, 无法转为线性模型, 约束下标: " + c);
+            }
+            LinearConstraintProto linear = constraint.getLinear();
+            MPConstraintProto.Builder row = model.addConstraintBuilder().setName(constraint.getName());
+            double shift = 0;
+            for(int k=0; k<linear.getVarsCount(); k++){
+                int ref = linear.getVars(k);
+                long coeff = linear.getCoeffs(k);
+                if(ref >= 0){
+                    row.addVarIndex(ref).addCoefficient(coeff);
+                }else{
+                    row.addVarIndex(-ref - 1).addCoefficient(-coeff);
+                    shift += coeff;
+                }
+            }
+            row.setLowerBound(toDouble(linear.getDomain(0)) - shift).setUpperBound(toDouble(linear.getDomain(1)) - shift);
+        }
+        if(cp.hasObjective()){
+            CpObjectiveProtoOrBuilder objective = cp.getObjectiveOrBuilder();
+            // 目标值 = scalingFactor * (sum + offset), 负系数为最大化
+            double scaling = objective.getScalingFactor() == 0 ? 1 : objective.getScalingFactor();
+            double offset = objective.getOffset();
+            for(int k=0; k<objective.getVarsCount(); k++){
+                int ref = objective.getVars(k);
+                long coeff = objective.getCoeffs(k);
+                int var = ref >= 0 ? ref : -ref - 1;
+                if(ref < 0){
+                    offset += coeff;
+                    coeff = -coeff;
+                }
+                MPVariableProto.Builder builder = model.getVariableBuilder(var);
+                builder.setObjectiveCoefficient(builder.getObjectiveCoefficient() + scaling * coeff);
+            }
+            model.setObjectiveOffset(scaling * offset).setMaximize(scaling < 0);
+        }
+        return model.build();
+    }
+
+    /**
+     * MPModelProto转为CpModel
+     * @throws IllegalArgumentException 含连续变量/无穷变量界/非整数系数/一般约束
+     */
+    public static CpModel toCpModel(MPModelProto model){
+        checkLinear(model);
+        CpModel cpModel = new CpModel();
+        CpModelProto.Builder builder = cpModel.getBuilder().setName(model.getName());
+        boolean maximize = model.getMaximize();
+        CpObjectiveProto.Builder objective = null;
+        for(int i=0; i<model.getVariableCount(); i++){
+            MPVariableProto var = model.getVariable(i);
+            if(!var.getIsInteger() || Double.isInfinite(var.getLowerBound()) || Double.isInfinite(var.getUpperBound())){
+                throw new IllegalArgumentException("CP-SAT变量须为有界整数变量: " + var.getName());
+            }
+            builder.addVariablesBuilder().setName(var.getName())
+                    .addDomain((long) Math.ceil(var.getLowerBound())).addDomain((long) Math.floor(var.getUpperBound()));
+            if(var.getObjectiveCoefficient() != 0){
+                if(objective == null){
+                    objective = builder.getObjectiveBuilder();
+                }
+                long coeff = integral(var.getObjectiveCoefficient(), var.getName());
+                // 最大化按取反后的最小化求解
+                objective.addVars(i).addCoeffs(maximize ? -coeff : coeff);
+            }
+        }
+        for(int r=0; r<model.getConstraintCount(); r++){
+            MPConstraintProto constraint = model.getConstraint(r);
+            LinearConstraintProto.Builder linear = builder.addConstraintsBuilder().setName(constraint.getName()).getLinearBuilder()
+                    .addDomain(Double.isInfinite(constraint.getLowerBound()) ? Long.MIN_VALUE : (long) Math.ceil(constraint.getLowerBound()))
+                    .addDomain(Double.isInfinite(constraint.getUpperBound()) ? Long.MAX_VALUE : (long) Math.floor(constraint.getUpperBound()));
+            for(int k=0; k<constraint.getVarIndexCount(); k++){
+                linear.addVars(constraint.getVarIndex(k)).addCoeffs(integral(constraint.getCoefficient(k), constraint.getName()));
+            }
+        }
+        if(objective != null || model.getObjectiveOffset() != 0){
+            objective = builder.getObjectiveBuilder();
+            if(model.getObjectiveOffset() != 0){
+                objective.setOffset(maximize ? -model.getObjectiveOffset() : model.getObjectiveOffset());
+            }
+            if(maximize){
+                objective.setScalingFactor(-1);
+            }
+        }
+        return cpModel;
+    }
+
+    private static void readBound(MPModelProto.Builder model, Map<String, Integer> colIndex, String[] t, int lineNo){
+        String type = t[0];
+        boolean hasValue = !"FR".equals(type) && !"MI".equals(type) && !"PL".equals(type) && !"BV".equals(type);
+        String name = hasValue ? t[t.length - 2] : t[Math.min(2, t.length - 1)];
+        checkTokens(t, hasValue ? 3 : 2, lineNo);
+        Integer col = colIndex.get(name);
+        if(col == null){
+            throw new IllegalArgumentException("MPS格式错误, 第" + lineNo + "行未定义的列: " + name);
+        }
+        MPVariableProto.Builder var = model.getVariableBuilder(col);
+        double value = hasValue ? parse(t[t.length - 1], lineNo) : 0;
+        switch (type){
+            case "UP":
+                var.setUpperBound(value);
+                break;
+            case "LO":
+                var.setLowerBound(value);
+                break;
+            case "FX":
+                var.setLowerBound(value).setUpperBound(value);
+                break;
+            case "FR":
+                var.setLowerBound(-LinearSolverUtil.INFINITY).setUpperBound(LinearSolverUtil.INFINITY);
+                break;
+            case "MI":
+                var.setLowerBound(-LinearSolverUtil.INFINITY);
+                break;
+            case "PL":
+                var.setUpperBound(LinearSolverUtil.INFINITY);
+                break;
+            case "BV":
+                var.setIsInteger(true).setLowerBound(0).setUpperBound(1);
+                break;
+            case "LI":
+                var.setIsInteger(true).setLowerBound(value);
+                break;
+            case "UI":
+                var.setIsInteger(true).setUpperBound(value);
+                break;
+            default:
+                throw new IllegalArgumentException("MPS格式错误, 第" + lineNo + "行未知的界类型: " + type);
+        }
+    }
+
+    private static void writeLpRow(Writer out, String name, MPConstraintProto constraint, String[] colNames,
+                                   String sense, double rhs) throws IOException {
+        out.write(" " + name + ":");
+        for(int k=0; k<constraint.getVarIndexCount(); k++){
+            writeTerm(out, constraint.getCoefficient(k), colNames[constraint.getVarIndex(k)], k);
+        }
+        if(constraint.getVarIndexCount() == 0 && colNames.length > 0){
+            out.write(" 0 " + colNames[0]);
+        }
+        out.write(" " + sense + " " + format(rhs) + "\n");
+    }
+
+    /**
+     * 写一项, 每LP_TERMS_PER_LINE项换行(LP格式单行长度有限制)
+     */
+    private static void writeTerm(Writer out, double coef, String name, int index) throws IOException {
+        if(index > 0 && index % LP_TERMS_PER_LINE == 0){
+            out.write("\n  ");
+        }
+        out.write(" " + signed(coef) + " " + name);
+    }
+
+    private static String signed(double value){
+        return value < 0 ? "- " + format(-value) : "+ " + format(value);
+    }
+
+    /**
+     * 整数值不带小数点
+     */
+    private static String format(double value){
+        if(value == Math.rint(value) && Math.abs(value) < 1e15){
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * 生成合法且不重复的名称, 原名为空或冲突时用prefix+下标
+     * @param reserved 保留名(如目标行名)
+     */
+    private static String[] uniqueNames(int count, IntFunction<String> rawName, String prefix, String... reserved){
+        String[] names = new String[count];
+        Set<String> used = new HashSet<>(count * 2);
+        used.addAll(Arrays.asList(reserved));
+        for(int i=0; i<count; i++){
+            String name = sanitize(rawName.apply(i));
+            if(name.isEmpty() || !used.add(name)){
+                name = prefix + i;
+                while(!used.add(name)){
+                    name = name + "_";
+                }
+            }
+            names[i] = name;
+        }
+        return names;
+    }
+
+    /**
+     * 只保留字母/数字/_/., 不以数字或.开头
+     */
+    private static String sanitize(String name){
+        StringBuilder sb = new StringBuilder(name.length() + 1);
+        for(int i=0; i<name.length(); i++){
+            char ch = name.charAt(i);
+            sb.append((ch < 128 && Character.isLetterOrDigit(ch)) || ch == '_' || ch == '.' ? ch : '_');
+        }
+        if(sb.length() > 0 && (Character.isDigit(sb.charAt(0)) || sb.charAt(0) == '.')){
+            sb.insert(0, '_');
+        }
+        return sb.toString();
+    }
+
+    private static char rowType(MPConstraintProto constraint){
+        double lb = constraint.getLowerBound();
+        double ub = constraint.getUpperBound();
+        if(lb == ub){
+            return 'E';
+        }
+        if(Double.isInfinite(lb) && Double.isInfinite(ub)){
+            return 'N';
+        }
+        return Double.isInfinite(ub) ? 'G' : 'L';
+    }
+
+    private static void checkLinear(MPModelProto model){
+        if(model.getGeneralConstraintCount() > 0){
+            throw new IllegalArgumentException("模型含一般约束(指示/SOS等), 无法按纯线性模型处理");
+        }
+    }
+
+    private static long integral(double value, String name){
+        if(value != Math.rint(value)){
+            throw new IllegalArgumentException("CP-SAT系数须为整数: " + name + ", " + value);
+        }
+        return (long) value;
+    }
+
+    private static double toDouble(long bound){
+        if(bound == Long.MIN_VALUE){
+            return -LinearSolverUtil.INFINITY;
+        }
+        if(bound == Long.MAX_VALUE){
+            return LinearSolverUtil.INFINITY;
+        }
+        return bound;
+    }
+
+    private static int row(Map<String, Integer> rowIndex, String name, int lineNo){
+        Integer row = rowIndex.get(name);
+        if(row == null){
+            throw new IllegalArgumentException("MPS格式错误, 第" + lineNo + "行未定义的行: " + name);
+        }
+        return row;
+    }
+
+    private static double parse(String value, int lineNo){
+        try{
+            return Double.parseDouble(value);
+        }catch (NumberFormatException e){
+            throw new IllegalArgumentException("MPS格式错误, 第" + lineNo + "行数值非法: " + value);
+        }
+    }
+
+    private static void checkTokens(String[] t, int min, int lineNo){
+        if(t.length < min){
+            throw new IllegalArgumentException("MPS格式错误, 第" + lineNo + "行字段不足: " + String.join(" ", t));
+        }
+    }
+
+    private static Writer newWriter(OutputStream out){
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private static OutputStream openOutput(Path path) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(path));
+        return path.toString().endsWith(".gz") ? new GZIPOutputStream(out) : out;
+    }
+
+    private static InputStream openInput(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path));
+        return path.toString().endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+}
@@ -0,0 +1,23 @@
+package utils;
+
+import model.LintWarning;
+
+import java.util.List;
+
+/**
+ * @author kun.hu
+ * 严格模式下模型检查未通过
+ */
+public class ModelLintException extends IllegalStateException {
+
+    private final List<LintWarning> warnings;
+
+    public ModelLintException(List<LintWarning> warnings){
+        super("模型检查未通过, 问题数: " + warnings.size() + ", 首个问题: " + warnings.get(0).getMessage());
+        this.warnings = warnings;
+    }
+
+    public List<LintWarning> getWarnings(){
+        return this.warnings;
+    }
+}
@@ -0,0 +1,279 @@
+package utils;
+
+import com.google.ortools.sat.CpObjectiveProto;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearConstraintProto;
+import com.google.ortools.sat.LinearExpr;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntToLongFunction;
+
+/**
+ * @author kun.hu
+ * 目标项累加器
+ * 按目标名分组, 组内以变量下标定位合并重复项; 变量/权重存于可增长的原生数组, 权重为long, 全程无装箱
+ */
+public class ObjectiveAccumulator {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * key=目标名(保持插入顺序), value=目标项
+     */
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * 累加目标项, 权重为0直接忽略
+     * @param objName 目标名
+     * @param var 变量
+     * @param weight 权重
+     * @throws ArithmeticException 合并后权重溢出long
+     */
+    public void add(String objName, IntVar var, long weight){
+        if(weight == 0){
+            return;
+        }
+        this.groups.computeIfAbsent(objName, k -> new Group()).add(var.getIndex(), var, weight);
+    }
+
+    /**
+     * 按变量下标累加目标项(如从模型缓存恢复), 权重为0直接忽略
+     * 这类目标项没有IntVar, 含有它的目标不能转为LinearExpr, 需使用writeObjective/addConstraint
+     * @param objName 目标名
+     * @param varIndex 变量下标
+     * @param weight 权重
+     * @throws ArithmeticException 合并后权重溢出long
+     */
+    public void add(String objName, int varIndex, long weight){
+        if(weight == 0){
+            return;
+        }
+        this.groups.computeIfAbsent(objName, k -> new Group()).add(varIndex, null, weight);
+    }
+
+    public boolean isEmpty(){
+        return this.groups.isEmpty();
+    }
+
+    public boolean contains(String objName){
+        return this.groups.containsKey(objName);
+    }
+
+    /**
+     * @return 目标名(按首次加入顺序)
+     */
+    public Set<String> getObjNames(){
+        return Collections.unmodifiableSet(this.groups.keySet());
+    }
+
+    /**
+     * @param objName 目标名
+     * @return 目标项数(合并后)
+     */
+    public int size(String objName){
+        Group group = this.groups.get(objName);
+        return group == null ? 0 : group.size;
+    }
+
+    /**
+     * @param objName 目标名
+     * @param var 变量
+     * @return 变量在该目标中的合并权重, 不存在为0
+     */
+    public long getWeight(String objName, IntVar var){
+        Group group = this.groups.get(objName);
+        if(group == null || var.getIndex() >= group.slotOf.length){
+            return 0;
+        }
+        int slot = group.slotOf[var.getIndex()];
+        return slot < 0 ? 0 : group.weights[slot];
+    }
+
+    /**
+     * @param objName 目标名
+     * @return 目标项的变量下标(合并后), 不存在为空数组
+     */
+    public int[] getVarIndices(String objName){
+        Group group = this.groups.get(objName);
+        return group == null ? new int[0] : Arrays.copyOf(group.varIndices, group.size);
+    }
+
+    /**
+     * @param objName 目标名
+     * @return 目标项的权重, 与getVarIndices一一对应
+     */
+    public long[] getWeights(String objName){
+        Group group = this.groups.get(objName);
+        return group == null ? new long[0] : Arrays.copyOf(group.weights, group.size);
+    }
+
+    /**
+     * 多个目标合并为一个线性表达式, 同一变量的权重相加
+     * @param objNames 目标名
+     * @return 线性表达式
+     * @throws IllegalStateException 目标项按变量下标加入, 没有IntVar
+     */
+    public LinearExpr toLinearExpr(Collection<String> objNames){
+        Group merged = merge(objNames);
+        int n = merged.compact();
+        for(int i=0; i<n; i++){
+            if(merged.vars[i] == null){
+                throw new IllegalStateException("目标项按变量下标加入, 无法转为LinearExpr, 变量下标: " + merged.varIndices[i]);
+            }
+        }
+        return LinearExpr.scalProd(Arrays.copyOf(merged.vars, n), Arrays.copyOf(merged.weights, n));
+    }
+
+    public LinearExpr toLinearExpr(){
+        return toLinearExpr(this.groups.keySet());
+    }
+
+    /**
+     * 直接写入模型目标(替换原目标), 不经过LinearExpr
+     * 最大化与CpModel.maximize一致: 系数取反, scalingFactor=-1
+     * @param builder 模型
+     * @param objNames 目标名
+     * @param minimize 是否最小化
+     */
+    public void writeObjective(CpModelProto.Builder builder, Collection<String> objNames, boolean minimize){
+        Group merged = merge(objNames);
+        int n = merged.compact();
+        builder.clearObjective();
+        CpObjectiveProto.Builder objective = builder.getObjectiveBuilder();
+        for(int i=0; i<n; i++){
+            objective.addVars(merged.varIndices[i]).addCoeffs(minimize ? merged.weights[i] : -merged.weights[i]);
+        }
+        if(!minimize){
+            objective.setScalingFactor(-1);
+        }
+    }
+
+    /**
+     * 直接向模型增加约束: lo <= 多个目标之和 <= hi, 不经过LinearExpr
+     * @param builder 模型
+     * @param objNames 目标名
+     * @param lo 下界
+     * @param hi 上界
+     */
+    public void addConstraint(CpModelProto.Builder builder, Collection<String> objNames, long lo, long hi){
+        Group merged = merge(objNames);
+        int n = merged.compact();
+        LinearConstraintProto.Builder linear = builder.addConstraintsBuilder().getLinearBuilder().addDomain(lo).addDomain(hi);
+        for(int i=0; i<n; i++){
+            linear.addVars(merged.varIndices[i]).addCoeffs(merged.weights[i]);
+        }
+    }
+
+    /**
+     * 按变量下标取值计算目标值
+     * @param objName 目标名
+     * @param valueOfIndex 变量下标->取值
+     * @return 目标值
+     * @throws ArithmeticException 目标值溢出long
+     */
+    public long evaluate(String objName, IntToLongFunction valueOfIndex){
+        Group group = this.groups.get(objName);
+        if(group == null){
+            return 0;
+        }
+        long sum = 0;
+        for(int i=0; i<group.size; i++){
+            sum = Math.addExact(sum, Math.multiplyExact(valueOfIndex.applyAsLong(group.varIndices[i]), group.weights[i]));
+        }
+        return sum;
+    }
+
+    /**
+     * 合并多个目标, 只有一个目标时直接返回该组
+     */
+    private Group merge(Collection<String> objNames){
+        if(objNames.size() == 1){
+            Group group = this.groups.get(objNames.iterator().next());
+            return group == null ? new Group() : group;
+        }
+        Group merged = new Group();
+        for(String objName : objNames){
+            Group group = this.groups.get(objName);
+            if(group == null){
+                continue;
+            }
+            for(int i=0; i<group.size; i++){
+                merged.add(group.varIndices[i], group.vars[i], group.weights[i]);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 单个目标的目标项
+     */
+    private static class Group {
+        private int size;
+        private IntVar[] vars = new IntVar[INITIAL_CAPACITY];
+        private int[] varIndices = new int[INITIAL_CAPACITY];
+        private long[] weights = new long[INITIAL_CAPACITY];
+
+        /**
+         * 变量下标->目标项位置, -1表示不存在
+         */
+        private int[] slotOf = new int[0];
+
+        /**
+         * @param var 变量, 按下标加入时为null
+         */
+        private void add(int index, IntVar var, long weight){
+            if(index >= this.slotOf.length){
+                int oldLength = this.slotOf.length;
+                this.slotOf = Arrays.copyOf(this.slotOf, Math.max(index + 1, oldLength * 2));
+                Arrays.fill(this.slotOf, oldLength, this.slotOf.length, -1);
+            }
+            int slot = this.slotOf[index];
+            if(slot >= 0){
+                this.weights[slot] = Math.addExact(this.weights[slot], weight);
+                if(this.vars[slot] == null){
+                    this.vars[slot] = var;
+                }
+                return;
+            }
+            if(this.size == this.vars.length){
+                int capacity = this.size * 2;
+                this.vars = Arrays.copyOf(this.vars, capacity);
+                this.varIndices = Arrays.copyOf(this.varIndices, capacity);
+                this.weights = Arrays.copyOf(this.weights, capacity);
+            }
+            this.vars[this.size] = var;
+            this.varIndices[this.size] = index;
+            this.weights[this.size] = weight;
+            this.slotOf[index] = this.size++;
+        }
+
+        /**
+         * 去掉合并后权重为0的项
+         * @return 去除后的项数
+         */
+        private int compact(){
+            int n = 0;
+            for(int i=0; i<this.size; i++){
+                if(this.weights[i] == 0){
+                    this.slotOf[this.varIndices[i]] = -1;
+                    continue;
+                }
+                if(n != i){
+                    this.vars[n] = this.vars[i];
+                    this.varIndices[n] = this.varIndices[i];
+                    this.weights[n] = this.weights[i];
+                    this.slotOf[this.varIndices[n]] = n;
+                }
+                n++;
+            }
+            this.size = n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package utils;
+
+/**
+ * @author kun.hu
+ * optionalMax/optionalMin的可选性编码方式
+ */
+public enum OptionalEncoding {
+
+    /**
+     * 大M: value ± (1-opt)*maxValue, 每个元素一个辅助整数变量
+     * 无选中时max结果为max(value)-maxValue, min结果为min(value)+maxValue, 随值变量取值而变
+     */
+    BIG_M,
+
+    /**
+     * 执行文字: opt => result >= value(max)/result <= value(min), 每个元素一个选中bool变量
+     * 无选中时max结果固定为minValue, min结果固定为maxValue, 与BIG_M不同; 调用方依赖无选中时的结果时不能随意切换编码
+     */
+    ENFORCEMENT,
+
+    /**
+     * element约束: result = [values..., 默认值][index], opt控制index的可取值, 只增加一个下标变量
+     * 无选中时同ENFORCEMENT
+     * 与ENFORCEMENT在不同规模下的求解耗时对比见benchmark模块OptionalEncodingBenchmark
+     */
+    ELEMENT
+}
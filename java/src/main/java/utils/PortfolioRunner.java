@@ -0,0 +1,336 @@
+package utils;
+
+import callback.StreamingSolutionCallback;
+import com.google.ortools.linearsolver.MPSolver;
+import com.google.ortools.linearsolver.MPVariable;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import lombok.extern.slf4j.Slf4j;
+import model.AlgorithmResultEnum;
+import model.BackendOutcome;
+import model.PortfolioResult;
+import model.SolverBackendEnum;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author kun.hu
+ * 多后端组合求解
+ * 同一LinearIntModel分别转为CP-SAT/CBC/SCIP模型, 按线程预算并发求解;
+ * 任一后端证明最优(或无解)即返回并停止其余后端, 否则截止时返回最优的已有结果
+ */
+@Slf4j
+public class PortfolioRunner {
+
+    /**
+     * 组合求解线程池(守护线程)
+     */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "portfolio-solver");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 截止后等待后端返回的宽限时间
+     */
+    private static final long GRACE_MILLIS = 1000;
+
+    /**
+     * 各后端线程数
+     */
+    private final Map<SolverBackendEnum, Integer> threadBudget = new LinkedHashMap<>();
+
+    /**
+     * 各后端获胜次数/参与次数
+     */
+    private final Map<SolverBackendEnum, LongAdder> wins = new EnumMap<>(SolverBackendEnum.class);
+    private final Map<SolverBackendEnum, LongAdder> runs = new EnumMap<>(SolverBackendEnum.class);
+
+    /**
+     * @param totalThreads 总线程预算, MIP后端各1个线程, 其余全部分给CP-SAT
+     * @param backends 参与的后端
+     */
+    public PortfolioRunner(int totalThreads, SolverBackendEnum... backends){
+        if(backends.length == 0 || totalThreads < backends.length){
+            throw new IllegalArgumentException("totalThreads must be at least the number of backends: " + totalThreads);
+        }
+        int mipCount = 0;
+        for(SolverBackendEnum backend : backends){
+            if(backend != SolverBackendEnum.CP_SAT){
+                mipCount++;
+            }
+        }
+        for(SolverBackendEnum backend : backends){
+            this.threadBudget.put(backend, backend == SolverBackendEnum.CP_SAT ? totalThreads - mipCount : 1);
+            this.wins.put(backend, new LongAdder());
+            this.runs.put(backend, new LongAdder());
+        }
+    }
+
+    /**
+     * 组合求解
+     * 返回时不等待落败的后端结束: CP-SAT立即停止, MIP后端尝试中断; CBC不支持中断, 会在后台继续运行到自身时限(timeoutMillis)才退出,
+     * 期间仍占用其线程预算和内存; 连续调用时实际并发线程数可能超出totalThreads
+     * @param model 后端无关模型
+     * @param timeoutMillis 求解时长上限
+     * @return 获胜后端的结果; 所有后端均无结论(超时/异常)时为UNKNOWN, 不计获胜
+     */
+    public PortfolioResult solve(LinearIntModel model, long timeoutMillis){
+        long startMillis = System.currentTimeMillis();
+        long deadline = startMillis + timeoutMillis;
+        CompletionService<BackendOutcome> completion = new ExecutorCompletionService<>(EXECUTOR);
+        List<BackendTask> tasks = new ArrayList<>();
+        for(Map.Entry<SolverBackendEnum, Integer> entry : this.threadBudget.entrySet()){
+            BackendTask task = new BackendTask(entry.getKey(), entry.getValue(), model, deadline);
+            tasks.add(task);
+            completion.submit(task::run);
+            this.runs.get(entry.getKey()).increment();
+        }
+
+        List<BackendOutcome> outcomes = new ArrayList<>();
+        BackendOutcome best = null;
+        try {
+            while(outcomes.size() < tasks.size()){
+                long waitMillis = deadline + GRACE_MILLIS - System.currentTimeMillis();
+                Future<BackendOutcome> done = completion.poll(Math.max(0, waitMillis), TimeUnit.MILLISECONDS);
+                if(done == null){
+                    break;
+                }
+                BackendOutcome outcome;
+                try {
+                    outcome = done.get();
+                }catch (ExecutionException e){
+                    log.error("组合求解后端异常", e.getCause());
+                    outcomes.add(null);
+                    continue;
+                }
+                outcomes.add(outcome);
+                if(isBetter(outcome, best, model.isMaximize())){
+                    best = outcome;
+                }
+                // 已证明最优或无解, 无需等待其余后端
+                if(outcome.getStatus() == AlgorithmResultEnum.OPTIMAL || outcome.getStatus() == AlgorithmResultEnum.INFEASIBLE){
+                    best = outcome;
+                    break;
+                }
+            }
+        }catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        // 停止其余后端
+        tasks.forEach(BackendTask::stop);
+        outcomes.removeIf(o -> o == null);
+
+        long wallMillis = System.currentTimeMillis() - startMillis;
+        // 超时/异常等无结论的结果不计为获胜
+        if(best == null || !isConclusive(best.getStatus())){
+            log.info("组合求解无结果, wallTime: {}", wallMillis);
+            return new PortfolioResult(null, AlgorithmResultEnum.UNKNOWN, Double.NaN, new long[0], wallMillis, outcomes);
+        }
+        this.wins.get(best.getBackend()).increment();
+        log.info("组合求解获胜: {}, {}, obj: {}, wallTime: {}", best.getBackend().getDesc(),
+                best.getStatus().getResultDesc(), best.getObjective(), wallMillis);
+        return new PortfolioResult(best.getBackend(), best.getStatus(), best.getObjective(), best.getSolution(), wallMillis, outcomes);
+    }
+
+    /**
+     * @return 各后端获胜次数
+     */
+    public Map<SolverBackendEnum, Long> getWinCounts(){
+        return counts(this.wins);
+    }
+
+    /**
+     * @return 各后端参与次数
+     */
+    public Map<SolverBackendEnum, Long> getRunCounts(){
+        return counts(this.runs);
+    }
+
+    private static Map<SolverBackendEnum, Long> counts(Map<SolverBackendEnum, LongAdder> adders){
+        Map<SolverBackendEnum, Long> counts = new EnumMap<>(SolverBackendEnum.class);
+        adders.forEach((backend, adder) -> counts.put(backend, adder.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * @return 是否为有结论的结果: 找到解或证明无解
+     */
+    private static boolean isConclusive(AlgorithmResultEnum status){
+        return status == AlgorithmResultEnum.OPTIMAL || status == AlgorithmResultEnum.FEASIBLE || status == AlgorithmResultEnum.INFEASIBLE;
+    }
+
+    /**
+     * 证明最优 > 可行解(目标更优者) > 其他
+     */
+    private static boolean isBetter(BackendOutcome outcome, BackendOutcome best, boolean maximize){
+        if(outcome.getStatus() != AlgorithmResultEnum.OPTIMAL && outcome.getStatus() != AlgorithmResultEnum.FEASIBLE){
+            return best == null;
+        }
+        if(best == null || (best.getStatus() != AlgorithmResultEnum.OPTIMAL && best.getStatus() != AlgorithmResultEnum.FEASIBLE)){
+            return true;
+        }
+        if(outcome.getStatus() != best.getStatus()){
+            return outcome.getStatus() == AlgorithmResultEnum.OPTIMAL;
+        }
+        return maximize ? outcome.getObjective() > best.getObjective() : outcome.getObjective() < best.getObjective();
+    }
+
+    /**
+     * 单个后端的求解任务, 可从其他线程停止
+     */
+    private static class BackendTask {
+        private final SolverBackendEnum backend;
+        private final int threads;
+        private final LinearIntModel model;
+        private final long deadline;
+
+        private StreamingSolutionCallback callback;
+        private MPSolver mpSolver;
+        private boolean stopped;
+        private boolean finished;
+
+        BackendTask(SolverBackendEnum backend, int threads, LinearIntModel model, long deadline){
+            this.backend = backend;
+            this.threads = threads;
+            this.model = model;
+            this.deadline = deadline;
+        }
+
+        BackendOutcome run(){
+            long startMillis = System.currentTimeMillis();
+            try {
+                BackendOutcome outcome = this.backend == SolverBackendEnum.CP_SAT ? runCpSat() : runMip();
+                outcome.setWallMillis(System.currentTimeMillis() - startMillis);
+                return outcome;
+            }finally {
+                synchronized (this){
+                    this.finished = true;
+                    if(this.mpSolver != null){
+                        this.mpSolver.delete();
+                        this.mpSolver = null;
+                    }
+                }
+            }
+        }
+
+        private BackendOutcome runCpSat(){
+            CpModel cpModel = this.model.toCpModel();
+            CpSolver solver = new CpSolver();
+            solver.getParameters().setNumSearchWorkers(this.threads);
+            solver.getParameters().setMaxTimeInSeconds(remainingSeconds());
+            StreamingSolutionCallback cb = new StreamingSolutionCallback(cpModel, Collections.emptyList(), Collections.emptyList());
+            synchronized (this){
+                this.callback = cb;
+                if(this.stopped){
+                    cb.requestStop("组合求解其他后端已获胜");
+                }
+            }
+            CpSolverStatus status;
+            cb.start();
+            try {
+                status = solver.solveWithSolutionCallback(cpModel, cb);
+            }finally {
+                cb.close();
+            }
+            AlgorithmResultEnum result = toResult(status);
+            boolean solved = result == AlgorithmResultEnum.OPTIMAL || result == AlgorithmResultEnum.FEASIBLE;
+            return new BackendOutcome(this.backend, this.threads, result,
+                    solved ? solver.objectiveValue() : Double.NaN,
+                    solved ? CpSolutionUtil.toArray(solver.response()) : new long[0], 0, isStopped());
+        }
+
+        private BackendOutcome runMip(){
+            MPSolver solver = new MPSolver(this.backend.name(), this.backend == SolverBackendEnum.SCIP
+                    ? MPSolver.OptimizationProblemType.SCIP_MIXED_INTEGER_PROGRAMMING
+                    : MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+            synchronized (this){
+                this.mpSolver = solver;
+            }
+            String error = solver.loadModelFromProto(this.model.toMPModelProto());
+            if(error != null && !error.isEmpty()){
+                throw new IllegalStateException("加载模型失败: " + error);
+            }
+            solver.setNumThreads(this.threads);
+            solver.setTimeLimit(Math.max(1, (long) (remainingSeconds() * 1000)));
+            MPSolver.ResultStatus status = isStopped() ? MPSolver.ResultStatus.NOT_SOLVED : solver.solve();
+            AlgorithmResultEnum result = toResult(status);
+            boolean solved = result == AlgorithmResultEnum.OPTIMAL || result == AlgorithmResultEnum.FEASIBLE;
+            long[] solution = new long[0];
+            if(solved){
+                MPVariable[] vars = solver.variables();
+                solution = new long[vars.length];
+                for(int i=0; i<vars.length; i++){
+                    solution[i] = Math.round(vars[i].solutionValue());
+                }
+            }
+            return new BackendOutcome(this.backend, this.threads, result,
+                    solved ? solver.objective().value() : Double.NaN, solution, 0, isStopped());
+        }
+
+        /**
+         * 停止求解: CP-SAT立即停止并返回当前解; MPSolver尝试中断(CBC不支持中断, 会在时限到达时返回)
+         */
+        synchronized void stop(){
+            if(this.finished || this.stopped){
+                return;
+            }
+            this.stopped = true;
+            if(this.callback != null){
+                this.callback.requestStop("组合求解其他后端已获胜");
+            }
+            if(this.mpSolver != null){
+                this.mpSolver.interruptSolve();
+            }
+        }
+
+        private synchronized boolean isStopped(){
+            return this.stopped;
+        }
+
+        private double remainingSeconds(){
+            return Math.max(0.001, (this.deadline - System.currentTimeMillis()) / 1000.0);
+        }
+
+        private static AlgorithmResultEnum toResult(CpSolverStatus status){
+            switch (status){
+                case OPTIMAL:
+                    return AlgorithmResultEnum.OPTIMAL;
+                case FEASIBLE:
+                    return AlgorithmResultEnum.FEASIBLE;
+                case INFEASIBLE:
+                    return AlgorithmResultEnum.INFEASIBLE;
+                default:
+                    return AlgorithmResultEnum.UNKNOWN;
+            }
+        }
+
+        private static AlgorithmResultEnum toResult(MPSolver.ResultStatus status){
+            switch (status){
+                case OPTIMAL:
+                    return AlgorithmResultEnum.OPTIMAL;
+                case FEASIBLE:
+                    return AlgorithmResultEnum.FEASIBLE;
+                case INFEASIBLE:
+                    return AlgorithmResultEnum.INFEASIBLE;
+                default:
+                    return AlgorithmResultEnum.UNKNOWN;
+            }
+        }
+    }
+}
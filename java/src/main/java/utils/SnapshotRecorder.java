@@ -0,0 +1,196 @@
+package utils;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverResponse;
+import com.google.ortools.sat.SatParameters;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author kun.hu
+ * 求解快照记录: 每次求解的模型、求解参数、求解结果写入一个文件, 供离线回放和性能分析
+ * 文件格式(gzip压缩): 魔数, 版本, 任务名, 时间戳, 依次为长度前缀的CpModelProto/SatParameters/CpSolverResponse; 超出个数上限时删除最旧的快照
+ */
+@Slf4j
+public class SnapshotRecorder {
+
+    /**
+     * 文件魔数"CPSN"
+     */
+    private static final int MAGIC = 0x4350534E;
+
+    private static final int VERSION = 1;
+
+    private static final String SUFFIX = ".snap.gz";
+
+    /**
+     * 快照目录
+     */
+    @Getter
+    private final Path dir;
+
+    /**
+     * 最多保留的快照数
+     */
+    @Getter
+    private final int maxFiles;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SnapshotRecorder(String dir, int maxFiles){
+        this.dir = Paths.get(dir);
+        this.maxFiles = maxFiles;
+        try{
+            Files.createDirectories(this.dir);
+        }catch (IOException e){
+            log.error("快照目录创建失败, dir: {}", dir, e);
+        }
+    }
+
+    /**
+     * 写入快照, 先写临时文件再原子替换; 写入失败(含参数为null)只打印日志并删除临时文件
+     * @param name 任务名
+     * @param model 模型
+     * @param parameters 求解参数
+     * @param response 求解结果
+     * @return 快照文件, 失败返回null
+     */
+    public synchronized Path record(String name, CpModelProto model, SatParameters parameters, CpSolverResponse response){
+        long timestamp = System.currentTimeMillis();
+        Path file = this.dir.resolve(name + "-" + timestamp + "-" + this.sequence.incrementAndGet() + SUFFIX);
+        Path tmp = this.dir.resolve(file.getFileName() + ".tmp");
+        try{
+            try(DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))){
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(name);
+                out.writeLong(timestamp);
+                model.writeDelimitedTo(out);
+                parameters.writeDelimitedTo(out);
+                response.writeDelimitedTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            evict();
+            return file;
+        }catch (IOException | RuntimeException e){
+            log.error("快照写入失败: {}", file, e);
+            try{
+                Files.deleteIfExists(tmp);
+            }catch (IOException ignored){
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return 目录中的快照文件, 按文件名中的(时间戳, 序号)从旧到新; 文件名无法解析的排在最前
+     */
+    public List<Path> list() throws IOException {
+        try(Stream<Path> stream = Files.list(this.dir)){
+            return stream.filter(p -> p.toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong((Path p) -> parseOrder(p)[0])
+                            .thenComparingLong(p -> parseOrder(p)[1])
+                            .thenComparing(Path::toString))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 读取快照
+     * @throws IOException 读取失败或格式不符
+     */
+    public static Snapshot read(Path file) throws IOException {
+        try(DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))){
+            if(in.readInt() != MAGIC || in.readInt() != VERSION){
+                throw new IOException("快照格式或版本不符: " + file);
+            }
+            String name = in.readUTF();
+            long timestamp = in.readLong();
+            CpModelProto model = CpModelProto.parseDelimitedFrom(in);
+            SatParameters parameters = SatParameters.parseDelimitedFrom(in);
+            CpSolverResponse response = CpSolverResponse.parseDelimitedFrom(in);
+            return new Snapshot(name, timestamp, model, parameters, response);
+        }
+    }
+
+    /**
+     * 按记录时的参数重新求解
+     * @param snapshot 快照
+     * @param parameters 覆盖的参数(如固定随机种子、单线程), 可为null
+     * @return 本次求解结果
+     */
+    public static CpSolverResponse replay(Snapshot snapshot, SatParameters parameters){
+        CpModel model = new CpModel();
+        model.getBuilder().mergeFrom(snapshot.getModel());
+        CpSolver solver = new CpSolver();
+        solver.getParameters().mergeFrom(snapshot.getParameters());
+        if(parameters != null){
+            solver.getParameters().mergeFrom(parameters);
+        }
+        solver.solve(model);
+        return solver.response();
+    }
+
+    /**
+     * 超出个数上限时, 从旧到新删除
+     */
+    private void evict() throws IOException {
+        List<Path> files = list();
+        for(int i=0; i<files.size() - this.maxFiles; i++){
+            Files.deleteIfExists(files.get(i));
+            log.info("快照淘汰: {}", files.get(i).getFileName());
+        }
+    }
+
+    /**
+     * 从文件名"任务名-时间戳-序号.snap.gz"解析排序键, 任务名可含'-', 故从末尾解析
+     * @return {时间戳, 序号}, 无法解析时为{-1, -1}
+     */
+    private static long[] parseOrder(Path file){
+        String name = file.getFileName().toString();
+        name = name.substring(0, name.length() - SUFFIX.length());
+        int seqStart = name.lastIndexOf('-');
+        int timestampStart = seqStart <= 0 ? -1 : name.lastIndexOf('-', seqStart - 1);
+        if(timestampStart < 0){
+            return new long[]{-1, -1};
+        }
+        try{
+            return new long[]{Long.parseLong(name.substring(timestampStart + 1, seqStart)), Long.parseLong(name.substring(seqStart + 1))};
+        }catch (NumberFormatException e){
+            return new long[]{-1, -1};
+        }
+    }
+
+    /**
+     * 一次求解的快照
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final String name;
+        private final long timestamp;
+        private final CpModelProto model;
+        private final SatParameters parameters;
+        private final CpSolverResponse response;
+    }
+}
@@ -0,0 +1,80 @@
+package utils;
+
+import lombok.Getter;
+
+/**
+ * @author kun.hu
+ * 求解资源租约, 记录分配的并行度及排队/求解耗时
+ */
+public class SolverLease {
+
+    /**
+     * 任务名
+     */
+    @Getter
+    private final String jobName;
+
+    /**
+     * 分配的搜索线程数
+     */
+    @Getter
+    private final int workers;
+
+    /**
+     * 截止时刻(毫秒时间戳)
+     */
+    @Getter
+    private final long deadlineMillis;
+
+    /**
+     * 排队耗时(毫秒)
+     */
+    @Getter
+    private final long queueMillis;
+
+    /**
+     * 求解耗时(毫秒), 释放后有效
+     */
+    @Getter
+    private long solveMillis;
+
+    /**
+     * 获得租约的时刻(毫秒时间戳)
+     */
+    private final long grantedMillis;
+
+    private final SolverScheduler scheduler;
+
+    private boolean released;
+
+    SolverLease(SolverScheduler scheduler, String jobName, int workers, long deadlineMillis, long queueMillis){
+        this.scheduler = scheduler;
+        this.jobName = jobName;
+        this.workers = workers;
+        this.deadlineMillis = deadlineMillis;
+        this.queueMillis = queueMillis;
+        this.grantedMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @return 距截止时刻的剩余时长(秒), 无截止时刻返回正无穷
+     */
+    public double getRemainingSeconds(){
+        if(this.deadlineMillis == Long.MAX_VALUE){
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.max(0, this.deadlineMillis - System.currentTimeMillis()) / 1000.0;
+    }
+
+    /**
+     * 归还搜索线程, 重复调用无副作用
+     */
+    public synchronized void release(){
+        if(this.released){
+            return;
+        }
+        this.released = true;
+        this.solveMillis = System.currentTimeMillis() - this.grantedMillis;
+        this.scheduler.release(this);
+    }
+}
@@ -0,0 +1,203 @@
+package utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @author kun.hu
+ * 共享求解调度器
+ * 按全局核数预算分配搜索线程, 资源不足时排队或缩减并行度; 按优先级(高优先)和截止时刻(早优先)决定准入顺序
+ */
+@Slf4j
+public class SolverScheduler {
+
+    /**
+     * 进程内共享实例
+     */
+    private static volatile SolverScheduler shared;
+
+    /**
+     * 搜索线程总预算
+     */
+    @Getter
+    private final int totalWorkers;
+
+    /**
+     * 空闲搜索线程数
+     */
+    private int freeWorkers;
+
+    /**
+     * 排队中的任务
+     */
+    private final PriorityQueue<Ticket> waiting = new PriorityQueue<>(Comparator
+            .comparingInt((Ticket t) -> -t.priority)
+            .thenComparingLong(t -> t.deadlineMillis)
+            .thenComparingLong(t -> t.seq));
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition changed = this.lock.newCondition();
+
+    private long seq;
+
+    /**
+     * 统计: 完成任务数, 拒绝任务数, 累计排队耗时, 累计求解耗时
+     */
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong rejectedJobs = new AtomicLong();
+    private final AtomicLong totalQueueMillis = new AtomicLong();
+    private final AtomicLong totalSolveMillis = new AtomicLong();
+
+    public SolverScheduler(int totalWorkers){
+        if(totalWorkers <= 0){
+            throw new IllegalArgumentException("totalWorkers must be positive: " + totalWorkers);
+        }
+        this.totalWorkers = totalWorkers;
+        this.freeWorkers = totalWorkers;
+    }
+
+    /**
+     * @return 以机器核数为预算的共享调度器
+     */
+    public static SolverScheduler getShared(){
+        if(shared == null){
+            synchronized (SolverScheduler.class){
+                if(shared == null){
+                    shared = new SolverScheduler(Runtime.getRuntime().availableProcessors());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * 申请搜索线程, 资源不足时阻塞排队
+     * @param jobName 任务名
+     * @param desiredWorkers 期望线程数
+     * @param minWorkers 最少线程数, 空闲线程不少于该值才准入
+     * @param priority 优先级, 越大越优先
+     * @param deadlineMillis 截止时刻(毫秒时间戳), 超时仍未准入则放弃
+     * @return 租约, 截止前未准入返回null
+     */
+    public SolverLease acquire(String jobName, int desiredWorkers, int minWorkers, int priority, long deadlineMillis)
+            throws InterruptedException {
+        int min = Math.max(1, Math.min(minWorkers, this.totalWorkers));
+        int desired = Math.max(min, Math.min(desiredWorkers, this.totalWorkers));
+        long enqueueMillis = System.currentTimeMillis();
+
+        this.lock.lock();
+        try{
+            Ticket ticket = new Ticket(priority, deadlineMillis, this.seq++);
+            this.waiting.add(ticket);
+            try{
+                while(this.waiting.peek() != ticket || this.freeWorkers < min){
+                    long waitMillis = deadlineMillis - System.currentTimeMillis();
+                    if(waitMillis <= 0){
+                        this.rejectedJobs.incrementAndGet();
+                        log.info("求解任务排队超时, job: {}, 排队: {}ms", jobName, System.currentTimeMillis() - enqueueMillis);
+                        return null;
+                    }
+                    this.changed.await(waitMillis, TimeUnit.MILLISECONDS);
+                }
+            }finally {
+                this.waiting.remove(ticket);
+                this.changed.signalAll();
+            }
+
+            // 后面仍有任务排队时只分配公平份额, 避免单个任务占满
+            int granted = Math.min(desired, this.freeWorkers);
+            if(!this.waiting.isEmpty()){
+                granted = Math.max(min, Math.min(granted, this.freeWorkers / (this.waiting.size() + 1)));
+            }
+            this.freeWorkers -= granted;
+
+            long queueMillis = System.currentTimeMillis() - enqueueMillis;
+            this.totalQueueMillis.addAndGet(queueMillis);
+            log.info("求解任务准入, job: {}, 线程: {}/{}, 排队: {}ms, 剩余空闲: {}",
+                    jobName, granted, desired, queueMillis, this.freeWorkers);
+            return new SolverLease(this, jobName, granted, deadlineMillis, queueMillis);
+        }finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * 归还租约中的搜索线程
+     */
+    void release(SolverLease lease){
+        this.lock.lock();
+        try{
+            this.freeWorkers += lease.getWorkers();
+            this.changed.signalAll();
+        }finally {
+            this.lock.unlock();
+        }
+        this.completedJobs.incrementAndGet();
+        this.totalSolveMillis.addAndGet(lease.getSolveMillis());
+        log.info("求解任务完成, job: {}, 线程: {}, 排队: {}ms, 求解: {}ms",
+                lease.getJobName(), lease.getWorkers(), lease.getQueueMillis(), lease.getSolveMillis());
+    }
+
+    /**
+     * @return 当前空闲搜索线程数
+     */
+    public int getFreeWorkers(){
+        this.lock.lock();
+        try{
+            return this.freeWorkers;
+        }finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return 当前排队任务数
+     */
+    public int getWaitingCount(){
+        this.lock.lock();
+        try{
+            return this.waiting.size();
+        }finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getCompletedJobs(){
+        return this.completedJobs.get();
+    }
+
+    public long getRejectedJobs(){
+        return this.rejectedJobs.get();
+    }
+
+    public long getTotalQueueMillis(){
+        return this.totalQueueMillis.get();
+    }
+
+    public long getTotalSolveMillis(){
+        return this.totalSolveMillis.get();
+    }
+
+    /**
+     * 排队凭证
+     */
+    private static class Ticket {
+        private final int priority;
+        private final long deadlineMillis;
+        private final long seq;
+
+        private Ticket(int priority, long deadlineMillis, long seq){
+            this.priority = priority;
+            this.deadlineMillis = deadlineMillis;
+            this.seq = seq;
+        }
+    }
+}
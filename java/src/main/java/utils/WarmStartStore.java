@@ -0,0 +1,66 @@
+package utils;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author kun.hu
+ * 热启动解存储: 按任务key保存上一次求解的变量取值(变量key->取值), 超出容量时淘汰最久未使用的任务
+ */
+public class WarmStartStore {
+
+    /**
+     * 最多保存的任务数
+     */
+    @Getter
+    private final int maxEntries;
+
+    /**
+     * 热启动可行性检查时长(秒), <=0则不检查
+     */
+    @Getter
+    private final double feasibilityCheckSeconds;
+
+    /**
+     * key=任务key, value={key=变量key, value=取值}
+     */
+    private final Map<String, Map<String, Long>> assignments;
+
+    public WarmStartStore(int maxEntries, double feasibilityCheckSeconds){
+        this.maxEntries = maxEntries;
+        this.feasibilityCheckSeconds = feasibilityCheckSeconds;
+        this.assignments = new LinkedHashMap<String, Map<String, Long>>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Long>> eldest) {
+                return size() > WarmStartStore.this.maxEntries;
+            }
+        };
+    }
+
+    public WarmStartStore(int maxEntries){
+        this(maxEntries, 0);
+    }
+
+    /**
+     * @param key 任务key
+     * @return 上一次的解, 不存在返回空Map
+     */
+    public synchronized Map<String, Long> get(String key){
+        return this.assignments.getOrDefault(key, Collections.emptyMap());
+    }
+
+    /**
+     * @param key 任务key
+     * @param assignment 本次的解
+     */
+    public synchronized void put(String key, Map<String, Long> assignment){
+        this.assignments.put(key, Collections.unmodifiableMap(assignment));
+    }
+
+    public synchronized int size(){
+        return this.assignments.size();
+    }
+}
@@ -0,0 +1,289 @@
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import model.AlgorithmResultEnum;
+import model.FallbackStep;
+import model.RetryPolicy;
+import model.SolveAttempt;
+import model.StatusResult;
+import org.junit.Test;
+import utils.CpModelCache;
+import utils.CpModelLinter;
+import utils.ModelLintException;
+import utils.ORToolsLoader;
+import utils.SnapshotRecorder;
+import utils.SolverLease;
+import utils.SolverScheduler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class AbstractCpOptTest {
+    static {
+        ORToolsLoader.load("/Users/bianlifeng/my_project/ortools_utils/java/src/lib/libjniortools.jnilib");
+    }
+
+    /**
+     * 单背包: 收益最大, 重量不超过容量
+     */
+    static class KnapsackOpt extends AbstractCpOpt<long[]> {
+        long[] values = {6, 10, 12, 7, 3, 9};
+        long[] weights = {1, 2, 3, 2, 1, 3};
+        long capacity = 6;
+
+        /**
+         * 是否额外创建一个未使用的变量(用于触发模型检查)
+         */
+        boolean addUnusedVar;
+
+        /**
+         * 模型缓存指纹, 为null不使用缓存
+         */
+        String fingerprint;
+
+        /**
+         * 字典序目标优先级, 为null按加权和求解
+         */
+        List<String> objPriority;
+
+        /**
+         * 第i次求解(字典序下即第i阶段, 从1开始)使用的重试策略, 未指定用默认策略
+         */
+        Map<Integer, RetryPolicy> retryPolicies = new HashMap<>();
+
+        int workers = 1;
+
+        private int retryPolicyCalls;
+
+        private IntVar[] x;
+
+        @Override
+        protected void init() {}
+
+        @Override
+        protected void doCreateVars() {
+            this.x = new IntVar[this.values.length];
+            for(int i=0; i<this.x.length; i++){
+                this.x[i] = registerVar("x" + i, this.model.newBoolVar("x" + i));
+            }
+            if(this.addUnusedVar){
+                this.model.newIntVar(0, 10, "unused");
+            }
+        }
+
+        @Override
+        protected void doComputeInterVar() {}
+
+        @Override
+        protected void doAddConstraints() {
+            this.model.addLessOrEqual(LinearExpr.scalProd(this.x, this.weights), this.capacity);
+        }
+
+        @Override
+        protected void doSetObjective() {
+            for(int i=0; i<this.x.length; i++){
+                refreshObjVarWeight("value", this.x[i], this.values[i]);
+                refreshObjVarWeight("count", this.x[i], 1);
+            }
+            maximizeObj();
+        }
+
+        @Override
+        protected void doSetSolverParam() {
+            this.solver.getParameters().setMaxTimeInSeconds(10);
+            this.solver.getParameters().setNumSearchWorkers(this.workers);
+            this.solver.getParameters().setLogSearchProgress(false);
+        }
+
+        @Override
+        protected String getModelFingerprint() {
+            return this.fingerprint;
+        }
+
+        @Override
+        protected List<String> getObjPriority() {
+            return this.objPriority;
+        }
+
+        @Override
+        protected RetryPolicy getRetryPolicy() {
+            return this.retryPolicies.getOrDefault(++this.retryPolicyCalls, super.getRetryPolicy());
+        }
+
+        /**
+         * 备用模型: 同样的变量和容量约束, 不含目标
+         */
+        @Override
+        protected CpModel getFallbackModel() {
+            CpModel fallback = new CpModel();
+            IntVar[] vars = new IntVar[this.values.length];
+            for(int i=0; i<vars.length; i++){
+                vars[i] = fallback.newBoolVar("x" + i);
+            }
+            fallback.addLessOrEqual(LinearExpr.scalProd(vars, this.weights), this.capacity);
+            return fallback;
+        }
+
+        @Override
+        protected long[] parseResult() {
+            // 缓存命中时变量字段未赋值, 按key读取
+            long[] result = new long[this.values.length];
+            for(int i=0; i<result.length; i++){
+                result[i] = value("x" + i);
+            }
+            return result;
+        }
+
+        @Override
+        protected long[] getDefaultResult() {
+            return new long[0];
+        }
+    }
+
+    /**
+     * 随机大背包, 单线程下短时间内难以证明最优
+     */
+    private static KnapsackOpt randomKnapsack(int n){
+        KnapsackOpt opt = new KnapsackOpt();
+        Random random = new Random(7);
+        opt.values = new long[n];
+        opt.weights = new long[n];
+        for(int i=0; i<n; i++){
+            opt.weights[i] = 100 + random.nextInt(900);
+            opt.values[i] = opt.weights[i] + random.nextInt(50);
+        }
+        opt.capacity = Arrays.stream(opt.weights).sum() / 2;
+        return opt;
+    }
+
+    @Test
+    public void cancelAsync() {
+        KnapsackOpt opt = randomKnapsack(300);
+        AtomicReference<CompletableFuture<StatusResult<AlgorithmResultEnum, long[]>>> futureRef = new AtomicReference<>();
+        // 找到第一个解后取消
+        opt.addSolutionListener((callback, progress) -> futureRef.get().cancel(true));
+        List<Runnable> tasks = new ArrayList<>();
+        futureRef.set(opt.executeAsync(System.currentTimeMillis() + 60000, tasks::add));
+        tasks.get(0).run();
+
+        // 取消只停止搜索, future以当前最优解正常完成
+        CompletableFuture<StatusResult<AlgorithmResultEnum, long[]>> future = futureRef.get();
+        assertFalse(future.isCancelled());
+        StatusResult<AlgorithmResultEnum, long[]> result = future.join();
+        assertTrue(result.getStatus() == AlgorithmResultEnum.FEASIBLE || result.getStatus() == AlgorithmResultEnum.OPTIMAL);
+        assertEquals(opt.values.length, result.getResult().length);
+        long weight = 0;
+        for(int i=0; i<opt.weights.length; i++){
+            weight += opt.weights[i] * result.getResult()[i];
+        }
+        assertTrue(weight <= opt.capacity);
+        assertFalse(future.cancel(true));
+        // 截止时刻只对本次异步执行有效
+        assertEquals(Long.MAX_VALUE, opt.deadlineMillis);
+    }
+
+    @Test
+    public void stopRequestClearedAfterFailure() {
+        KnapsackOpt opt = new KnapsackOpt();
+        opt.addUnusedVar = true;
+        opt.withLinter(new CpModelLinter().strict(true));
+        opt.stopSearch();
+        try{
+            opt.execute();
+            fail();
+        }catch (ModelLintException expected){
+        }
+        // 上一次执行异常退出, 停止请求不能影响下一次执行
+        opt.addUnusedVar = false;
+        StatusResult<AlgorithmResultEnum, long[]> result = opt.execute();
+        assertEquals(AlgorithmResultEnum.OPTIMAL, result.getStatus());
+    }
+
+    @Test
+    public void lexicographicOnCacheHit() throws IOException {
+        CpModelCache cache = new CpModelCache(Files.createTempDirectory("cpm").toString(), Long.MAX_VALUE);
+        long[] objs = new long[2];
+        for(int run=0; run<2; run++){
+            KnapsackOpt opt = new KnapsackOpt();
+            opt.fingerprint = "knapsack";
+            opt.objPriority = Arrays.asList("value", "count");
+            opt.withModelCache(cache);
+            StatusResult<AlgorithmResultEnum, long[]> result = opt.execute();
+            assertEquals(AlgorithmResultEnum.OPTIMAL, result.getStatus());
+            assertEquals(run == 1, opt.isModelFromCache());
+            // 缓存命中后目标分组仍在, 字典序求解和目标值照常可用
+            objs[run] = opt.objValue("value") * 100 + opt.objValue("count");
+        }
+        assertEquals(1, cache.getHits());
+        assertEquals(objs[0], objs[1]);
+    }
+
+    @Test
+    public void lexicographicFallback() {
+        KnapsackOpt reference = new KnapsackOpt();
+        reference.objPriority = Arrays.asList("value", "count");
+        assertEquals(AlgorithmResultEnum.OPTIMAL, reference.execute().getStatus());
+
+        KnapsackOpt opt = new KnapsackOpt();
+        opt.objPriority = Arrays.asList("value", "count");
+        opt.workers = 2;
+        // 第1阶段降为单线程重试, 第2阶段切换备用模型重试
+        opt.retryPolicies.put(1, new RetryPolicy().retryOn(CpSolverStatus.OPTIMAL, CpSolverStatus.FEASIBLE)
+                .fallback(new FallbackStep("oneWorker", params -> params.setNumSearchWorkers(1), false)));
+        opt.retryPolicies.put(2, new RetryPolicy().retryOn(CpSolverStatus.OPTIMAL, CpSolverStatus.FEASIBLE)
+                .fallback(FallbackStep.fallbackModel()));
+        StatusResult<AlgorithmResultEnum, long[]> result = opt.execute();
+        assertEquals(AlgorithmResultEnum.OPTIMAL, result.getStatus());
+
+        List<SolveAttempt> attempts = result.getAttempts();
+        assertEquals(4, attempts.size());
+        assertEquals(1, attempts.get(1).getNumSearchWorkers());
+        // 第1阶段的参数降级不带入第2阶段
+        assertEquals(2, attempts.get(2).getNumSearchWorkers());
+        assertTrue(attempts.get(3).isFallbackModel());
+        // 备用模型上仍优化第2阶段目标, 且保留第1阶段的最优值
+        assertEquals(reference.objValue("value"), opt.objValue("value"));
+        assertEquals(reference.objValue("count"), opt.objValue("count"));
+    }
+
+    @Test
+    public void infeasible() {
+        KnapsackOpt opt = new KnapsackOpt();
+        opt.capacity = -1;
+        StatusResult<AlgorithmResultEnum, long[]> result = opt.execute();
+        assertEquals(AlgorithmResultEnum.INFEASIBLE, result.getStatus());
+        assertEquals(0, result.getResult().length);
+    }
+
+    @Test
+    public void schedulerRejected() throws InterruptedException, IOException {
+        SolverScheduler scheduler = new SolverScheduler(1);
+        SolverLease occupied = scheduler.acquire("occupied", 1, 1, 0, Long.MAX_VALUE);
+        SnapshotRecorder recorder = new SnapshotRecorder(Files.createTempDirectory("snap").toString(), 10);
+        try{
+            KnapsackOpt opt = new KnapsackOpt();
+            opt.withScheduler(scheduler, 0).withDeadline(System.currentTimeMillis() + 50).withSnapshotRecorder(recorder);
+            // 未获得求解资源时返回未知和默认结果, 不抛出异常, 与模型无解区分
+            StatusResult<AlgorithmResultEnum, long[]> result = opt.execute();
+            assertEquals(AlgorithmResultEnum.UNKNOWN, result.getStatus());
+            assertEquals(0, result.getResult().length);
+            assertTrue(Double.isNaN(opt.getSolveMetrics().getObjectiveValue()));
+            assertEquals(1, scheduler.getRejectedJobs());
+            // 未实际求解, 不记录快照
+            assertTrue(recorder.list().isEmpty());
+        }finally {
+            occupied.release();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package utils;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 相邻约束各编码方式的等价性(货架陈列: 每个商品占一组连续货位), 求解耗时对比见benchmark模块ContiguityEncodingBenchmark
+ */
+public class ContiguityEncodingTest {
+    static {
+        ORToolsLoader.load("/Users/bianlifeng/my_project/ortools_utils/java/src/lib/libjniortools.jnilib");
+    }
+
+    private static final int SLOTS = 8;
+
+    @Test
+    public void optionalNeighbor() {
+        long expected = solveShelf(SLOTS, ContiguityEncoding.MAX_MIN);
+        assertEquals(expected, solveShelf(SLOTS, ContiguityEncoding.START_LITERALS));
+        assertEquals(expected, solveShelf(SLOTS, ContiguityEncoding.AUTOMATON));
+    }
+
+    @Test
+    public void neighbor() {
+        assertEquals(solveNeighbor(SLOTS, ContiguityEncoding.MAX_MIN), solveNeighbor(SLOTS, ContiguityEncoding.NO_OVERLAP));
+    }
+
+    /**
+     * slots/2个商品占据连续且互不相同的位置, 最大化位置加权和
+     */
+    private static long solveNeighbor(int slots, ContiguityEncoding encoding){
+        CpModel model = new CpModel();
+        int items = slots / 2;
+        IntVar[] positionVars = new IntVar[items];
+        for(int i=0; i<items; i++){
+            positionVars[i] = model.newIntVar(0, slots - 1, "p" + i);
+        }
+        model.addAllDifferent(positionVars);
+        CpModelUtil.addNeighborConstraints(model, positionVars, encoding);
+        int[] weights = new int[items];
+        for(int i=0; i<items; i++){
+            weights[i] = (i * 7) % 5 + 1;
+        }
+        model.maximize(LinearExpr.scalProd(positionVars, weights));
+        CpSolver solver = new CpSolver();
+        solver.getParameters().setMaxTimeInSeconds(30);
+        assertEquals(CpSolverStatus.OPTIMAL, solver.solve(model));
+        return (long) solver.objectiveValue();
+    }
+
+    /**
+     * 3个商品, 每个选择若干连续货位(位置间断模拟隔板), 货位不共享, 最大化陈列收益
+     */
+    private static long solveShelf(int slots, ContiguityEncoding encoding){
+        CpModel model = new CpModel();
+        int items = 3;
+        // 每4个货位后有一块隔板, 位置编号跳过1
+        int[] positions = new int[slots];
+        for(int s=0; s<slots; s++){
+            positions[s] = s + s / 4;
+        }
+        IntVar[][] x = new IntVar[items][slots];
+        for(int i=0; i<items; i++){
+            for(int s=0; s<slots; s++){
+                x[i][s] = model.newBoolVar("x" + i + "_" + s);
+            }
+            CpModelUtil.addOptionalNeighborConstraints(model, positions, x[i], encoding);
+            model.addLessOrEqual(LinearExpr.sum(x[i]), 4);
+        }
+        for(int s=0; s<slots; s++){
+            IntVar[] column = new IntVar[items];
+            for(int i=0; i<items; i++){
+                column[i] = x[i][s];
+            }
+            model.addLessOrEqual(LinearExpr.sum(column), 1);
+        }
+        IntVar[] all = new IntVar[items * slots];
+        int[] gains = new int[items * slots];
+        for(int i=0; i<items; i++){
+            for(int s=0; s<slots; s++){
+                all[i * slots + s] = x[i][s];
+                gains[i * slots + s] = (i * 13 + s * 7) % 11 + 1;
+            }
+        }
+        model.maximize(LinearExpr.scalProd(all, gains));
+        CpSolver solver = new CpSolver();
+        solver.getParameters().setMaxTimeInSeconds(30);
+        solver.getParameters().setNumSearchWorkers(8);
+        assertEquals(CpSolverStatus.OPTIMAL, solver.solve(model));
+        return (long) solver.objectiveValue();
+    }
+}
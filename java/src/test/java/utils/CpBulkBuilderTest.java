@@ -0,0 +1,50 @@
+package utils;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearConstraintProto;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CpBulkBuilderTest {
+
+    @Test
+    public void rowAndColumnSums() {
+        CpModel model = new CpModel();
+        IntVar other = model.newBoolVar("other");
+        CpBulkBuilder bulk = new CpBulkBuilder(model);
+        CpBulkBuilder.VarBlock x = bulk.newBoolVarBlock(3, 2);
+        assertEquals(7, model.getBuilder().getVariablesCount());
+        assertEquals(1, x.index(0, 0));
+        assertEquals(6, x.index(2, 1));
+
+        bulk.addRowSums(x, 0, 1);
+        bulk.addColumnWeightedSums(x, new int[]{5, 0, 7}, new long[]{0, 0}, new long[]{10, 12});
+        assertEquals(5, model.getBuilder().getConstraintsCount());
+
+        // 第1列: 5*x[0][1] + 7*x[2][1] <= 12, 系数0的项不写入
+        LinearConstraintProto column = model.getBuilder().getConstraints(4).getLinear();
+        assertEquals(2, column.getVarsCount());
+        assertEquals(x.index(0, 1), column.getVars(0));
+        assertEquals(7, column.getCoeffs(1));
+        assertEquals(12, column.getDomain(1));
+
+        // CSR: other + 2*x[1][0] >= 1
+        bulk.addCsrConstraints(new int[]{0, 2}, new int[]{other.getIndex(), x.index(1, 0)}, new long[]{1, 2},
+                new long[]{1}, new long[]{Long.MAX_VALUE});
+        assertEquals(6, model.getBuilder().getConstraintsCount());
+
+        bulk.setObjective(x, new int[][]{{1, 2}, {3, 4}, {5, 6}}, false);
+        assertEquals(6, model.getBuilder().getObjective().getVarsCount());
+        assertEquals(-1, model.getBuilder().getObjective().getScalingFactor(), 0);
+
+        long[] solution = new long[]{0, 1, 0, 0, 1, 0, 0};
+        assertArrayEquals(new long[]{1, 0}, x.values(solution)[0]);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void blockSizeOverflow() {
+        new CpBulkBuilder(new CpModel()).newBoolVarBlock(1 << 16, 1 << 16);
+    }
+}
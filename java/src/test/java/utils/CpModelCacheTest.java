@@ -0,0 +1,76 @@
+package utils;
+
+import com.google.ortools.sat.CpModelProto;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CpModelCacheTest {
+
+    private static CpModelProto newProto(int varCount){
+        CpModelProto.Builder builder = CpModelProto.newBuilder();
+        for(int i=0; i<varCount; i++){
+            builder.addVariablesBuilder().setName("x" + i).addDomain(0).addDomain(10);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void putAndGet() throws IOException {
+        Path dir = Files.createTempDirectory("cpm");
+        CpModelCache cache = new CpModelCache(dir.toString(), Long.MAX_VALUE);
+        assertNull(cache.get("k"));
+
+        CpModelProto proto = newProto(3);
+        Map<String, Integer> varIndexMap = Collections.singletonMap("x2", 2);
+        cache.put("k", proto, varIndexMap);
+
+        CpModelCache.CachedModel cached = cache.get("k");
+        assertNotNull(cached);
+        assertEquals(proto, cached.getProto());
+        assertEquals(varIndexMap, cached.getVarIndexMap());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void evictOldest() throws IOException, InterruptedException {
+        Path dir = Files.createTempDirectory("cpm");
+        CpModelCache cache = new CpModelCache(dir.toString(), 1);
+        cache.put("a", newProto(100), Collections.emptyMap());
+        // 超出上限, 只保留最新写入的一个
+        Thread.sleep(10);
+        cache.put("b", newProto(100), Collections.emptyMap());
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+    }
+
+    @Test
+    public void fingerprintIsStable() {
+        assertEquals(CpModelCache.fingerprint("a", "bc"), CpModelCache.fingerprint("a", "bc"));
+        assertNotEquals(CpModelCache.fingerprint("a", "bc"), CpModelCache.fingerprint("ab", "c"));
+    }
+
+    @Test
+    public void objectiveGroups() throws IOException {
+        Path dir = Files.createTempDirectory("cpm");
+        CpModelCache cache = new CpModelCache(dir.toString(), Long.MAX_VALUE);
+        ObjectiveAccumulator objAccumulator = new ObjectiveAccumulator();
+        objAccumulator.add("cost", 0, 3);
+        objAccumulator.add("cost", 2, -5);
+        objAccumulator.add("count", 1, 1);
+        cache.put("k", newProto(3), Collections.emptyMap(), objAccumulator);
+
+        ObjectiveAccumulator restored = cache.get("k").getObjAccumulator();
+        assertEquals(objAccumulator.getObjNames(), restored.getObjNames());
+        assertArrayEquals(new int[]{0, 2}, restored.getVarIndices("cost"));
+        assertArrayEquals(new long[]{3, -5}, restored.getWeights("cost"));
+        assertEquals(-2, restored.evaluate("cost", i -> 1));
+    }
+}
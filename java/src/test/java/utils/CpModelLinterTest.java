@@ -0,0 +1,58 @@
+package utils;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import model.LintTypeEnum;
+import model.LintWarning;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CpModelLinterTest {
+    static {
+        ORToolsLoader.load("/Users/bianlifeng/my_project/ortools_utils/java/src/lib/libjniortools.jnilib");
+    }
+
+    @Test
+    public void lint() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(0, 10, "a");
+        IntVar b = model.newIntVar(0, 10, "b");
+        IntVar unused = model.newIntVar(0, 10, "unused");
+        IntVar huge = model.newIntVar(0, Integer.MAX_VALUE, "huge");
+        IntVar big = model.newIntVar(0, Long.MAX_VALUE / 2, "big");
+        model.newConstant(3);
+        model.newConstant(3);
+        model.addEquality(a, b);
+        model.addLessOrEqual(LinearExpr.scalProd(new IntVar[]{a, huge, big}, new long[]{1, 1, 4}), 100);
+        model.addProductEquality(a, new IntVar[]{huge, huge, huge});
+
+        List<LintWarning> warnings = new CpModelLinter().lint(model.getBuilder());
+        assertEquals(2, count(warnings, LintTypeEnum.SENTINEL_DOMAIN));
+        assertEquals(1, count(warnings, LintTypeEnum.LINEAR_OVERFLOW));
+        assertEquals(1, count(warnings, LintTypeEnum.PRODUCT_OVERFLOW));
+        assertEquals(2, count(warnings, LintTypeEnum.DUPLICATE_VAR));
+        assertEquals(1, count(warnings, LintTypeEnum.UNUSED_VAR));
+        assertEquals(unused.getIndex(), warnings.stream()
+                .filter(w -> w.getType() == LintTypeEnum.UNUSED_VAR).findFirst().get().getVarIndex());
+    }
+
+    @Test
+    public void strict() {
+        CpModel model = new CpModel();
+        model.newIntVar(0, 10, "unused");
+        try {
+            new CpModelLinter().strict(true).check(model.getBuilder());
+            fail();
+        }catch (ModelLintException e){
+            assertEquals(1, e.getWarnings().size());
+        }
+    }
+
+    private static long count(List<LintWarning> warnings, LintTypeEnum type){
+        return warnings.stream().filter(w -> w.getType() == type).count();
+    }
+}
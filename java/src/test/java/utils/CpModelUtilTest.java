@@ -3,6 +3,7 @@ package utils;
 import com.google.ortools.sat.CpModel;
 import com.google.ortools.sat.IntVar;
 import com.google.ortools.sat.IntervalVar;
+import com.google.ortools.sat.LinearExpr;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -21,4 +22,209 @@ public class CpModelUtilTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void constantPool() {
+        CpModel model = new CpModel();
+        assertSame(CpModelUtil.constant(model, 1), CpModelUtil.constant(model, 1));
+        assertNotSame(CpModelUtil.constant(model, 1), CpModelUtil.constant(new CpModel(), 1));
+
+        int n = 1000;
+        IntVar[] valueVars = new IntVar[n];
+        IntVar[] optionalVars = new IntVar[n];
+        for(int i=0; i<n; i++){
+            valueVars[i] = model.newIntVar(0, 100, "");
+            optionalVars[i] = model.newBoolVar("");
+        }
+        CpModelUtil.optionalMax(model, valueVars, optionalVars);
+        CpModelUtil.optionalMin(model, valueVars, optionalVars);
+        // 改造前每个元素各创建一个常量(共2n个), 现在整个模型只有常量池中的定值变量
+        long fixedVars = model.getBuilder().getVariablesList().stream()
+                .filter(v -> v.getDomainCount() == 2 && v.getDomain(0) == v.getDomain(1))
+                .count();
+        assertEquals(2, CpModelUtil.constantCount(model));
+        assertEquals(2, fixedVars);
+    }
+
+
+    @Test
+    public void tightDomains() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(-3, 5, "a");
+        IntVar b = model.newIntVar(2, 4, "b");
+        IntVar c = model.newIntVar(0, 10, "c");
+
+        IntVar sum = CpModelUtil.sum(model, new IntVar[]{b, c});
+        assertEquals(2, CpModelUtil.getMinDomain(sum));
+        assertEquals(14, CpModelUtil.getMaxDomain(sum));
+
+        // 默认下界0与推导范围[-7, 3]取交集
+        IntVar minus = CpModelUtil.linearExprToIntVar(model, CpModelUtil.minusExpr(a, b), "");
+        assertEquals(0, CpModelUtil.getMinDomain(minus));
+        assertEquals(3, CpModelUtil.getMaxDomain(minus));
+
+        IntVar product = CpModelUtil.productVar(model, new IntVar[]{a, b}, Integer.MIN_VALUE, Integer.MAX_VALUE, "");
+        assertEquals(-12, CpModelUtil.getMinDomain(product));
+        assertEquals(20, CpModelUtil.getMaxDomain(product));
+
+        IntVar div = CpModelUtil.divVar(model, c, b);
+        assertEquals(0, CpModelUtil.getMinDomain(div));
+        assertEquals(5, CpModelUtil.getMaxDomain(div));
+
+        IntVar max = CpModelUtil.max(model, new IntVar[]{a, b});
+        assertEquals(2, CpModelUtil.getMinDomain(max));
+        assertEquals(5, CpModelUtil.getMaxDomain(max));
+
+        IntVar abs = CpModelUtil.linearExprToAbsIntVar(model, LinearExpr.term(a, 2));
+        assertEquals(0, CpModelUtil.getMinDomain(abs));
+        assertEquals(10, CpModelUtil.getMaxDomain(abs));
+    }
+
+    @Test
+    public void lazyExpression() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(0, 10, "a");
+        IntVar b = model.newIntVar(0, 5, "b");
+        IntVar c = model.newIntVar(1, 3, "c");
+        int vars = model.getBuilder().getVariablesCount();
+        int constraints = model.getBuilder().getConstraintsCount();
+
+        // sum(minus(a, b), c, a): 只做符号合并
+        CpExpr expr = CpExpr.sum(CpExpr.of(a).minus(CpExpr.of(b)), CpExpr.of(c), CpExpr.of(a));
+        assertEquals(vars, model.getBuilder().getVariablesCount());
+        assertEquals(3, expr.size());
+        assertArrayEquals(new long[]{-4, 23}, expr.bounds(model));
+
+        // 物化: 一个变量一条约束, 重复物化复用
+        IntVar var = expr.toIntVar(model);
+        assertSame(var, expr.toIntVar(model));
+        assertEquals(vars + 1, model.getBuilder().getVariablesCount());
+        assertEquals(constraints + 1, model.getBuilder().getConstraintsCount());
+
+        // 单变量/常量不物化新变量
+        assertSame(a, CpExpr.of(a).plus(CpExpr.of(b)).minus(CpExpr.of(b)).toIntVar(model));
+        assertTrue(CpExpr.of(a).minus(CpExpr.of(a)).plus(3).isConstant());
+    }
+
+    @Test
+    public void lazyExpressionWideRange() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(0, 3000000000L, "a");
+        IntVar b = model.newIntVar(-10, 10, "b");
+
+        // 推导范围超出int时不截断
+        IntVar var = CpExpr.of(a).plus(1).toIntVar(model);
+        assertEquals(1, CpModelUtil.getMinDomain(model, var));
+        assertEquals(3000000001L, CpModelUtil.getMaxDomain(model, var));
+        IntVar max = CpExpr.max(model, CpExpr.of(a), CpExpr.of(b)).toIntVar(model);
+        assertEquals(3000000000L, CpModelUtil.getMaxDomain(model, max));
+
+        // 除数范围超出int时不截断: 9e9 / [1, 3e9] 可取到3
+        IntVar div = CpExpr.div(model, CpExpr.constant(9000000000L), CpExpr.of(a)).toIntVar(model);
+        assertEquals(3, CpModelUtil.getMinDomain(model, div));
+        assertEquals(9000000000L, CpModelUtil.getMaxDomain(model, div));
+
+        // 推导范围溢出long时报错, 不创建long边界定义域的变量
+        try{
+            CpExpr.term(a, Long.MAX_VALUE / 2).plus(CpExpr.of(b)).toIntVar(model);
+            fail();
+        }catch (ArithmeticException ignored){
+        }
+
+        // 常数项溢出直接报错, 不再饱和
+        try{
+            CpExpr.of(a).plus(Long.MAX_VALUE).plus(1);
+            fail();
+        }catch (ArithmeticException ignored){
+        }
+        try{
+            CpExpr.of(a).plus(1).addLessOrEqual(model, Long.MIN_VALUE + 1);
+            fail();
+        }catch (ArithmeticException ignored){
+        }
+    }
+
+    @Test
+    public void memo() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(0, 10, "a");
+        IntVar b = model.newIntVar(0, 5, "b");
+        IntVar o1 = model.newBoolVar("o1");
+        IntVar o2 = model.newBoolVar("o2");
+        CpModelMemo memo = CpModelUtil.enableMemo(model);
+
+        // 操作数顺序无关, 忽略变量名
+        IntVar max = CpModelUtil.max(model, new IntVar[]{a, b}, 0, 10, "max1");
+        int vars = model.getBuilder().getVariablesCount();
+        assertSame(max, CpModelUtil.max(model, new IntVar[]{b, a}, 0, 10, "max2"));
+        assertNotSame(max, CpModelUtil.min(model, new IntVar[]{a, b}, 0, 10, ""));
+
+        IntVar sum = CpModelUtil.linearExprToIntVar(model, LinearExpr.scalProd(new IntVar[]{a, b}, new int[]{2, 1}), "");
+        assertSame(sum, CpModelUtil.linearExprToIntVar(model, LinearExpr.scalProd(new IntVar[]{b, a, a}, new int[]{1, 1, 1}), ""));
+
+        IntVar optMax = CpModelUtil.optionalMax(model, new int[]{3, 7}, new IntVar[]{o1, o2});
+        int before = model.getBuilder().getVariablesCount();
+        assertSame(optMax, CpModelUtil.optionalMax(model, new int[]{7, 3}, new IntVar[]{o2, o1}));
+        assertEquals(before, model.getBuilder().getVariablesCount());
+        assertEquals(3, memo.getHits());
+
+        // 关闭后不再去重
+        CpModelUtil.disableMemo(model);
+        assertNotSame(max, CpModelUtil.max(model, new IntVar[]{a, b}, 0, 10, ""));
+        assertTrue(model.getBuilder().getVariablesCount() > vars);
+    }
+
+    @Test
+    public void contiguityEncoding() {
+        CpModel model = new CpModel();
+        int[] positions = {5, 1, 2, 3};
+        IntVar[] optionalVars = new IntVar[positions.length];
+        for(int i=0; i<positions.length; i++){
+            optionalVars[i] = model.newBoolVar("o" + i);
+        }
+        int constraints = model.getBuilder().getConstraintsCount();
+        CpModelUtil.addOptionalNeighborConstraints(model, positions, optionalVars, ContiguityEncoding.AUTOMATON);
+        // 单个自动机约束, 3与5之间补0
+        assertEquals(constraints + 1, model.getBuilder().getConstraintsCount());
+        assertEquals(5, model.getBuilder().getConstraints(constraints).getAutomaton().getVarsCount());
+
+        try {
+            CpModelUtil.addOptionalNeighborConstraints(model, positions, optionalVars, ContiguityEncoding.NO_OVERLAP);
+            fail();
+        }catch (IllegalArgumentException e){
+            // 可选位置不支持区间编码
+        }
+    }
+
+    @Test
+    public void domainIndex() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(0, 10, "a");
+        DomainIndex domains = CpModelUtil.domainIndex(model);
+        assertSame(domains, CpModelUtil.domainIndex(model));
+        assertEquals(10, domains.max(a));
+
+        // 新增变量查询时同步
+        IntVar b = model.newIntVar(1, 9, "b");
+        b.getBuilder().clearDomain().addDomain(1).addDomain(1).addDomain(3).addDomain(4).addDomain(9).addDomain(9);
+        assertEquals(1, domains.min(b));
+        assertEquals(9, domains.max(b));
+        assertEquals(2, domains.holes(b));
+
+        // 收紧同步写入proto
+        assertTrue(domains.tighten(b, 2, 5));
+        assertEquals(3, domains.min(b));
+        assertEquals(4, domains.max(b));
+        assertEquals(0, domains.holes(b));
+        assertEquals(3, CpModelUtil.getMinDomain(b));
+        // 辅助方法经索引读取收紧后的范围
+        assertArrayEquals(new long[]{4, 5}, CpExpr.of(b).plus(1).bounds(model));
+        assertEquals(4, CpModelUtil.getMaxDomain(model, CpModelUtil.absVar(model, b, 0, 100, "")));
+        assertFalse(domains.tighten(a, 20, 30));
+        assertEquals(0, domains.min(a));
+
+        // 直接修改proto后refresh
+        a.getBuilder().setDomain(0, 5);
+        domains.refresh(a);
+        assertEquals(5, domains.min(a));
+    }
+}
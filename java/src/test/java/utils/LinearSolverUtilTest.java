@@ -3,14 +3,19 @@ package utils;
 import com.google.ortools.linearsolver.MPObjective;
 import com.google.ortools.linearsolver.MPSolver;
 import com.google.ortools.linearsolver.MPVariable;
+import com.google.ortools.linearsolver.PartialVariableAssignment;
 import com.google.ortools.sat.CpModel;
 import com.google.ortools.sat.CpSolver;
 import com.google.ortools.sat.CpSolverStatus;
 import com.google.ortools.sat.IntVar;
+import model.AlgorithmResultEnum;
+import model.Scenario;
+import model.ScenarioResult;
 import org.junit.Test;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -79,4 +84,226 @@ public class LinearSolverUtilTest {
 //        System.out.println("a2: " + solver.value(a2));
 //        System.out.println("a3: " + solver.value(a3));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void loadBulk() {
+        MPSolver solver = new MPSolver("bulk", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+        int[] x = solverUtil.addVariablesBulk(new double[]{0, 0}, new double[]{10, 10}, true);
+        assertArrayEquals(new int[]{0, 1}, x);
+
+        // x1 + x2 <= 12, x1 - x2 = 1
+        solverUtil.addLessOrEqualBulk(new int[]{x[0], x[1]}, new double[]{1, 1}, 12);
+        solverUtil.addEqualBulk(new int[]{x[0], x[1]}, new double[]{1, -1}, 1);
+        solverUtil.setObjectiveBulk(new int[]{x[0], x[1]}, new double[]{1, 2}, true);
+        MPVariable[] vars = solverUtil.loadBulk();
+        assertEquals(2, vars.length);
+        assertEquals(2, solver.numConstraints());
+
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, solver.solve());
+        // x1=6, x2=5 => 6+10
+        assertEquals(16, solver.objective().value(), 1e-6);
+        assertEquals(6, vars[x[0]].solutionValue(), 1e-6);
+
+        // 加载后求解器非空, 不能再批量建模
+        try{
+            solverUtil.addVariablesBulk(new double[]{0}, new double[]{1}, true);
+            fail();
+        }catch (IllegalStateException expected){
+        }
+    }
+
+    @Test
+    public void loadBulkNonEmptySolver() {
+        MPSolver solver = new MPSolver("bulk", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+        // 已有变量的求解器不能批量建模, 否则加载后v0指向已释放的原生对象
+        MPVariable v0 = solver.makeIntVar(0, 5, "v0");
+        try{
+            solverUtil.addVariablesBulk(new double[]{0}, new double[]{10}, true);
+            fail();
+        }catch (IllegalStateException expected){
+        }
+        assertEquals(5, v0.ub(), 1e-9);
+
+        // 缓冲创建后又逐个创建变量, 加载时拒绝
+        MPSolver empty = new MPSolver("bulk", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        LinearSolverUtil emptyUtil = new LinearSolverUtil(empty);
+        emptyUtil.addVariablesBulk(new double[]{0}, new double[]{10}, true);
+        empty.makeIntVar(0, 5, "late");
+        try{
+            emptyUtil.loadBulk();
+            fail();
+        }catch (IllegalStateException expected){
+        }
+    }
+
+    @Test
+    public void boundDerivedBigM() {
+        // 固定大M与推导大M最优值一致: 最小化 sum(c_i*x_i) - 10*min(x), 每组x_i需覆盖需求; B&B节点数对比见benchmark模块BigMBenchmark
+        double[] objs = new double[2];
+        for(int k=0; k<2; k++){
+            MPSolver solver = new MPSolver("bigM", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+            LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+            int n = 12;
+            MPVariable[] x = solver.makeIntVarArray(n, 0, 60);
+            for(int i=0; i<n-1; i++){
+                solverUtil.addGreaterOrEqual(new MPVariable[]{x[i], x[i+1]}, new double[]{1, 1}, 30 + (i * 7) % 20, "");
+            }
+            MPVariable minV = k == 0 ? solverUtil.min(x, LinearSolverUtil.M_VALUE, "min") : solverUtil.min(x, "min");
+            MPObjective objective = solver.objective();
+            for(int i=0; i<n; i++){
+                objective.setCoefficient(x[i], 1 + (i * 5) % 7);
+            }
+            objective.setCoefficient(minV, -10);
+            objective.setMinimization();
+            assertEquals(MPSolver.ResultStatus.OPTIMAL, solver.solve());
+            objs[k] = objective.value();
+        }
+        assertEquals(objs[0], objs[1], 1e-6);
+    }
+
+    @Test
+    public void unboundedBigM() {
+        MPSolver solver = new MPSolver("unbounded", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+        MPVariable x = solver.makeIntVar(0, LinearSolverUtil.INFINITY, "x");
+        MPVariable y = solver.makeIntVar(0, 10, "y");
+        MPVariable z = solver.makeIntVar(-LinearSolverUtil.INFINITY, 10, "z");
+        // 界无穷时不再退化为M_VALUE
+        try{
+            solverUtil.max(new MPVariable[]{x, y}, "max");
+            fail();
+        }catch (IllegalArgumentException expected){
+        }
+        try{
+            solverUtil.abs(z, "abs");
+            fail();
+        }catch (IllegalArgumentException expected){
+        }
+        // 已满足的一侧不需要大M
+        solverUtil.addIndicator(solver.makeBoolVar("on"), true, new MPVariable[]{x}, new double[]{1}, 3, LinearSolverUtil.INFINITY, "");
+    }
+
+    @Test
+    public void continuousResultVars() {
+        MPSolver solver = new MPSolver("continuous", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+        MPVariable x = solver.makeNumVar(-2.5, 1.5, "x");
+        MPVariable y = solver.makeIntVar(0, 3, "y");
+
+        // 任一输入为连续变量时结果为连续变量, 全为整数变量时结果为整数变量
+        assertFalse(solverUtil.abs(x, "abs").integer());
+        assertFalse(solverUtil.max(new MPVariable[]{x, y}, "max").integer());
+        assertFalse(solverUtil.min(new MPVariable[]{x, y}, "min").integer());
+        assertTrue(solverUtil.max(new MPVariable[]{y, solver.makeIntVar(1, 2, "z")}, "maxInt").integer());
+
+        // |x|取到-2.5处的非整数值
+        MPObjective objective = solver.objective();
+        objective.setCoefficient(solverUtil.abs(x, "absObj"), 1);
+        objective.setMaximization();
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, solver.solve());
+        assertEquals(2.5, objective.value(), 1e-6);
+    }
+
+    @Test
+    public void linearizations() {
+        MPSolver solver = new MPSolver("lin", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+        // 上界超过M_VALUE时推导大M仍然正确
+        MPVariable a = solver.makeIntVar(20000, 50000, "a");
+        MPVariable b = solver.makeIntVar(30000, 30000, "b");
+        MPVariable maxV = solverUtil.max(new MPVariable[]{a, b}, "max");
+        MPVariable minV = solverUtil.min(new MPVariable[]{a, b}, "min");
+        MPVariable c = solver.makeIntVar(-8, 5, "c");
+        MPVariable absC = solverUtil.abs(c, "abs");
+        // on=1 => c >= 3
+        MPVariable on = solver.makeBoolVar("on");
+        solverUtil.addIndicator(on, true, new MPVariable[]{c}, new double[]{1}, 3, LinearSolverUtil.INFINITY, "");
+        solverUtil.addEqual(new MPVariable[]{on}, new double[]{1}, 1, "");
+        // y = f(c), f: (-8,0) (0,4) (5,-1)
+        MPVariable y = solverUtil.piecewiseLinear(c, new double[]{-8, 0, 5}, new double[]{0, 4, -1}, "y");
+
+        MPObjective objective = solver.objective();
+        objective.setCoefficient(maxV, 1);
+        objective.setCoefficient(minV, -1);
+        objective.setCoefficient(absC, 1);
+        objective.setCoefficient(y, 1);
+        objective.setMaximization();
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, solver.solve());
+        // a=50000: max-min=20000; c∈[3,5]: |c|+f(c) = c + 4-c = 4
+        assertEquals(20000, maxV.solutionValue() - minV.solutionValue(), 1e-6);
+        assertEquals(20004, objective.value(), 1e-6);
+    }
+
+    @Test
+    public void solveScenarios() {
+        // max 3x + 2y, c0: x + y <= 4, c1: x + 3y <= 6, x <= 3 => x=3, y=1, obj=11
+        MPSolver solver = new MPSolver("scenario", MPSolver.OptimizationProblemType.GLOP_LINEAR_PROGRAMMING);
+        LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+        MPVariable x = solver.makeNumVar(0, 3, "x");
+        MPVariable y = solver.makeNumVar(0, LinearSolverUtil.INFINITY, "y");
+        solverUtil.addLessOrEqual(new MPVariable[]{x, y}, new double[]{1, 1}, 4, "c0");
+        solverUtil.addLessOrEqual(new MPVariable[]{x, y}, new double[]{1, 3}, 6, "c1");
+        MPObjective objective = solver.objective();
+        objective.setCoefficient(x, 3);
+        objective.setCoefficient(y, 2);
+        objective.setMaximization();
+
+        List<Scenario> scenarios = Arrays.asList(
+                new Scenario("base"),
+                new Scenario("x<=2").varBounds(x.index(), 0, 2),
+                new Scenario("c0<=3").rowBounds(0, -LinearSolverUtil.INFINITY, 3),
+                new Scenario("y*10").objCoef(y.index(), 10),
+                // 同一变量改动两次, 以最后一次为准
+                new Scenario("x<=1").varBounds(x.index(), 0, 2).varBounds(x.index(), 0, 1));
+        double[] expected = {11, 6 + 8.0 / 3, 9, 20, 3 + 10.0 / 3};
+        List<ScenarioResult> results = solverUtil.solveScenarios(scenarios);
+        List<ScenarioResult> parallel = solverUtil.solveScenarios(scenarios, MPSolver.OptimizationProblemType.GLOP_LINEAR_PROGRAMMING, 2, 10000, 1, null);
+        for(int i=0; i<expected.length; i++){
+            assertEquals(AlgorithmResultEnum.OPTIMAL, results.get(i).getStatus());
+            assertEquals(scenarios.get(i).getName(), results.get(i).getName());
+            assertEquals(expected[i], results.get(i).getObjective(), 1e-6);
+            assertEquals(expected[i], parallel.get(i).getObjective(), 1e-6);
+        }
+
+        // 改动已撤销
+        assertEquals(3, x.ub(), 1e-9);
+        assertEquals(4, solver.constraints()[0].ub(), 1e-9);
+        assertEquals(2, objective.getCoefficient(y), 1e-9);
+        assertEquals(MPSolver.ResultStatus.OPTIMAL, solver.solve());
+        assertEquals(11, objective.value(), 1e-6);
+
+        // 求解器参数传给每个克隆, 非法参数在克隆上报错
+        try{
+            solverUtil.solveScenarios(scenarios, MPSolver.OptimizationProblemType.GLOP_LINEAR_PROGRAMMING, 2, 10000, 1, "not_a_param: 1");
+            fail();
+        }catch (IllegalStateException expected){
+        }
+    }
+
+    @Test
+    public void solveScenariosRestoresHint() {
+        MPSolver solver = new MPSolver("scenarioHint", MPSolver.OptimizationProblemType.CBC_MIXED_INTEGER_PROGRAMMING);
+        LinearSolverUtil solverUtil = new LinearSolverUtil(solver);
+        MPVariable x = solver.makeIntVar(0, 3, "x");
+        MPVariable y = solver.makeIntVar(0, 3, "y");
+        solverUtil.addLessOrEqual(new MPVariable[]{x, y}, new double[]{1, 1}, 4, "c0");
+        MPObjective objective = solver.objective();
+        objective.setCoefficient(x, 3);
+        objective.setCoefficient(y, 2);
+        objective.setMaximization();
+        solver.setHint(new MPVariable[]{y}, new double[]{2});
+
+        List<ScenarioResult> results = solverUtil.solveScenarios(Arrays.asList(
+                new Scenario("base"), new Scenario("x<=1").varBounds(x.index(), 0, 1)));
+        assertEquals(11, results.get(0).getObjective(), 1e-6);
+        assertEquals(9, results.get(1).getObjective(), 1e-6);
+
+        // 场景解不残留, 调用前的hint保留
+        PartialVariableAssignment hint = solver.exportModelToProto().getSolutionHint();
+        assertEquals(1, hint.getVarIndexCount());
+        assertEquals(y.index(), hint.getVarIndex(0));
+        assertEquals(2, hint.getVarValue(0), 1e-9);
+    }
+}
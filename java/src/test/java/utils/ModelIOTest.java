@@ -0,0 +1,153 @@
+package utils;
+
+import com.google.ortools.linearsolver.MPConstraintProto;
+import com.google.ortools.linearsolver.MPModelProto;
+import com.google.ortools.linearsolver.MPVariableProto;
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpModelProto;
+import model.ModelFormatEnum;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ModelIOTest {
+
+    private static final double INF = LinearSolverUtil.INFINITY;
+
+    /**
+     * max 3x + 2y + 1.5
+     * c0: 1 <= x + y <= 4, c1: x - z = 3, COST: y >= -2
+     * x∈[0,3]整数, y∈(-inf,5], z=2, w自由且未使用
+     */
+    private static MPModelProto newMPModel(){
+        MPModelProto.Builder model = MPModelProto.newBuilder().setName("demo").setMaximize(true).setObjectiveOffset(1.5);
+        model.addVariable(MPVariableProto.newBuilder().setName("x").setIsInteger(true).setLowerBound(0).setUpperBound(3).setObjectiveCoefficient(3));
+        model.addVariable(MPVariableProto.newBuilder().setName("y").setLowerBound(-INF).setUpperBound(5).setObjectiveCoefficient(2));
+        model.addVariable(MPVariableProto.newBuilder().setName("z").setLowerBound(2).setUpperBound(2));
+        model.addVariable(MPVariableProto.newBuilder().setName("w").setLowerBound(-INF).setUpperBound(INF));
+        model.addConstraint(MPConstraintProto.newBuilder().setName("c0").setLowerBound(1).setUpperBound(4)
+                .addVarIndex(0).addCoefficient(1).addVarIndex(1).addCoefficient(1));
+        model.addConstraint(MPConstraintProto.newBuilder().setName("c1").setLowerBound(3).setUpperBound(3)
+                .addVarIndex(0).addCoefficient(1).addVarIndex(2).addCoefficient(-1));
+        // 与目标行同名
+        model.addConstraint(MPConstraintProto.newBuilder().setName("COST").setLowerBound(-2).setUpperBound(INF)
+                .addVarIndex(1).addCoefficient(1));
+        return model.build();
+    }
+
+    @Test
+    public void mpsRoundTrip() throws IOException {
+        MPModelProto model = newMPModel();
+        StringWriter out = new StringWriter();
+        ModelIO.writeMps(model, out);
+        MPModelProto read = ModelIO.readMps(new BufferedReader(new StringReader(out.toString())));
+
+        assertTrue(read.getMaximize());
+        assertEquals(1.5, read.getObjectiveOffset(), 1e-9);
+        assertEquals(model.getVariableCount(), read.getVariableCount());
+        for(int i=0; i<model.getVariableCount(); i++){
+            MPVariableProto expected = model.getVariable(i);
+            MPVariableProto actual = read.getVariable(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getIsInteger(), actual.getIsInteger());
+            assertEquals(expected.getLowerBound(), actual.getLowerBound(), 1e-9);
+            assertEquals(expected.getUpperBound(), actual.getUpperBound(), 1e-9);
+            assertEquals(expected.getObjectiveCoefficient(), actual.getObjectiveCoefficient(), 1e-9);
+        }
+        assertEquals(model.getConstraintCount(), read.getConstraintCount());
+        for(int r=0; r<model.getConstraintCount(); r++){
+            MPConstraintProto expected = model.getConstraint(r);
+            MPConstraintProto actual = read.getConstraint(r);
+            assertEquals(expected.getLowerBound(), actual.getLowerBound(), 1e-9);
+            assertEquals(expected.getUpperBound(), actual.getUpperBound(), 1e-9);
+            assertEquals(expected.getVarIndexList(), actual.getVarIndexList());
+            assertEquals(expected.getCoefficientList(), actual.getCoefficientList());
+        }
+        // 同名行被改名, 不与目标行冲突
+        assertNotEquals("COST", read.getConstraint(2).getName());
+    }
+
+    @Test
+    public void lpExport() throws IOException {
+        StringWriter out = new StringWriter();
+        ModelIO.writeLp(newMPModel(), out);
+        String lp = out.toString();
+        assertTrue(lp.startsWith("\\ demo\nMaximize\n obj: + 3 x + 2 y + 1.5\n"));
+        assertTrue(lp.contains(" c0_lo: + 1 x + 1 y >= 1\n c0_hi: + 1 x + 1 y <= 4\n"));
+        assertTrue(lp.contains(" c1: + 1 x - 1 z = 3\n"));
+        assertTrue(lp.contains(" -inf <= y <= 5\n z = 2\n w free\n"));
+        assertTrue(lp.endsWith("Generals\n x\nEnd\n"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void lpImportUnsupported() throws IOException {
+        ModelIO.readMPModel(new ByteArrayInputStream(new byte[0]), ModelFormatEnum.LP);
+    }
+
+    @Test
+    public void cpModelConversion() {
+        // max 2x + 3b, x + not(b)*2 <= 5
+        CpModel model = new CpModel();
+        CpModelProto.Builder builder = model.getBuilder();
+        builder.addVariablesBuilder().setName("x").addDomain(0).addDomain(5);
+        builder.addVariablesBuilder().setName("b").addDomain(0).addDomain(1);
+        builder.addConstraintsBuilder().getLinearBuilder().addVars(0).addCoeffs(1).addVars(-2).addCoeffs(2)
+                .addDomain(Long.MIN_VALUE).addDomain(5);
+        builder.getObjectiveBuilder().addVars(0).addCoeffs(-2).addVars(1).addCoeffs(-3).setScalingFactor(-1);
+
+        MPModelProto mp = ModelIO.toMPModelProto(builder);
+        assertTrue(mp.getMaximize());
+        assertEquals(2, mp.getVariable(0).getObjectiveCoefficient(), 1e-9);
+        assertEquals(3, mp.getVariable(1).getObjectiveCoefficient(), 1e-9);
+        // x + 2(1-b) <= 5 => x - 2b <= 3
+        MPConstraintProto row = mp.getConstraint(0);
+        assertEquals(-2, row.getCoefficient(1), 1e-9);
+        assertEquals(3, row.getUpperBound(), 1e-9);
+        assertTrue(Double.isInfinite(row.getLowerBound()));
+
+        CpModelProto back = ModelIO.toCpModel(mp).getBuilder().build();
+        assertEquals(builder.getObjective(), back.getObjective());
+        assertEquals(builder.getVariablesList(), back.getVariablesList());
+        assertEquals(3, back.getConstraints(0).getLinear().getDomain(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cpModelWithHolesRejected() {
+        CpModelProto.Builder builder = CpModelProto.newBuilder();
+        builder.addVariablesBuilder().addDomain(0).addDomain(1).addDomain(3).addDomain(5);
+        ModelIO.toMPModelProto(builder);
+    }
+
+    @Test
+    public void fileRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("modelio");
+        CpModel model = new CpModel();
+        CpModelProto.Builder builder = model.getBuilder();
+        builder.addVariablesBuilder().setName("x").addDomain(0).addDomain(5);
+        builder.addVariablesBuilder().setName("y").addDomain(-3).addDomain(7);
+        builder.addConstraintsBuilder().getLinearBuilder().addVars(0).addCoeffs(2).addVars(1).addCoeffs(-1)
+                .addDomain(Long.MIN_VALUE).addDomain(4);
+        builder.getObjectiveBuilder().addVars(0).addCoeffs(1).addVars(1).addCoeffs(1);
+
+        for(String name : new String[]{"m.pb.gz", "m.pbtxt"}){
+            Path file = dir.resolve(name);
+            ModelIO.export(model, file);
+            assertEquals(builder.build(), ModelIO.loadCpModel(file).getBuilder().build());
+        }
+        // MPS经线性模型中转, 变量/约束/目标保持一致
+        Path mps = dir.resolve("m.mps.gz");
+        ModelIO.export(model, mps);
+        CpModelProto read = ModelIO.loadCpModel(mps).getBuilder().build();
+        assertEquals(builder.getVariablesList(), read.getVariablesList());
+        assertEquals(builder.getConstraints(0).getLinear(), read.getConstraints(0).getLinear());
+        assertEquals(builder.getObjective().getCoeffsList(), read.getObjective().getCoeffsList());
+    }
+}
@@ -0,0 +1,67 @@
+package utils;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpObjectiveProto;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ObjectiveAccumulatorTest {
+
+    @Test
+    public void mergeDuplicates() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(0, 10, "a");
+        IntVar b = model.newIntVar(0, 10, "b");
+
+        ObjectiveAccumulator acc = new ObjectiveAccumulator();
+        acc.add("cost", a, 3);
+        acc.add("cost", b, 0);
+        acc.add("cost", a, 4);
+        acc.add("profit", b, Integer.MAX_VALUE);
+        acc.add("profit", b, Integer.MAX_VALUE);
+
+        assertEquals(1, acc.size("cost"));
+        assertEquals(7, acc.getWeight("cost", a));
+        // long权重不溢出
+        assertEquals(2L * Integer.MAX_VALUE, acc.getWeight("profit", b));
+        assertEquals(Arrays.asList("cost", "profit"), new ArrayList<>(acc.getObjNames()));
+
+        LinearExpr expr = acc.toLinearExpr();
+        assertEquals(2, expr.numElements());
+        assertEquals(7 * 2 + 2L * Integer.MAX_VALUE * 5, acc.evaluate("cost", i -> 2) + acc.evaluate("profit", i -> 5));
+    }
+
+    @Test
+    public void dropZeroWeightAfterMerge() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(0, 10, "a");
+        IntVar b = model.newIntVar(0, 10, "b");
+
+        ObjectiveAccumulator acc = new ObjectiveAccumulator();
+        acc.add("cost", a, 3);
+        acc.add("cost", b, 1);
+        acc.add("cost", a, -3);
+
+        acc.writeObjective(model.getBuilder(), acc.getObjNames(), false);
+        CpObjectiveProto objective = model.getBuilder().getObjective();
+        assertEquals(Arrays.asList(b.getIndex()), objective.getVarsList());
+        assertEquals(Arrays.asList(-1L), objective.getCoeffsList());
+        assertEquals(-1, objective.getScalingFactor(), 0);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void evaluateOverflow() {
+        CpModel model = new CpModel();
+        IntVar a = model.newIntVar(0, 10, "a");
+
+        ObjectiveAccumulator acc = new ObjectiveAccumulator();
+        acc.add("obj", a, Long.MAX_VALUE / 2);
+        acc.evaluate("obj", index -> 3);
+    }
+}
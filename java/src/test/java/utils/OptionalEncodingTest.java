@@ -0,0 +1,75 @@
+package utils;
+
+import com.google.ortools.sat.CpModel;
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.IntVar;
+import com.google.ortools.sat.LinearExpr;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * optionalMax/optionalMin各编码方式的正确性, 求解耗时对比见benchmark模块OptionalEncodingBenchmark
+ */
+public class OptionalEncodingTest {
+    static {
+        ORToolsLoader.load("/Users/bianlifeng/my_project/ortools_utils/java/src/lib/libjniortools.jnilib");
+    }
+
+    @Test
+    public void sameObjective() {
+        for(int n : new int[]{4, 16}){
+            long expected = solve(n, OptionalEncoding.BIG_M);
+            for(OptionalEncoding encoding : OptionalEncoding.values()){
+                assertEquals("n=" + n + ", encoding=" + encoding, expected, solve(n, encoding));
+            }
+        }
+    }
+
+    @Test
+    public void emptySelection() {
+        // ENFORCEMENT/ELEMENT无选中时max取minValue, min取maxValue
+        for(OptionalEncoding encoding : new OptionalEncoding[]{OptionalEncoding.ENFORCEMENT, OptionalEncoding.ELEMENT}){
+            CpModel model = new CpModel();
+            IntVar[] valueVars = new IntVar[3];
+            IntVar[] optionalVars = new IntVar[3];
+            for(int i=0; i<3; i++){
+                valueVars[i] = model.newIntVar(5 + i, 10 + i, "v" + i);
+                optionalVars[i] = model.newBoolVar("o" + i);
+                model.addEquality(optionalVars[i], 0);
+            }
+            IntVar maxVar = CpModelUtil.optionalMax(model, valueVars, optionalVars, 0, 20, "max", encoding);
+            IntVar minVar = CpModelUtil.optionalMin(model, valueVars, optionalVars, 0, 20, "min", encoding);
+
+            CpSolver solver = new CpSolver();
+            assertEquals(CpSolverStatus.OPTIMAL, solver.solve(model));
+            assertEquals(0, solver.value(maxVar));
+            assertEquals(20, solver.value(minVar));
+        }
+    }
+
+    /**
+     * 选出至少一半元素, 最小化(被选中值的最大值 - 被选中值的最小值)
+     */
+    private static long solve(int n, OptionalEncoding encoding){
+        CpModel model = new CpModel();
+        IntVar[] valueVars = new IntVar[n];
+        IntVar[] optionalVars = new IntVar[n];
+        for(int i=0; i<n; i++){
+            int base = (i * 37) % 100;
+            valueVars[i] = model.newIntVar(base, base + 20, "v" + i);
+            optionalVars[i] = model.newBoolVar("o" + i);
+        }
+        model.addGreaterOrEqual(LinearExpr.sum(optionalVars), (n + 1) / 2);
+        IntVar maxVar = CpModelUtil.optionalMax(model, valueVars, optionalVars, 0, 120, "max", encoding);
+        IntVar minVar = CpModelUtil.optionalMin(model, valueVars, optionalVars, 0, 120, "min", encoding);
+        model.minimize(LinearExpr.scalProd(new IntVar[]{maxVar, minVar}, new int[]{1, -1}));
+
+        CpSolver solver = new CpSolver();
+        solver.getParameters().setMaxTimeInSeconds(30);
+        solver.getParameters().setNumSearchWorkers(8);
+        assertEquals(CpSolverStatus.OPTIMAL, solver.solve(model));
+        return (long) solver.objectiveValue();
+    }
+}
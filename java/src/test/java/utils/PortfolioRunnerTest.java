@@ -0,0 +1,81 @@
+package utils;
+
+import model.AlgorithmResultEnum;
+import model.PortfolioResult;
+import model.SolverBackendEnum;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PortfolioRunnerTest {
+    static {
+        ORToolsLoader.load("/Users/bianlifeng/my_project/ortools_utils/java/src/lib/libjniortools.jnilib");
+    }
+
+    @Test
+    public void solve() {
+        // 多背包: 6个物品, 2个包
+        int[] weights = {48, 30, 42, 36, 36, 48};
+        int[] values = {10, 30, 25, 50, 35, 30};
+        int bins = 2;
+        LinearIntModel model = new LinearIntModel();
+        int[][] x = new int[weights.length][];
+        for(int i=0; i<weights.length; i++){
+            x[i] = model.newBoolVars(bins);
+            model.addLessOrEqual(x[i], new long[]{1, 1}, 1);
+            model.setObjective(x[i], new long[]{values[i], values[i]}, true);
+        }
+        for(int j=0; j<bins; j++){
+            int[] column = new int[weights.length];
+            long[] w = new long[weights.length];
+            for(int i=0; i<weights.length; i++){
+                column[i] = x[i][j];
+                w[i] = weights[i];
+            }
+            model.addLessOrEqual(column, w, 100);
+        }
+
+        PortfolioRunner runner = new PortfolioRunner(4, SolverBackendEnum.CP_SAT, SolverBackendEnum.CBC);
+        for(int r=0; r<3; r++){
+            PortfolioResult result = runner.solve(model, 10000);
+            assertEquals(AlgorithmResultEnum.OPTIMAL, result.getStatus());
+            assertEquals(145, result.getObjective(), 1e-6);
+            assertEquals(model.getVarCount(), result.getSolution().length);
+        }
+        assertEquals(3L, runner.getWinCounts().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(3L, (long) runner.getRunCounts().get(SolverBackendEnum.CBC));
+    }
+
+    @Test
+    public void allTimedOut() {
+        // 两组等式子集和, 1毫秒内各后端都找不到解也无法证明无解
+        Random random = new Random(11);
+        int n = 200;
+        LinearIntModel model = new LinearIntModel();
+        int[] x = model.newBoolVars(n);
+        for(int r=0; r<2; r++){
+            long[] w = new long[n];
+            long total = 0;
+            for(int i=0; i<n; i++){
+                w[i] = 100000 + random.nextInt(900000);
+                total += w[i];
+            }
+            model.addRow(x, w, total / 2 + r, total / 2 + r);
+        }
+
+        PortfolioRunner runner = new PortfolioRunner(2, SolverBackendEnum.CP_SAT, SolverBackendEnum.CBC);
+        PortfolioResult result = runner.solve(model, 1);
+        assertEquals(AlgorithmResultEnum.UNKNOWN, result.getStatus());
+        assertNull(result.getWinner());
+        assertEquals(0, result.getSolution().length);
+        // 先返回的超时结果不计为获胜
+        assertEquals(0L, runner.getWinCounts().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unboundedVar() {
+        new LinearIntModel().newVar(0, Long.MAX_VALUE, "x");
+    }
+}
@@ -0,0 +1,78 @@
+package utils;
+
+import com.google.ortools.sat.CpModelProto;
+import com.google.ortools.sat.CpSolverResponse;
+import com.google.ortools.sat.CpSolverStatus;
+import com.google.ortools.sat.SatParameters;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class SnapshotRecorderTest {
+    static {
+        ORToolsLoader.load("/Users/bianlifeng/my_project/ortools_utils/java/src/lib/libjniortools.jnilib");
+    }
+
+    /**
+     * max x + y, x + y <= 7
+     */
+    private static CpModelProto newProto(){
+        CpModelProto.Builder builder = CpModelProto.newBuilder();
+        builder.addVariablesBuilder().setName("x").addDomain(0).addDomain(5);
+        builder.addVariablesBuilder().setName("y").addDomain(0).addDomain(5);
+        builder.addConstraintsBuilder().getLinearBuilder().addVars(0).addCoeffs(1).addVars(1).addCoeffs(1)
+                .addDomain(0).addDomain(7);
+        builder.getObjectiveBuilder().addVars(0).addCoeffs(-1).addVars(1).addCoeffs(-1).setScalingFactor(-1);
+        return builder.build();
+    }
+
+    @Test
+    public void recordAndReplay() throws IOException {
+        Path dir = Files.createTempDirectory("snap");
+        SnapshotRecorder recorder = new SnapshotRecorder(dir.toString(), 10);
+        CpModelProto model = newProto();
+        SatParameters parameters = SatParameters.newBuilder().setNumSearchWorkers(1).setMaxTimeInSeconds(5).build();
+        CpSolverResponse response = CpSolverResponse.newBuilder().setStatus(CpSolverStatus.OPTIMAL).setObjectiveValue(7).build();
+        Path file = recorder.record("demo", model, parameters, response);
+        assertNotNull(file);
+
+        SnapshotRecorder.Snapshot snapshot = SnapshotRecorder.read(file);
+        assertEquals("demo", snapshot.getName());
+        assertEquals(model, snapshot.getModel());
+        assertEquals(parameters, snapshot.getParameters());
+        assertEquals(response, snapshot.getResponse());
+
+        CpSolverResponse replayed = SnapshotRecorder.replay(snapshot, SatParameters.newBuilder().setRandomSeed(1).build());
+        assertEquals(CpSolverStatus.OPTIMAL, replayed.getStatus());
+        assertEquals(7, replayed.getObjectiveValue(), 1e-9);
+    }
+
+    @Test
+    public void evictOldest() throws IOException {
+        Path dir = Files.createTempDirectory("snap");
+        SnapshotRecorder recorder = new SnapshotRecorder(dir.toString(), 2);
+        CpSolverResponse response = CpSolverResponse.getDefaultInstance();
+        // 同一毫秒内写入时按序号排序, 不依赖文件修改时间
+        Path[] recorded = new Path[4];
+        for(int i=0; i<recorded.length; i++){
+            recorded[i] = recorder.record("a-b", newProto(), SatParameters.getDefaultInstance(), response);
+        }
+        assertEquals(Arrays.asList(recorded[2], recorded[3]), recorder.list());
+    }
+
+    @Test
+    public void recordWithoutResponse() throws IOException {
+        Path dir = Files.createTempDirectory("snap");
+        SnapshotRecorder recorder = new SnapshotRecorder(dir.toString(), 2);
+        assertNull(recorder.record("a", newProto(), SatParameters.getDefaultInstance(), null));
+        try(Stream<Path> files = Files.list(dir)){
+            assertEquals(0, files.count());
+        }
+    }
+}
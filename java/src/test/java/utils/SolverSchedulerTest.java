@@ -0,0 +1,71 @@
+package utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SolverSchedulerTest {
+
+    @Test
+    public void acquireWithinBudget() throws InterruptedException {
+        SolverScheduler scheduler = new SolverScheduler(8);
+        SolverLease lease = scheduler.acquire("job", 16, 1, 0, Long.MAX_VALUE);
+        // 期望线程数超过预算时按预算分配
+        assertEquals(8, lease.getWorkers());
+        assertEquals(0, scheduler.getFreeWorkers());
+        lease.release();
+        lease.release();
+        assertEquals(8, scheduler.getFreeWorkers());
+        assertEquals(1, scheduler.getCompletedJobs());
+    }
+
+    @Test
+    public void shrinkWhenSaturated() throws InterruptedException {
+        SolverScheduler scheduler = new SolverScheduler(8);
+        SolverLease first = scheduler.acquire("first", 6, 1, 0, Long.MAX_VALUE);
+        SolverLease second = scheduler.acquire("second", 6, 1, 0, Long.MAX_VALUE);
+        assertEquals(6, first.getWorkers());
+        assertEquals(2, second.getWorkers());
+        first.release();
+        second.release();
+    }
+
+    @Test
+    public void rejectAfterDeadline() throws InterruptedException {
+        SolverScheduler scheduler = new SolverScheduler(2);
+        SolverLease lease = scheduler.acquire("first", 2, 2, 0, Long.MAX_VALUE);
+        assertNull(scheduler.acquire("second", 2, 1, 0, System.currentTimeMillis() + 50));
+        assertEquals(1, scheduler.getRejectedJobs());
+        lease.release();
+    }
+
+    @Test
+    public void admitByPriority() throws InterruptedException {
+        SolverScheduler scheduler = new SolverScheduler(1);
+        SolverLease running = scheduler.acquire("running", 1, 1, 0, Long.MAX_VALUE);
+        AtomicReference<String> admitted = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(2);
+        for(int priority=0; priority<2; priority++){
+            String jobName = "job" + priority;
+            int p = priority;
+            new Thread(() -> {
+                try{
+                    SolverLease lease = scheduler.acquire(jobName, 1, 1, p, Long.MAX_VALUE);
+                    admitted.compareAndSet(null, jobName);
+                    lease.release();
+                }catch (InterruptedException ignored){
+                }
+                done.countDown();
+            }).start();
+        }
+        while(scheduler.getWaitingCount() < 2){
+            Thread.sleep(5);
+        }
+        running.release();
+        done.await();
+        assertEquals("job1", admitted.get());
+    }
+}